@@ -0,0 +1,53 @@
+package com.marlowsoft.wofsolver.benchmark;
+
+import com.marlowsoft.wofsolver.dictionary.DawgWordIndex;
+import com.marlowsoft.wofsolver.dictionary.LetterBitsetIndex;
+import com.marlowsoft.wofsolver.dictionary.PackedWordStore;
+import com.marlowsoft.wofsolver.dictionary.WordIndex;
+import com.marlowsoft.wofsolver.dictionary.WordListFileImpl;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Loads the real dictionary and builds the search engines the benchmarks are run against.
+ */
+final class BenchmarkWords {
+    /**
+     * The location of the real dictionary on the class path.
+     */
+    static final String WORD_LIST_FILE_LOC = "words.txt";
+
+    /**
+     * Not meant to be instantiated.
+     */
+    private BenchmarkWords() {
+    }
+
+    /**
+     * Load the real dictionary.
+     * @return All known words, in lower case and in dictionary order.
+     * @throws IOException If a problem occurs when reading the dictionary.
+     */
+    static List<String> loadWords() throws IOException {
+        return new WordListFileImpl(WORD_LIST_FILE_LOC).getWordList();
+    }
+
+    /**
+     * Build a search engine.
+     * @param engine The name of the engine: "bitset", "packed" or "dawg".
+     * @param words All known words, in lower case and in dictionary order.
+     * @return The search engine.
+     * @throws IllegalArgumentException If the engine isn't known.
+     */
+    static WordIndex createWordIndex(final String engine, final List<String> words) {
+        if("bitset".equals(engine)) {
+            return new LetterBitsetIndex(words);
+        } else if("packed".equals(engine)) {
+            return new PackedWordStore(words);
+        } else if("dawg".equals(engine)) {
+            return new DawgWordIndex(words);
+        }
+        throw new IllegalArgumentException("Unknown engine \"" + engine + "\"");
+    }
+}
@@ -0,0 +1,125 @@
+package com.marlowsoft.wofsolver.benchmark;
+
+import com.google.common.collect.Lists;
+import com.marlowsoft.wofsolver.dictionary.WordSearch;
+import com.marlowsoft.wofsolver.dictionary.WordSearchQueryImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link WordSearch#getMatchedWords} over a matrix of queries.
+ * <p>
+ * Every query is made from a real word of the requested length, the way a puzzle on the board
+ * would be: some of its letters are revealed, and some letters that aren't in it have been
+ * guessed, most common letters first. So every query matches at least one word.
+ * <p>
+ * Only the bitset engine is measured by default; run with {@code -p engine=bitset,packed,dawg}
+ * to compare the engines.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GetMatchedWordsBenchmark {
+    /**
+     * Letters in the order a contestant would usually guess them.
+     */
+    private static final String GUESS_ORDER = "etaoinshrdlucmfwypvbgkjqxz";
+
+    /**
+     * Stands for the overload without a limit.
+     */
+    private static final int UNLIMITED = -1;
+
+    @Param({"bitset"})
+    private String engine;
+
+    @Param({"3", "5", "8", "12"})
+    private int wordLength;
+
+    @Param({"0", "1", "3"})
+    private int knownLetterCount;
+
+    @Param({"0", "3", "8"})
+    private int usedLetterCount;
+
+    @Param({"10", "100", "-1"})
+    private int limit;
+
+    private WordSearch wordSearch;
+    private WordSearchQueryImpl searchQuery;
+
+    /**
+     * Build the engine and the query.
+     * @throws IOException If a problem occurs when reading the dictionary.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        final List<String> words = BenchmarkWords.loadWords();
+        wordSearch = new WordSearch(BenchmarkWords.createWordIndex(engine, words));
+
+        // the same word is picked on every run so results can be compared between runs
+        final List<String> sameLengthWords = Lists.newArrayList();
+        for(final String word : words) {
+            if(word.length() == wordLength) {
+                sameLengthWords.add(word);
+            }
+        }
+        final Random random = new Random(wordLength);
+        final String word = sameLengthWords.get(random.nextInt(sameLengthWords.size()));
+
+        final WordSearchQueryImpl.WordSearchQueryBuilder queryBuilder =
+                new WordSearchQueryImpl.WordSearchQueryBuilder().setWordLength(wordLength);
+
+        final List<Integer> positions = Lists.newArrayList();
+        for(int position = 0; position < wordLength; position++) {
+            positions.add(position);
+        }
+        Collections.shuffle(positions, random);
+        for(final Integer position : positions.subList(0,
+                Math.min(knownLetterCount, wordLength))) {
+            queryBuilder.addKnownLetter(position, word.charAt(position));
+        }
+
+        int usedLetters = 0;
+        for(int guessIdx = 0; guessIdx < GUESS_ORDER.length() &&
+                usedLetters < usedLetterCount; guessIdx++) {
+            final char guess = GUESS_ORDER.charAt(guessIdx);
+            if(word.indexOf(guess) < 0) {
+                queryBuilder.addUsedLetter(guess);
+                usedLetters++;
+            }
+        }
+
+        searchQuery = queryBuilder.build();
+    }
+
+    /**
+     * Search the dictionary.
+     * @return The matched words, so the work isn't optimized away.
+     */
+    @Benchmark
+    public List<String> getMatchedWords() {
+        if(limit == UNLIMITED) {
+            return wordSearch.getMatchedWords(searchQuery);
+        }
+        return wordSearch.getMatchedWords(searchQuery, limit);
+    }
+}
@@ -0,0 +1,177 @@
+package com.marlowsoft.wofsolver.benchmark;
+
+import com.google.common.collect.Lists;
+import com.marlowsoft.wofsolver.dictionary.CandidateSet;
+import com.marlowsoft.wofsolver.dictionary.LetterBitsetIndex;
+import com.marlowsoft.wofsolver.dictionary.TieredWord;
+import com.marlowsoft.wofsolver.dictionary.TieredWordSearch;
+import com.marlowsoft.wofsolver.dictionary.WordFrequencies;
+import com.marlowsoft.wofsolver.dictionary.WordFrequenciesFileImpl;
+import com.marlowsoft.wofsolver.dictionary.WordListFileImpl;
+import com.marlowsoft.wofsolver.dictionary.WordSearch;
+import com.marlowsoft.wofsolver.dictionary.WordSearchQueryImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what suggesting words for one board word costs with a {@link TieredWordSearch},
+ * next to the search of every candidate that the board and the headless mode make anyway to
+ * count the candidates.
+ * <p>
+ * Every query is made from a common word of the requested length, so the common words are
+ * worth searching: some of its letters are revealed, and the most common letters that aren't
+ * in it have been guessed. Nothing is cached, so every search is measured in full.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TieredSearchBenchmark {
+    /**
+     * The location of the common words on the class path.
+     */
+    private static final String CORE_WORD_LIST_FILE_LOC = "core-words.txt";
+
+    /**
+     * The location of how common words are on the class path.
+     */
+    private static final String WORD_FREQUENCY_FILE_LOC = "word-frequencies.txt";
+
+    /**
+     * Letters in the order a contestant would usually guess them.
+     */
+    private static final String GUESS_ORDER = "etaoinshrdlucmfwypvbgkjqxz";
+
+    /**
+     * How many words the board suggests for each board word.
+     */
+    private static final int SUGGESTION_LIMIT = 10;
+
+    @Param({"3", "5", "8"})
+    private int wordLength;
+
+    @Param({"0", "1", "3"})
+    private int knownLetterCount;
+
+    @Param({"3"})
+    private int usedLetterCount;
+
+    private WordSearch wordSearch;
+    private WordSearch coreWordSearch;
+    private TieredWordSearch tieredWordSearch;
+    private WordSearchQueryImpl searchQuery;
+
+    /**
+     * Build both tiers and the query.
+     * @throws IOException If a problem occurs when reading the word lists.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        final WordFrequencies wordFrequencies =
+                new WordFrequenciesFileImpl(WORD_FREQUENCY_FILE_LOC);
+        final LetterBitsetIndex fullWordIndex =
+                new LetterBitsetIndex(BenchmarkWords.loadWords());
+        final List<String> coreWords = new WordListFileImpl(CORE_WORD_LIST_FILE_LOC).getWordList();
+        final LetterBitsetIndex coreWordIndex = new LetterBitsetIndex(coreWords);
+        wordSearch = new WordSearch(fullWordIndex, wordFrequencies);
+        coreWordSearch = new WordSearch(coreWordIndex, wordFrequencies);
+        tieredWordSearch = new TieredWordSearch(coreWordIndex, fullWordIndex, wordFrequencies);
+
+        // the same word is picked on every run so results can be compared between runs
+        final List<String> sameLengthWords = Lists.newArrayList();
+        for(final String word : coreWords) {
+            if(word.length() == wordLength) {
+                sameLengthWords.add(word);
+            }
+        }
+        final Random random = new Random(wordLength);
+        final String word = sameLengthWords.get(random.nextInt(sameLengthWords.size()));
+
+        final WordSearchQueryImpl.WordSearchQueryBuilder queryBuilder =
+                new WordSearchQueryImpl.WordSearchQueryBuilder().setWordLength(wordLength);
+
+        final List<Integer> positions = Lists.newArrayList();
+        for(int position = 0; position < wordLength; position++) {
+            positions.add(position);
+        }
+        Collections.shuffle(positions, random);
+        for(final Integer position : positions.subList(0,
+                Math.min(knownLetterCount, wordLength))) {
+            queryBuilder.addKnownLetter(position, word.charAt(position));
+        }
+
+        int usedLetters = 0;
+        for(int guessIdx = 0; guessIdx < GUESS_ORDER.length() &&
+                usedLetters < usedLetterCount; guessIdx++) {
+            final char guess = GUESS_ORDER.charAt(guessIdx);
+            if(word.indexOf(guess) < 0) {
+                queryBuilder.addUsedLetter(guess);
+                usedLetters++;
+            }
+        }
+
+        searchQuery = queryBuilder.build();
+    }
+
+    /**
+     * Find every candidate and count them, without suggesting any; the least the board has to
+     * do.
+     * @return The number of candidates, so the work isn't optimized away.
+     */
+    @Benchmark
+    public int countCandidates() {
+        return wordSearch.getCandidates(searchQuery).getCount();
+    }
+
+    /**
+     * Find every candidate, count them, and suggest the common words first, filling the rest
+     * from the candidates; what the board and the headless mode do.
+     * @param blackhole Receives the suggestions and the count.
+     */
+    @Benchmark
+    public void suggestFromCandidates(final Blackhole blackhole) {
+        final CandidateSet candidates = wordSearch.getCandidates(searchQuery);
+        final List<TieredWord> suggestions =
+                tieredWordSearch.getMatchedWords(candidates, SUGGESTION_LIMIT);
+        blackhole.consume(suggestions);
+        blackhole.consume(candidates.getCount());
+    }
+
+    /**
+     * Suggest the common words first, searching every word only if they fall short, then
+     * count the candidates on their own; the order that looks at the common words first.
+     * @param blackhole Receives the suggestions and the count.
+     */
+    @Benchmark
+    public void suggestCoreFirst(final Blackhole blackhole) {
+        blackhole.consume(tieredWordSearch.getMatchedWords(searchQuery, SUGGESTION_LIMIT));
+        blackhole.consume(wordSearch.countMatches(searchQuery));
+    }
+
+    /**
+     * Suggest from the common words alone; what looking at the common words adds.
+     * @return The suggestions, so the work isn't optimized away.
+     */
+    @Benchmark
+    public List<String> suggestCoreOnly() {
+        return coreWordSearch.getTopMatchedWords(searchQuery, SUGGESTION_LIMIT);
+    }
+}
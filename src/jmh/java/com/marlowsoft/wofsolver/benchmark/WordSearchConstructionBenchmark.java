@@ -0,0 +1,73 @@
+package com.marlowsoft.wofsolver.benchmark;
+
+import com.marlowsoft.wofsolver.dictionary.WordSearch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to get a {@link WordSearch} ready from the real dictionary;
+ * i.e. how long the user waits before the board can suggest anything.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WordSearchConstructionBenchmark {
+    @Param({"bitset", "packed", "dawg"})
+    private String engine;
+
+    private List<String> words;
+
+    /**
+     * Load the dictionary once, so building the engine can be measured on its own.
+     * @throws IOException If a problem occurs when reading the dictionary.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        words = BenchmarkWords.loadWords();
+    }
+
+    /**
+     * Read, normalize and sort the dictionary file.
+     * @return The words, so the work isn't optimized away.
+     * @throws IOException If a problem occurs when reading the dictionary.
+     */
+    @Benchmark
+    public List<String> loadWordList() throws IOException {
+        return BenchmarkWords.loadWords();
+    }
+
+    /**
+     * Build the search engine from an already loaded dictionary.
+     * @return The search, so the work isn't optimized away.
+     */
+    @Benchmark
+    public WordSearch buildWordSearch() {
+        return new WordSearch(BenchmarkWords.createWordIndex(engine, words));
+    }
+
+    /**
+     * Read the dictionary file and build the search engine from it, the way the board does.
+     * @return The search, so the work isn't optimized away.
+     * @throws IOException If a problem occurs when reading the dictionary.
+     */
+    @Benchmark
+    public WordSearch loadAndBuildWordSearch() throws IOException {
+        return new WordSearch(BenchmarkWords.createWordIndex(engine, BenchmarkWords.loadWords()));
+    }
+}
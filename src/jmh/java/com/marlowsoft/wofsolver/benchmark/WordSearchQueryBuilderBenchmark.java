@@ -0,0 +1,54 @@
+package com.marlowsoft.wofsolver.benchmark;
+
+import com.marlowsoft.wofsolver.dictionary.WordSearchQueryImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building a query with {@link WordSearchQueryImpl.WordSearchQueryBuilder}, which the
+ * board does for every word on every change.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WordSearchQueryBuilderBenchmark {
+    private static final String KNOWN_LETTERS = "wheeloffortune";
+    private static final String USED_LETTERS = "abcdgijkmpqsvxyz";
+
+    @Param({"0", "4", "14"})
+    private int knownLetterCount;
+
+    @Param({"0", "5", "16"})
+    private int usedLetterCount;
+
+    /**
+     * Build a query.
+     * @return The query, so the work isn't optimized away.
+     */
+    @Benchmark
+    public WordSearchQueryImpl build() {
+        final WordSearchQueryImpl.WordSearchQueryBuilder queryBuilder =
+                new WordSearchQueryImpl.WordSearchQueryBuilder()
+                        .setWordLength(KNOWN_LETTERS.length());
+        for(int position = 0; position < knownLetterCount; position++) {
+            queryBuilder.addKnownLetter(position, KNOWN_LETTERS.charAt(position));
+        }
+        for(int usedIdx = 0; usedIdx < usedLetterCount; usedIdx++) {
+            queryBuilder.addUsedLetter(USED_LETTERS.charAt(usedIdx));
+        }
+        return queryBuilder.build();
+    }
+}
@@ -2,8 +2,8 @@ package com.marlowsoft.wofsolver;
 
 import com.google.inject.Guice;
 import com.marlowsoft.wofsolver.bind.WofModule;
+import com.marlowsoft.wofsolver.headless.HeadlessLauncher;
 import com.marlowsoft.wofsolver.ui.WofBoard;
-import com.marlowsoft.wofsolver.ui.event.*;
 
 /**
  * Main entry point of the application.
@@ -11,12 +11,17 @@ import com.marlowsoft.wofsolver.ui.event.*;
  */
 public class Main {
     /**
-     * Main entry point of the application.
+     * Main entry point of the application. With no arguments, the board is shown; otherwise the
+     * solver runs without a display, as described by {@link HeadlessLauncher}.
      * @param args Arguments to the application.
+     * @throws Exception If a problem occurs while running without a display.
      */
-    public static void main(final String[] args) {
+    public static void main(final String[] args) throws Exception {
+        if(HeadlessLauncher.isHeadless(args)) {
+            System.exit(HeadlessLauncher.launch(args, System.in, System.out, System.err));
+        }
+
         final WofBoard wofBoard = new WofBoard(Guice.createInjector(new WofModule()));
-        BlockValueChangedDispatcher.addListener(wofBoard);
         wofBoard.pack();
         wofBoard.setVisible(true);
         System.exit(0);
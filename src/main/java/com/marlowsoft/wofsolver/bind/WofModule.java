@@ -1,19 +1,80 @@
 package com.marlowsoft.wofsolver.bind;
 
+import com.google.common.collect.ImmutableList;
 import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
 import com.google.inject.name.Names;
+import com.marlowsoft.wofsolver.dictionary.CachingWordSearch;
+import com.marlowsoft.wofsolver.dictionary.DictionaryTier;
+import com.marlowsoft.wofsolver.dictionary.LetterBitsetIndex;
+import com.marlowsoft.wofsolver.dictionary.TieredWordSearch;
+import com.marlowsoft.wofsolver.dictionary.WordFrequencies;
+import com.marlowsoft.wofsolver.dictionary.WordFrequenciesFileImpl;
+import com.marlowsoft.wofsolver.dictionary.WordIndex;
 import com.marlowsoft.wofsolver.dictionary.WordList;
 import com.marlowsoft.wofsolver.dictionary.WordListFileImpl;
+import com.marlowsoft.wofsolver.dictionary.WordSearch;
+
+import java.io.File;
 
 /**
- * Binds the reading of the word list to a file-backed implementation.
+ * Binds the reading of the word list and of how common words are to
+ * file-backed implementations,
+ * the searching of the word list to a bitset index and
+ * word searches to a single search with a result cache and
+ * tiered searches to the common words first, then every word.
  */
 public class WofModule extends AbstractModule {
     @Override
     protected void configure() {
         bind(WordList.class).to(WordListFileImpl.class);
+        bind(WordFrequencies.class).to(WordFrequenciesFileImpl.class);
+        // the search and the tiered search share one index of the dictionary
+        bind(WordIndex.class).to(LetterBitsetIndex.class).in(Singleton.class);
+        bind(WordSearch.class).to(CachingWordSearch.class);
         bind(String.class)
                 .annotatedWith(Names.named("WordListFileLoc"))
                 .toInstance("words.txt");
+        bind(String.class)
+                .annotatedWith(Names.named("WordFrequencyFileLoc"))
+                .toInstance("word-frequencies.txt");
+        bind(String.class)
+                .annotatedWith(Names.named("CoreWordListFileLoc"))
+                .toInstance("core-words.txt");
+        bind(String.class)
+                .annotatedWith(Names.named("DictionaryFileLoc"))
+                .toInstance(new File(System.getProperty("user.home"),
+                        ".wof-solver" + File.separator + "words.dict").getPath());
+        bind(Long.class)
+                .annotatedWith(Names.named("WordSearchCacheSize"))
+                .toInstance(CachingWordSearch.DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Create a search of the common words first, the most common first, then every word. Both
+     * tiers are searched with a result cache; the tier of every word shares the one of the
+     * word search.
+     * @param wordSearch Searches every word; i.e. the dictionary.
+     * @param wordFrequencies How common words are.
+     * @param coreFilePath The path to load the common words from.
+     * @param cacheSize The maximum number of results the cache of the common words holds.
+     * @return The search.
+     * @throws Exception If a problem occurs while reading the common words.
+     */
+    @Provides
+    @Singleton
+    TieredWordSearch provideTieredWordSearch(
+            final WordSearch wordSearch,
+            final WordFrequencies wordFrequencies,
+            @Named("CoreWordListFileLoc") final String coreFilePath,
+            @Named("WordSearchCacheSize") final long cacheSize) throws Exception {
+        final WordSearch coreWordSearch = new CachingWordSearch(
+                new LetterBitsetIndex(new WordListFileImpl(coreFilePath)), wordFrequencies,
+                cacheSize);
+        return new TieredWordSearch(ImmutableList.of(
+                new DictionaryTier(TieredWordSearch.CORE_TIER, coreWordSearch, true),
+                new DictionaryTier(TieredWordSearch.FULL_TIER, wordSearch, false)));
     }
 }
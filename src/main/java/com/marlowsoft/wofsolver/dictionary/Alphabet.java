@@ -0,0 +1,41 @@
+package com.marlowsoft.wofsolver.dictionary;
+
+/**
+ * Maps every character that can be typed into a board block to a small, dense index.
+ * The search structures use these indices in place of the characters themselves.
+ */
+final class Alphabet {
+    /**
+     * Every character a board block accepts, in index order.
+     */
+    static final String LETTERS = "abcdefghijklmnopqrstuvwxyz'-";
+
+    /**
+     * The number of characters in the alphabet.
+     */
+    static final int SIZE = LETTERS.length();
+
+    /**
+     * Returned by {@link #indexOf(char)} for characters that aren't in the alphabet.
+     */
+    static final int NONE = -1;
+
+    /**
+     * Private constructor; this class only has static members.
+     */
+    private Alphabet() {
+    }
+
+    /**
+     * Get the index of the specified character. Case isn't folded; only lower case letters
+     * are in the alphabet.
+     * @param letter The character to look up.
+     * @return The index of the character, or {@link #NONE} if it isn't in the alphabet.
+     */
+    static int indexOf(final char letter) {
+        if(letter >= 'a' && letter <= 'z') {
+            return letter - 'a';
+        }
+        return LETTERS.indexOf(letter);
+    }
+}
@@ -0,0 +1,161 @@
+package com.marlowsoft.wofsolver.dictionary;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.Lists;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.name.Named;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A {@link WordSearch} that remembers the words it has matched, so a query that has been seen
+ * before is answered without searching.
+ * <p>
+ * Every search goes through the same cache: matched words, counts, candidate sets (one at a
+ * time or in a batch) and the most common matched words. An entry is the bitset of every word a
+ * {@link CompiledWordQuery} matches, a bit per word of its length, so queries that only differ
+ * in ways that can't change the result share an entry, and every limit is answered from it. The
+ * cache holds a bounded number of entries, evicting the ones that haven't been used recently
+ * first. It's split into segments that are locked separately, so it can be shared by many
+ * threads.
+ */
+@Singleton
+public class CachingWordSearch extends WordSearch {
+    /**
+     * The number of results the cache holds when no size is specified.
+     */
+    public static final long DEFAULT_CACHE_SIZE = 4096;
+
+    private static final int CONCURRENCY_LEVEL = 16;
+
+    private final Cache<CompiledWordQuery, long[]> resultCache;
+
+    /**
+     * Initializes the word search with a cache of the default size.
+     * @param wordIndex All known words; i.e. a dictionary.
+     */
+    public CachingWordSearch(final WordIndex wordIndex) {
+        this(wordIndex, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Initializes the word search without knowing how common any word is.
+     * @param wordIndex All known words; i.e. a dictionary.
+     * @param cacheSize The maximum number of results to hold.
+     */
+    public CachingWordSearch(final WordIndex wordIndex, final long cacheSize) {
+        super(wordIndex);
+        resultCache = createResultCache(cacheSize);
+    }
+
+    /**
+     * Initializes the word search.
+     * @param wordIndex All known words; i.e. a dictionary.
+     * @param wordFrequencies How common the words are.
+     * @param cacheSize The maximum number of results to hold.
+     */
+    @Inject
+    public CachingWordSearch(final WordIndex wordIndex,
+                             final WordFrequencies wordFrequencies,
+                             @Named("WordSearchCacheSize") final long cacheSize) {
+        super(wordIndex, wordFrequencies);
+        resultCache = createResultCache(cacheSize);
+    }
+
+    /**
+     * Create an empty cache of results.
+     * @param cacheSize The maximum number of results to hold.
+     * @return The cache.
+     */
+    private static Cache<CompiledWordQuery, long[]> createResultCache(final long cacheSize) {
+        return CacheBuilder.newBuilder()
+                .maximumSize(cacheSize)
+                .concurrencyLevel(CONCURRENCY_LEVEL)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Get how often the cache has been hit and missed.
+     * @return A snapshot of the cache's statistics.
+     */
+    public CacheStats getCacheStats() {
+        return resultCache.stats();
+    }
+
+    /**
+     * Get the number of results in the cache.
+     * @return The approximate number of results in the cache.
+     */
+    public long getCacheSize() {
+        return resultCache.size();
+    }
+
+    /**
+     * Forget every result in the cache.
+     */
+    public void clearCache() {
+        resultCache.invalidateAll();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected List<String> getMatchedWords(final CompiledWordQuery compiledQuery,
+                                           final int matchedWordLimit) {
+        // every limit is answered from the same bits
+        return getWords(compiledQuery.getWordLength(), findCandidates(compiledQuery),
+                matchedWordLimit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected long[] findCandidates(final CompiledWordQuery compiledQuery) {
+        final long[] cachedCandidates = resultCache.getIfPresent(compiledQuery);
+        if(cachedCandidates != null) {
+            return cachedCandidates;
+        }
+
+        // two threads might search for the same words at once; the results are the same
+        final long[] candidates = super.findCandidates(compiledQuery);
+        resultCache.put(compiledQuery, candidates);
+        return candidates;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected List<long[]> findCandidatesBatch(final int wordLength,
+                                               final List<CompiledWordQuery> compiledQueries) {
+        // only the queries that aren't cached are searched, still in a single pass
+        final long[][] candidates = new long[compiledQueries.size()][];
+        final List<CompiledWordQuery> uncachedQueries = Lists.newArrayList();
+        for(int queryIdx = 0; queryIdx < compiledQueries.size(); queryIdx++) {
+            candidates[queryIdx] = resultCache.getIfPresent(compiledQueries.get(queryIdx));
+            if(candidates[queryIdx] == null) {
+                uncachedQueries.add(compiledQueries.get(queryIdx));
+            }
+        }
+
+        if(!uncachedQueries.isEmpty()) {
+            final Iterator<long[]> uncachedCandidates =
+                    super.findCandidatesBatch(wordLength, uncachedQueries).iterator();
+            for(int queryIdx = 0; queryIdx < compiledQueries.size(); queryIdx++) {
+                if(candidates[queryIdx] == null) {
+                    candidates[queryIdx] = uncachedCandidates.next();
+                    resultCache.put(compiledQueries.get(queryIdx), candidates[queryIdx]);
+                }
+            }
+        }
+        return Arrays.asList(candidates);
+    }
+}
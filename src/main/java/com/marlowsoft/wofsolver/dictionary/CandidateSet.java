@@ -0,0 +1,237 @@
+package com.marlowsoft.wofsolver.dictionary;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The words that match a query, which can be refined as the query changes.
+ * <p>
+ * When the query only gains constraints (a letter is revealed, or a letter is excluded), only
+ * the words that matched the previous query are looked at again. All words of the query's
+ * length are only searched again when a constraint is taken away. Late in a round, when only a
+ * handful of words are left, refining is almost free.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class CandidateSet {
+    private final WordIndex wordIndex;
+    private final FrequencyRanks frequencyRanks;
+    private WordSearchQuery searchQuery;
+    private CompiledWordQuery compiledQuery;
+    private long[] candidates;
+
+    /**
+     * Hold words that have already been matched. Get one with
+     * {@link WordSearch#getCandidates(WordSearchQueryImpl)} or
+     * {@link WordSearch#getCandidatesBatch(List)}.
+     * @param wordIndex All known words; i.e. a dictionary.
+     * @param frequencyRanks Ranks the candidates by how common they are.
+     * @param searchQuery The query the words match.
+     * @param compiledQuery The same query, compiled.
+     * @param candidates The bitset of the words that match the query, by ordinal. It's narrowed
+     *                   down in place when the set is refined.
+     */
+    CandidateSet(final WordIndex wordIndex,
+                 final FrequencyRanks frequencyRanks,
+                 final WordSearchQuery searchQuery,
+                 final CompiledWordQuery compiledQuery,
+                 final long[] candidates) {
+        this.wordIndex = wordIndex;
+        this.frequencyRanks = frequencyRanks;
+        this.searchQuery = searchQuery;
+        this.compiledQuery = compiledQuery;
+        this.candidates = candidates;
+    }
+
+    /**
+     * Gets the query the candidates match.
+     * @return The query the candidates match.
+     */
+    public WordSearchQuery getSearchQuery() {
+        return searchQuery;
+    }
+
+    /**
+     * Get the number of candidates.
+     * @return The number of words that match the query.
+     */
+    public int getCount() {
+        int candidateCount = 0;
+        for(final long candidateBits : candidates) {
+            candidateCount += Long.bitCount(candidateBits);
+        }
+        return candidateCount;
+    }
+
+    /**
+     * Get <i>all</i> candidates.
+     * @return <i>All</i> words that match the query, in dictionary order.
+     */
+    public List<String> getWords() {
+        return getWords(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Get <i>up to</i> the specified number of candidates.
+     * @param wordLimit The maximum number of words to get.
+     * @return A <i>maximum</i> of the specified amount of words that match the query,
+     * in dictionary order.
+     */
+    public List<String> getWords(final int wordLimit) {
+        return getWords(wordIndex, compiledQuery.getWordLength(), candidates, wordLimit);
+    }
+
+    /**
+     * Get <i>up to</i> the specified number of words from a bitset of words.
+     * @param wordIndex All known words; i.e. a dictionary.
+     * @param wordLength The length of the words.
+     * @param candidates The bitset of the words, by ordinal.
+     * @param wordLimit The maximum number of words to get.
+     * @return A <i>maximum</i> of the specified amount of the words, in dictionary order.
+     */
+    static List<String> getWords(final WordIndex wordIndex,
+                                 final int wordLength,
+                                 final long[] candidates,
+                                 final int wordLimit) {
+        final ImmutableList.Builder<String> wordsBuilder = ImmutableList.builder();
+        int wordCount = 0;
+        for(int candidateIdx = 0;
+            (candidateIdx < candidates.length) && (wordCount < wordLimit);
+            candidateIdx++) {
+            long candidateBits = candidates[candidateIdx];
+            while((candidateBits != 0) && (wordCount < wordLimit)) {
+                final int ordinal = candidateIdx * Long.SIZE +
+                        Long.numberOfTrailingZeros(candidateBits);
+                wordsBuilder.add(wordIndex.getWord(wordLength, ordinal));
+                wordCount++;
+                // clear the lowest set bit
+                candidateBits &= candidateBits - 1;
+            }
+        }
+        return wordsBuilder.build();
+    }
+
+    /**
+     * Get <i>up to</i> the specified number of the most common candidates.
+     * @param wordLimit The maximum number of words to get.
+     * @return A <i>maximum</i> of the specified amount of words that match the query, the most
+     * common first. Words that are as common as each other are in dictionary order.
+     */
+    public List<String> getTopWords(final int wordLimit) {
+        final FrequencyRanks.Selector selector =
+                frequencyRanks.newSelector(compiledQuery.getWordLength(), wordLimit);
+        selector.offer(0, candidates);
+        return selector.getWords();
+    }
+
+    /**
+     * Get the positions a letter is at in every candidate, without creating any strings. The
+     * candidates are only read, so several threads may do this at once as long as the set isn't
+     * refined meanwhile.
+     * @param letter The letter, in lower case.
+     * @param letterPositions Receives the positions of the letter in every candidate, in
+     *                        dictionary order; see {@link WordIndex#getLetterPositions}. It must
+     *                        hold at least {@link #getCount()} masks.
+     * @return The number of candidates.
+     */
+    int getLetterPositions(final char letter, final long[] letterPositions) {
+        final int wordLength = compiledQuery.getWordLength();
+        int wordCount = 0;
+        for(int candidateIdx = 0; candidateIdx < candidates.length; candidateIdx++) {
+            long candidateBits = candidates[candidateIdx];
+            while(candidateBits != 0) {
+                final int ordinal = candidateIdx * Long.SIZE +
+                        Long.numberOfTrailingZeros(candidateBits);
+                letterPositions[wordCount++] =
+                        wordIndex.getLetterPositions(wordLength, ordinal, letter);
+                // clear the lowest set bit
+                candidateBits &= candidateBits - 1;
+            }
+        }
+        return wordCount;
+    }
+
+    /**
+     * Narrow down the candidates to the words that have the specified letter at the
+     * specified position.
+     * @param position The position of the letter in the word.
+     * @param knownLetter The letter.
+     * @return <code>true</code> if only the previous candidates had to be looked at;
+     * <code>false</code> if all words had to be searched again.
+     * @throws IllegalArgumentException If the letter at the position is already known.
+     */
+    public boolean addKnownLetter(final int position, final char knownLetter) {
+        return refine(copySearchQuery().addKnownLetter(position, knownLetter).build());
+    }
+
+    /**
+     * Narrow down the candidates to the words that don't have the specified letter at any
+     * position that isn't known.
+     * @param excludedLetter The letter.
+     * @return <code>true</code> if only the previous candidates had to be looked at;
+     * <code>false</code> if all words had to be searched again.
+     */
+    public boolean addExcludedLetter(final char excludedLetter) {
+        return refine(copySearchQuery().addUsedLetter(excludedLetter).build());
+    }
+
+    /**
+     * Change the query the candidates match.
+     * @param newSearchQuery The new query to match words.
+     * @return <code>true</code> if only the previous candidates had to be looked at;
+     * <code>false</code> if all words had to be searched again.
+     */
+    public boolean refine(final WordSearchQuery newSearchQuery) {
+        final CompiledWordQuery newCompiledQuery = new CompiledWordQuery(newSearchQuery);
+        if(newCompiledQuery.equals(compiledQuery)) {
+            // nothing that matters has changed, so neither have the candidates
+            searchQuery = newSearchQuery;
+            return true;
+        }
+        if(newCompiledQuery.isNarrowerThan(compiledQuery)) {
+            wordIndex.filterMatches(newCompiledQuery, 0, candidates);
+            searchQuery = newSearchQuery;
+            compiledQuery = newCompiledQuery;
+            return true;
+        }
+        search(newSearchQuery, newCompiledQuery);
+        return false;
+    }
+
+    /**
+     * Create a query builder that starts out with the current query.
+     * @return The query builder.
+     */
+    private WordSearchQueryImpl.WordSearchQueryBuilder copySearchQuery() {
+        final WordSearchQueryImpl.WordSearchQueryBuilder queryBuilder =
+                new WordSearchQueryImpl.WordSearchQueryBuilder()
+                        .setWordLength(searchQuery.getWordLength());
+        for(final Map.Entry<Integer, Character> knownLetter :
+                searchQuery.getKnownLetters().entrySet()) {
+            queryBuilder.addKnownLetter(knownLetter.getKey(), knownLetter.getValue());
+        }
+        for(final Character usedLetter : searchQuery.getUsedLetters()) {
+            queryBuilder.addUsedLetter(usedLetter);
+        }
+        for(final Character revealedLetter : searchQuery.getRevealedLetters()) {
+            queryBuilder.addRevealedLetter(revealedLetter);
+        }
+        return queryBuilder;
+    }
+
+    /**
+     * Search all words of the query's length.
+     * @param newSearchQuery The query to match words.
+     * @param newCompiledQuery The same query, compiled.
+     */
+    private void search(final WordSearchQuery newSearchQuery,
+                        final CompiledWordQuery newCompiledQuery) {
+        final int wordCount = wordIndex.getWordCount(newCompiledQuery.getWordLength());
+        candidates = new long[(wordCount + Long.SIZE - 1) / Long.SIZE];
+        wordIndex.findMatches(newCompiledQuery, 0, candidates);
+        searchQuery = newSearchQuery;
+        compiledQuery = newCompiledQuery;
+    }
+}
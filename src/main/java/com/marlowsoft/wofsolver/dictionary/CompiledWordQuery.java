@@ -0,0 +1,312 @@
+package com.marlowsoft.wofsolver.dictionary;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * A {@link WordSearchQuery} boiled down to primitive arrays so that it can be matched against
+ * dictionary words without creating any objects.
+ * <p>
+ * Letters are folded to lower case once, when the query is compiled. Matching doesn't fold
+ * case, so the words given to the {@code matches} functions need to be in lower case, the way
+ * {@link WordList} provides them. This class is immutable.
+ * <p>
+ * Compiled queries are canonical: two of them are equal exactly when they're made from
+ * queries that differ only in ways that can't change which words match, such as the case of
+ * their letters or known letters outside of the word. So they make good cache keys.
+ * <p>
+ * Used letters and revealed letters both end up in the mask of excluded letters: neither can
+ * be at a position that isn't known, and a word that has one anywhere else is rejected by
+ * {@link #mightMatch(int)} before any of its letters are looked at.
+ */
+public final class CompiledWordQuery {
+    /**
+     * Stands in for a letter at a position in the word that isn't known.
+     */
+    public static final char UNKNOWN_LETTER = '\0';
+
+    private final int wordLength;
+    private final char[] knownLetters;
+    private final int[] knownLetterIndices;
+    private final int knownMask;
+    private final int excludedMask;
+    private final int rejectMask;
+
+    /**
+     * Compile the specified query.
+     * @param searchQuery The query to compile.
+     */
+    public CompiledWordQuery(final WordSearchQuery searchQuery) {
+        wordLength = searchQuery.getWordLength();
+        knownLetters = new char[Math.max(0, wordLength)];
+        knownLetterIndices = new int[knownLetters.length];
+        Arrays.fill(knownLetterIndices, Alphabet.NONE);
+
+        int knownLettersMask = 0;
+        for(final Map.Entry<Integer, Character> knownLetter :
+                searchQuery.getKnownLetters().entrySet()) {
+            final int position = knownLetter.getKey();
+            // known letters outside of the word can't be matched against anything
+            if(position < 0 || position >= knownLetters.length) {
+                continue;
+            }
+            final char letter = Character.toLowerCase(knownLetter.getValue());
+            knownLetters[position] = letter;
+            knownLetterIndices[position] = Alphabet.indexOf(letter);
+            knownLettersMask |= getMask(letter);
+        }
+        knownMask = knownLettersMask;
+
+        int excludedLettersMask = 0;
+        for(final Character usedLetter : searchQuery.getUsedLetters()) {
+            excludedLettersMask |= getMask(Character.toLowerCase(usedLetter));
+        }
+        // a revealed letter can't be at an unknown position either, which is all that
+        // excluding a letter means; the known positions are matched by their known letters
+        for(final Character revealedLetter : searchQuery.getRevealedLetters()) {
+            excludedLettersMask |= getMask(Character.toLowerCase(revealedLetter));
+        }
+        excludedMask = excludedLettersMask;
+        // an excluded letter that is also known may still be at its known positions
+        rejectMask = excludedMask & ~knownMask;
+    }
+
+    /**
+     * Create a query that doesn't know any letters and excludes the specified letters.
+     * @param wordLength The length of the word.
+     * @param excludedMask A mask of every letter that can't be in the word, where bit <i>n</i>
+     *                     stands for the letter with {@link Alphabet} index <i>n</i>.
+     */
+    private CompiledWordQuery(final int wordLength, final int excludedMask) {
+        this.wordLength = wordLength;
+        knownLetters = new char[Math.max(0, wordLength)];
+        knownLetterIndices = new int[knownLetters.length];
+        Arrays.fill(knownLetterIndices, Alphabet.NONE);
+        knownMask = 0;
+        this.excludedMask = excludedMask;
+        rejectMask = excludedMask;
+    }
+
+    /**
+     * Create a query that matches every word of the specified length that doesn't have any of
+     * the specified letters.
+     * @param wordLength The length of the word.
+     * @param excludedMask A mask of every letter that can't be in the word, where bit <i>n</i>
+     *                     stands for the letter with {@link Alphabet} index <i>n</i>.
+     * @return The query.
+     */
+    static CompiledWordQuery excluding(final int wordLength, final int excludedMask) {
+        return new CompiledWordQuery(wordLength, excludedMask);
+    }
+
+    /**
+     * Gets the length of the word.
+     * @return The length of the word.
+     */
+    public int getWordLength() {
+        return wordLength;
+    }
+
+    /**
+     * Get the known letter at the specified position.
+     * @param position The position in the word.
+     * @return The lower case letter at the position, or {@link #UNKNOWN_LETTER}.
+     */
+    public char getKnownLetter(final int position) {
+        return knownLetters[position];
+    }
+
+    /**
+     * Get the {@link Alphabet} index of the known letter at the specified position.
+     * @param position The position in the word.
+     * @return The index, or {@link Alphabet#NONE} if the letter isn't known or
+     * isn't in the alphabet.
+     */
+    int getKnownLetterIndex(final int position) {
+        return knownLetterIndices[position];
+    }
+
+    /**
+     * Get a mask of every letter that is known, where bit <i>n</i> stands for the letter
+     * with {@link Alphabet} index <i>n</i>.
+     * @return The mask of known letters.
+     */
+    public int getKnownMask() {
+        return knownMask;
+    }
+
+    /**
+     * Get a mask of every letter that can't be at an unknown position, where bit <i>n</i>
+     * stands for the letter with {@link Alphabet} index <i>n</i>.
+     * @return The mask of excluded letters.
+     */
+    public int getExcludedMask() {
+        return excludedMask;
+    }
+
+    /**
+     * Get a mask of every letter that rules a word out just by being somewhere in it; i.e. every
+     * excluded letter that isn't also known.
+     * @return The mask of letters that can't be in a matching word.
+     */
+    public int getRejectMask() {
+        return rejectMask;
+    }
+
+    /**
+     * Determine whether or not a word could match this query, judging only by which letters
+     * are in it. A word that passes still has to be checked with one of the {@code matches}
+     * functions, but most words that don't match are turned away here.
+     * @param wordMask A mask of every letter in the word, where bit <i>n</i> stands for the
+     *                 letter with {@link Alphabet} index <i>n</i>.
+     * @return <code>false</code> if the word can't match; <code>true</code> if it might.
+     */
+    public boolean mightMatch(final int wordMask) {
+        return (wordMask & rejectMask) == 0 && (wordMask & knownMask) == knownMask;
+    }
+
+    /**
+     * Determine whether or not every word that matches this query also matches another one;
+     * i.e. whether this query only ever adds constraints to the other one.
+     * <p>
+     * Each position of a word is constrained on its own, so this holds when, at every
+     * position, every letter this query allows is also allowed by the other query.
+     * @param other The other query.
+     * @return <code>true</code> if this query only matches words that the other query matches;
+     * <code>false</code> otherwise.
+     */
+    public boolean isNarrowerThan(final CompiledWordQuery other) {
+        if(wordLength != other.wordLength) {
+            return false;
+        }
+        for(int position = 0; position < wordLength; position++) {
+            if(other.knownLetters[position] != UNKNOWN_LETTER) {
+                if(knownLetters[position] != other.knownLetters[position]) {
+                    return false;
+                }
+            } else if(knownLetters[position] != UNKNOWN_LETTER) {
+                if((getMask(knownLetters[position]) & other.excludedMask) != 0) {
+                    return false;
+                }
+            } else if((other.excludedMask & ~excludedMask) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Determine whether or not a word matches this query.
+     * @param word The word to check, in lower case.
+     * @return <code>true</code> if the word matches; <code>false</code> otherwise.
+     */
+    public boolean matches(final CharSequence word) {
+        if(word.length() != wordLength) {
+            return false;
+        }
+        for(int position = 0; position < wordLength; position++) {
+            final char letter = word.charAt(position);
+            if(knownLetters[position] != UNKNOWN_LETTER) {
+                if(letter != knownLetters[position]) {
+                    return false;
+                }
+            } else if((getMask(letter) & excludedMask) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Determine whether or not a word stored as ASCII bytes matches this query.
+     * @param words The array the word is stored in.
+     * @param offset The offset of the first letter of the word in the array. The word is
+     *               assumed to be as long as this query's word length.
+     * @return <code>true</code> if the word matches; <code>false</code> otherwise.
+     */
+    public boolean matches(final byte[] words, final int offset) {
+        for(int position = 0; position < wordLength; position++) {
+            final char letter = (char)(words[offset + position] & 0xff);
+            if(knownLetters[position] != UNKNOWN_LETTER) {
+                if(letter != knownLetters[position]) {
+                    return false;
+                }
+            } else if((getMask(letter) & excludedMask) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Determine whether or not a word stored as ASCII bytes matches this query.
+     * The word is read with absolute gets, so the position of the buffer isn't changed.
+     * @param words The buffer the word is stored in.
+     * @param offset The offset of the first letter of the word in the buffer. The word is
+     *               assumed to be as long as this query's word length.
+     * @return <code>true</code> if the word matches; <code>false</code> otherwise.
+     */
+    public boolean matches(final ByteBuffer words, final int offset) {
+        for(int position = 0; position < wordLength; position++) {
+            final char letter = (char)(words.get(offset + position) & 0xff);
+            if(knownLetters[position] != UNKNOWN_LETTER) {
+                if(letter != knownLetters[position]) {
+                    return false;
+                }
+            } else if((getMask(letter) & excludedMask) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get a mask of every letter in a word.
+     * @param word The word, in lower case.
+     * @return The mask, where bit <i>n</i> stands for the letter with {@link Alphabet} index
+     * <i>n</i>.
+     */
+    public static int getLetterMask(final CharSequence word) {
+        int wordMask = 0;
+        for(int position = 0; position < word.length(); position++) {
+            wordMask |= getMask(word.charAt(position));
+        }
+        return wordMask;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(final Object other) {
+        if(this == other) {
+            return true;
+        }
+        if(!(other instanceof CompiledWordQuery)) {
+            return false;
+        }
+        final CompiledWordQuery otherQuery = (CompiledWordQuery)other;
+        return wordLength == otherQuery.wordLength &&
+                excludedMask == otherQuery.excludedMask &&
+                Arrays.equals(knownLetters, otherQuery.knownLetters);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return (wordLength * 31 + excludedMask) * 31 + Arrays.hashCode(knownLetters);
+    }
+
+    /**
+     * Get the mask bit for the specified letter.
+     * @param letter The letter, in lower case.
+     * @return The mask bit, or 0 if the letter isn't in the {@link Alphabet}.
+     */
+    static int getMask(final char letter) {
+        final int letterIndex = Alphabet.indexOf(letter);
+        return letterIndex == Alphabet.NONE ? 0 : 1 << letterIndex;
+    }
+}
@@ -0,0 +1,510 @@
+package com.marlowsoft.wofsolver.dictionary;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.inject.Inject;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores words as a minimized directed acyclic word graph (DAWG); one graph per word length.
+ * <p>
+ * Words that share a prefix share the nodes of that prefix and words that share a suffix share
+ * the nodes of that suffix, so the graph is much smaller than the words themselves. Every node
+ * knows how many words go through it, which turns a path through the graph into an ordinal and
+ * back again without storing the words.
+ * <p>
+ * A query is answered with a depth-first walk that only follows the known letter at a known
+ * position and skips excluded letters at an unknown position, so whole sub-graphs are pruned as
+ * soon as they can't match.
+ * <p>
+ * The graph can only be built from words in alphabetical order, so ordinals are alphabetical
+ * too, whatever the order of the word list.
+ */
+public class DawgWordIndex implements WordIndex {
+    private static final int BITS_PER_WORD = Long.SIZE;
+
+    private final WordGraph[] graphs;
+
+    /**
+     * Builds the graphs.
+     * @param wordList All known words; i.e. a dictionary.
+     * @throws Exception If a problem occurs while creating the word list.
+     */
+    @Inject
+    public DawgWordIndex(final WordList wordList) throws Exception {
+        this(wordList.getWordList());
+    }
+
+    /**
+     * Builds the graphs.
+     * @param words All known words, in lower case; i.e. a dictionary.
+     */
+    public DawgWordIndex(final List<String> words) {
+        final List<List<String>> wordsByLength = Lists.newArrayList();
+        for(final String word : words) {
+            while(wordsByLength.size() <= word.length()) {
+                wordsByLength.add(Lists.<String>newArrayList());
+            }
+            wordsByLength.get(word.length()).add(word);
+        }
+
+        graphs = new WordGraph[wordsByLength.size()];
+        for(int wordLength = 0; wordLength < graphs.length; wordLength++) {
+            graphs[wordLength] = new WordGraph(wordLength, wordsByLength.get(wordLength));
+        }
+    }
+
+    /**
+     * Get the number of nodes in all of the graphs.
+     * @return The number of nodes in all of the graphs.
+     */
+    public int getNodeCount() {
+        int nodeCount = 0;
+        for(final WordGraph graph : graphs) {
+            nodeCount += graph.wordCounts.length;
+        }
+        return nodeCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getWordCount(final int wordLength) {
+        final WordGraph graph = getGraph(wordLength);
+        return graph == null ? 0 : graph.getWordCount();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getWord(final int wordLength, final int ordinal) {
+        final WordGraph graph = getGraph(wordLength);
+        if(graph == null || ordinal < 0 || ordinal >= graph.getWordCount()) {
+            throw new IndexOutOfBoundsException(
+                    "No word of length " + wordLength + " with ordinal " + ordinal);
+        }
+        return graph.getWord(ordinal);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getLetterPositions(final int wordLength, final int ordinal, final char letter) {
+        final WordGraph graph = getGraph(wordLength);
+        if(graph == null || ordinal < 0 || ordinal >= graph.getWordCount()) {
+            throw new IndexOutOfBoundsException(
+                    "No word of length " + wordLength + " with ordinal " + ordinal);
+        }
+        return graph.getLetterPositions(ordinal, letter);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void findMatches(final CompiledWordQuery searchQuery,
+                            final int firstBitsetWord,
+                            final long[] matches) {
+        Arrays.fill(matches, 0L);
+
+        final WordGraph graph = getGraph(searchQuery.getWordLength());
+        if(graph == null) {
+            return;
+        }
+
+        final long firstOrdinal = (long)firstBitsetWord * BITS_PER_WORD;
+        final long lastOrdinal = Math.min(graph.getWordCount(),
+                firstOrdinal + (long)matches.length * BITS_PER_WORD);
+        if(firstOrdinal < lastOrdinal) {
+            graph.findMatches(searchQuery, (int)firstOrdinal, (int)lastOrdinal, matches);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void filterMatches(final CompiledWordQuery searchQuery,
+                              final int firstBitsetWord,
+                              final long[] matches) {
+        final int wordLength = searchQuery.getWordLength();
+        final WordGraph graph = getGraph(wordLength);
+        if(graph == null) {
+            Arrays.fill(matches, 0L);
+            return;
+        }
+
+        final long firstOrdinal = (long)firstBitsetWord * BITS_PER_WORD;
+        for(int matchIdx = 0; matchIdx < matches.length; matchIdx++) {
+            long matchBits = matches[matchIdx];
+            while(matchBits != 0) {
+                final long matchBit = Long.lowestOneBit(matchBits);
+                final long ordinal = firstOrdinal + (long)matchIdx * BITS_PER_WORD +
+                        Long.numberOfTrailingZeros(matchBits);
+                if(ordinal >= graph.getWordCount() ||
+                        !searchQuery.matches(graph.getWord((int)ordinal))) {
+                    matches[matchIdx] &= ~matchBit;
+                }
+                matchBits &= ~matchBit;
+            }
+        }
+    }
+
+    /**
+     * Get the graph of words of the specified length.
+     * @param wordLength The length of the words.
+     * @return The graph of words of the specified length,
+     * or <code>null</code> if there are no such words.
+     */
+    private WordGraph getGraph(final int wordLength) {
+        if(wordLength < 0 || wordLength >= graphs.length) {
+            return null;
+        }
+        return graphs[wordLength];
+    }
+
+    /**
+     * A minimized graph of all words of a single length, flattened into arrays.
+     * Node 0 is the root. The edges of node <i>n</i> are
+     * {@code edgeStarts[n]} (inclusive) to {@code edgeStarts[n + 1]} (exclusive),
+     * sorted by letter.
+     */
+    private static class WordGraph {
+        private final int wordLength;
+        private final int[] edgeStarts;
+        private final char[] edgeLetters;
+        private final int[] edgeTargets;
+        private final int[] wordCounts;
+
+        /**
+         * Builds the graph for a group of words.
+         * @param wordLength The length of every word in the group.
+         * @param words The words in the group.
+         */
+        public WordGraph(final int wordLength, final List<String> words) {
+            this.wordLength = wordLength;
+
+            // the graph is built incrementally from words in order, minimizing as it goes
+            final List<String> sortedWords = Lists.newArrayList(words);
+            Collections.sort(sortedWords);
+            final GraphBuilder graphBuilder = new GraphBuilder();
+            for(final String word : sortedWords) {
+                graphBuilder.add(word);
+            }
+            final BuildNode root = graphBuilder.finish();
+
+            // number the nodes breadth-first and flatten them into arrays
+            final List<BuildNode> nodes = Lists.newArrayList();
+            final Map<BuildNode, Integer> nodeIds = Maps.newIdentityHashMap();
+            int edgeCount = 0;
+            if(!sortedWords.isEmpty()) {
+                nodes.add(root);
+                nodeIds.put(root, 0);
+            }
+            for(int nodeIdx = 0; nodeIdx < nodes.size(); nodeIdx++) {
+                final BuildNode node = nodes.get(nodeIdx);
+                edgeCount += node.size;
+                for(int edgeIdx = 0; edgeIdx < node.size; edgeIdx++) {
+                    final BuildNode child = node.children[edgeIdx];
+                    if(!nodeIds.containsKey(child)) {
+                        nodeIds.put(child, nodes.size());
+                        nodes.add(child);
+                    }
+                }
+            }
+
+            edgeStarts = new int[nodes.size() + 1];
+            edgeLetters = new char[edgeCount];
+            edgeTargets = new int[edgeCount];
+            wordCounts = new int[nodes.size()];
+            int edgeIdx = 0;
+            for(int nodeIdx = 0; nodeIdx < nodes.size(); nodeIdx++) {
+                final BuildNode node = nodes.get(nodeIdx);
+                edgeStarts[nodeIdx] = edgeIdx;
+                wordCounts[nodeIdx] = node.wordCount;
+                for(int childIdx = 0; childIdx < node.size; childIdx++, edgeIdx++) {
+                    edgeLetters[edgeIdx] = node.letters[childIdx];
+                    edgeTargets[edgeIdx] = nodeIds.get(node.children[childIdx]);
+                }
+            }
+            edgeStarts[nodes.size()] = edgeIdx;
+        }
+
+        /**
+         * Get the number of words in the graph.
+         * @return The number of words in the graph.
+         */
+        public int getWordCount() {
+            return wordCounts.length == 0 ? 0 : wordCounts[0];
+        }
+
+        /**
+         * Spell out the word with the specified ordinal by following the counts down the graph.
+         * @param ordinal The ordinal of the word.
+         * @return The word.
+         */
+        public String getWord(final int ordinal) {
+            final char[] word = new char[wordLength];
+            int node = 0;
+            int remaining = ordinal;
+            for(int position = 0; position < wordLength; position++) {
+                int edge = edgeStarts[node];
+                while(remaining >= wordCounts[edgeTargets[edge]]) {
+                    remaining -= wordCounts[edgeTargets[edge]];
+                    edge++;
+                }
+                word[position] = edgeLetters[edge];
+                node = edgeTargets[edge];
+            }
+            return new String(word);
+        }
+
+        /**
+         * Find the positions of a letter in the word with the specified ordinal, following the
+         * counts down the graph the same as {@link #getWord(int)}.
+         * @param ordinal The ordinal of the word.
+         * @param letter The letter.
+         * @return A mask where bit <i>n</i> is set when the letter is at position <i>n</i>.
+         */
+        public long getLetterPositions(final int ordinal, final char letter) {
+            long positions = 0L;
+            int node = 0;
+            int remaining = ordinal;
+            for(int position = 0; position < wordLength; position++) {
+                int edge = edgeStarts[node];
+                while(remaining >= wordCounts[edgeTargets[edge]]) {
+                    remaining -= wordCounts[edgeTargets[edge]];
+                    edge++;
+                }
+                if(edgeLetters[edge] == letter) {
+                    positions |= 1L << position;
+                }
+                node = edgeTargets[edge];
+            }
+            return positions;
+        }
+
+        /**
+         * Find the words in a window of ordinals that match the specified query.
+         * @param searchQuery The compiled query to match words.
+         * @param firstOrdinal The first ordinal of the window (inclusive).
+         * @param lastOrdinal The last ordinal of the window (exclusive).
+         * @param matches Receives the matched ordinals, relative to the first ordinal.
+         */
+        public void findMatches(final CompiledWordQuery searchQuery,
+                                final int firstOrdinal,
+                                final int lastOrdinal,
+                                final long[] matches) {
+            findMatches(searchQuery, 0, 0, 0, firstOrdinal, lastOrdinal, matches);
+        }
+
+        /**
+         * Walk the graph depth-first from the specified node, pruning everything that can't match
+         * or is outside of the window.
+         * @param searchQuery The compiled query to match words.
+         * @param node The node to walk from.
+         * @param position The position in the word that the node's edges are for.
+         * @param baseOrdinal The ordinal of the first word that goes through the node.
+         * @param firstOrdinal The first ordinal of the window (inclusive).
+         * @param lastOrdinal The last ordinal of the window (exclusive).
+         * @param matches Receives the matched ordinals, relative to the first ordinal.
+         */
+        private void findMatches(final CompiledWordQuery searchQuery,
+                                 final int node,
+                                 final int position,
+                                 final int baseOrdinal,
+                                 final int firstOrdinal,
+                                 final int lastOrdinal,
+                                 final long[] matches) {
+            if(position == wordLength) {
+                final int matchIdx = baseOrdinal - firstOrdinal;
+                matches[matchIdx / BITS_PER_WORD] |= 1L << (matchIdx % BITS_PER_WORD);
+                return;
+            }
+
+            final char knownLetter = searchQuery.getKnownLetter(position);
+            final int excludedMask = searchQuery.getExcludedMask();
+            int childOrdinal = baseOrdinal;
+            for(int edge = edgeStarts[node];
+                (edge < edgeStarts[node + 1]) && (childOrdinal < lastOrdinal);
+                edge++) {
+                final int child = edgeTargets[edge];
+                final int childWordCount = wordCounts[child];
+                final char letter = edgeLetters[edge];
+                final boolean canMatch;
+                if(knownLetter != CompiledWordQuery.UNKNOWN_LETTER) {
+                    canMatch = letter == knownLetter;
+                } else {
+                    canMatch = (CompiledWordQuery.getMask(letter) & excludedMask) == 0;
+                }
+                if(canMatch && (childOrdinal + childWordCount > firstOrdinal)) {
+                    findMatches(searchQuery, child, position + 1, childOrdinal,
+                            firstOrdinal, lastOrdinal, matches);
+                }
+                childOrdinal += childWordCount;
+            }
+        }
+    }
+
+    /**
+     * Builds a minimized graph from words added in order, following the incremental algorithm of
+     * Daciuk, Mihov, Watson and Watson: once a word is added, the part of the previous word that
+     * it doesn't share can never change again, so it is merged with an equivalent node right away.
+     */
+    private static class GraphBuilder {
+        private final BuildNode root = new BuildNode();
+        private final Map<BuildNode, BuildNode> register = Maps.newHashMap();
+        private String previousWord = "";
+
+        /**
+         * Add a word. Words must be added in order and be of the same length.
+         * @param word The word to add.
+         */
+        public void add(final String word) {
+            int commonPrefix = 0;
+            while(commonPrefix < previousWord.length() &&
+                    word.charAt(commonPrefix) == previousWord.charAt(commonPrefix)) {
+                commonPrefix++;
+            }
+            if(!previousWord.isEmpty() && commonPrefix == word.length()) {
+                // this word has already been added
+                return;
+            }
+
+            BuildNode node = root;
+            for(int position = 0; position < commonPrefix; position++) {
+                node = node.getLastChild();
+            }
+            if(node.size > 0) {
+                replaceOrRegister(node);
+            }
+            for(int position = commonPrefix; position < word.length(); position++) {
+                final BuildNode child = new BuildNode();
+                node.addChild(word.charAt(position), child);
+                node = child;
+            }
+            previousWord = word;
+        }
+
+        /**
+         * Minimize what's left of the last word and count the words through every node.
+         * @return The root of the graph.
+         */
+        public BuildNode finish() {
+            if(root.size > 0) {
+                replaceOrRegister(root);
+            }
+            countWords(root);
+            return root;
+        }
+
+        /**
+         * Merge the last child of a node, and all of its descendants, with equivalent nodes.
+         * @param node The node whose last child is to be merged.
+         */
+        private void replaceOrRegister(final BuildNode node) {
+            final BuildNode child = node.getLastChild();
+            if(child.size > 0) {
+                replaceOrRegister(child);
+            }
+            final BuildNode equivalent = register.get(child);
+            if(equivalent != null) {
+                node.children[node.size - 1] = equivalent;
+            } else {
+                register.put(child, child);
+            }
+        }
+
+        /**
+         * Count the words that go through a node and all of its descendants.
+         * @param node The node to count.
+         * @return The number of words that go through the node.
+         */
+        private static int countWords(final BuildNode node) {
+            if(node.wordCount == 0) {
+                if(node.size == 0) {
+                    node.wordCount = 1;
+                }
+                for(int childIdx = 0; childIdx < node.size; childIdx++) {
+                    node.wordCount += countWords(node.children[childIdx]);
+                }
+            }
+            return node.wordCount;
+        }
+    }
+
+    /**
+     * A node of a graph that is still being built. Two nodes are equivalent when they have the
+     * same edges to the very same children.
+     */
+    private static class BuildNode {
+        private char[] letters = new char[0];
+        private BuildNode[] children = new BuildNode[0];
+        private int size;
+        private int wordCount;
+
+        /**
+         * Get the child that was added last.
+         * @return The child that was added last.
+         */
+        public BuildNode getLastChild() {
+            return children[size - 1];
+        }
+
+        /**
+         * Add an edge to a new child. Edges have to be added in order.
+         * @param letter The letter of the edge.
+         * @param child The child.
+         */
+        public void addChild(final char letter, final BuildNode child) {
+            if(size == letters.length) {
+                letters = Arrays.copyOf(letters, size + 1);
+                children = Arrays.copyOf(children, size + 1);
+            }
+            letters[size] = letter;
+            children[size] = child;
+            size++;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals(final Object other) {
+            if(!(other instanceof BuildNode)) {
+                return false;
+            }
+            final BuildNode otherNode = (BuildNode)other;
+            if(size != otherNode.size) {
+                return false;
+            }
+            for(int childIdx = 0; childIdx < size; childIdx++) {
+                if(letters[childIdx] != otherNode.letters[childIdx] ||
+                        children[childIdx] != otherNode.children[childIdx]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+            int hashCode = size;
+            for(int childIdx = 0; childIdx < size; childIdx++) {
+                hashCode = 31 * hashCode + letters[childIdx];
+                hashCode = 31 * hashCode + System.identityHashCode(children[childIdx]);
+            }
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.marlowsoft.wofsolver.dictionary;
+
+import java.util.List;
+
+/**
+ * A named part of the dictionary that a {@link TieredWordSearch} searches as one step; e.g. the
+ * most common words, or every word. This class is immutable.
+ */
+public final class DictionaryTier {
+    private final String name;
+    private final WordSearch wordSearch;
+    private final boolean ranked;
+
+    /**
+     * Create a tier whose words are found in dictionary order.
+     * @param name The name that the words found in the tier are labeled with.
+     * @param wordIndex The words of the tier.
+     */
+    public DictionaryTier(final String name, final WordIndex wordIndex) {
+        this(name, new WordSearch(wordIndex), false);
+    }
+
+    /**
+     * Create a tier whose words are found the most common first.
+     * @param name The name that the words found in the tier are labeled with.
+     * @param wordIndex The words of the tier.
+     * @param wordFrequencies How common the words are.
+     */
+    public DictionaryTier(final String name,
+                          final WordIndex wordIndex,
+                          final WordFrequencies wordFrequencies) {
+        this(name, new WordSearch(wordIndex, wordFrequencies), true);
+    }
+
+    /**
+     * Create a tier that is searched with the specified search; e.g. one with a cache.
+     * @param name The name that the words found in the tier are labeled with.
+     * @param wordSearch Searches the words of the tier.
+     * @param ranked Whether the words are found the most common first, rather than in
+     *               dictionary order. The search has to know how common they are.
+     */
+    public DictionaryTier(final String name, final WordSearch wordSearch, final boolean ranked) {
+        this.name = name;
+        this.wordSearch = wordSearch;
+        this.ranked = ranked;
+    }
+
+    /**
+     * Get the name of the tier.
+     * @return The name that the words found in the tier are labeled with.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get <i>up to</i> the specified number of matched words of the tier.
+     * @param compiledQuery The compiled query to match words.
+     * @param matchedWordLimit The maximum number of words to match.
+     * @return A <i>maximum</i> of the specified amount of matched words; the most common first
+     * if the tier knows how common its words are, otherwise in dictionary order.
+     */
+    List<String> getMatchedWords(final CompiledWordQuery compiledQuery,
+                                 final int matchedWordLimit) {
+        // ranking looks at every match, so only tiers that can rank their words do it
+        return ranked ? wordSearch.getTopMatchedWords(compiledQuery, matchedWordLimit) :
+                wordSearch.getMatchedWords(compiledQuery, matchedWordLimit);
+    }
+}
@@ -0,0 +1,218 @@
+package com.marlowsoft.wofsolver.dictionary;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Picks the most common of the words that match a query, with {@link WordFrequencies}.
+ * <p>
+ * Only the words that are known to be common are looked up, once, when the ranks are created:
+ * each of them is found in the {@link WordIndex} by its letters, and its frequency is kept in an
+ * array by ordinal, where every other word is 0. So neither creating the ranks nor ranking
+ * matched words ever has to spell out a word; only the words that make the cut are. This class
+ * is thread-safe.
+ */
+final class FrequencyRanks {
+    private final WordIndex wordIndex;
+    private final ConcurrentMap<Integer, int[]> frequenciesByLength = Maps.newConcurrentMap();
+
+    /**
+     * Create the ranks.
+     * @param wordIndex All known words; i.e. a dictionary.
+     * @param wordFrequencies How common the words are.
+     */
+    FrequencyRanks(final WordIndex wordIndex, final WordFrequencies wordFrequencies) {
+        this.wordIndex = wordIndex;
+        for(final Map.Entry<String, Integer> wordFrequency :
+                wordFrequencies.getFrequencies().entrySet()) {
+            final String word = wordFrequency.getKey();
+            // a negative frequency would rank above every word in the ranked form
+            if(word.isEmpty() || wordFrequency.getValue() <= 0) {
+                continue;
+            }
+            final int ordinal = findOrdinal(word);
+            if(ordinal >= 0) {
+                getFrequencies(word.length())[ordinal] = wordFrequency.getValue();
+            }
+        }
+    }
+
+    /**
+     * Start picking the most common words of a length.
+     * @param wordLength The length of the words.
+     * @param wordLimit The maximum number of words to pick.
+     * @return The selector to give the matched words to.
+     */
+    Selector newSelector(final int wordLength, final int wordLimit) {
+        return new Selector(wordLength, getFrequencies(wordLength), wordLimit);
+    }
+
+    /**
+     * Get the frequency of every word of a length.
+     * @param wordLength The length of the words.
+     * @return The frequencies, by ordinal.
+     */
+    private int[] getFrequencies(final int wordLength) {
+        final int[] cachedFrequencies = frequenciesByLength.get(wordLength);
+        if(cachedFrequencies != null) {
+            return cachedFrequencies;
+        }
+
+        // none of the words of a length that isn't there yet is known to be common
+        final int[] frequencies = new int[Math.max(0, wordIndex.getWordCount(wordLength))];
+        final int[] otherFrequencies = frequenciesByLength.putIfAbsent(wordLength, frequencies);
+        return otherFrequencies == null ? frequencies : otherFrequencies;
+    }
+
+    /**
+     * Find a word in the index by its letters.
+     * @param word The word, in lower case.
+     * @return The ordinal of the word, or -1 if the index doesn't have it.
+     */
+    private int findOrdinal(final String word) {
+        final WordSearchQueryImpl.WordSearchQueryBuilder queryBuilder =
+                new WordSearchQueryImpl.WordSearchQueryBuilder().setWordLength(word.length());
+        for(int position = 0; position < word.length(); position++) {
+            queryBuilder.addKnownLetter(position, word.charAt(position));
+        }
+
+        final long[] matches =
+                new long[(wordIndex.getWordCount(word.length()) + Long.SIZE - 1) / Long.SIZE];
+        wordIndex.findMatches(new CompiledWordQuery(queryBuilder.build()), 0, matches);
+        for(int matchIdx = 0; matchIdx < matches.length; matchIdx++) {
+            if(matches[matchIdx] != 0) {
+                return matchIdx * Long.SIZE + Long.numberOfTrailingZeros(matches[matchIdx]);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Keeps the most common of the words it's given in a bounded min-heap, so the least common
+     * of them can be replaced as soon as a more common word comes along. The words are never
+     * sorted as a whole; only the ones that are kept, at the very end.
+     * <p>
+     * Every word is kept as one <code>long</code>: its frequency in the upper half and its
+     * ordinal, flipped, in the lower half. So of two words that are as common, the one that
+     * comes first in dictionary order ranks higher. This class is not thread-safe.
+     */
+    final class Selector {
+        private final int wordLength;
+        private final int[] frequencies;
+        private final long[] heap;
+        private int heapSize;
+
+        /**
+         * Create a selector.
+         * @param wordLength The length of the words.
+         * @param frequencies The frequency of every word of the length, by ordinal.
+         * @param wordLimit The maximum number of words to pick.
+         */
+        private Selector(final int wordLength, final int[] frequencies, final int wordLimit) {
+            this.wordLength = wordLength;
+            this.frequencies = frequencies;
+            heap = new long[Math.max(0, Math.min(wordLimit, frequencies.length))];
+        }
+
+        /**
+         * Consider every matched word of a window.
+         * @param firstBitsetWord The index of the first bitset word in the window.
+         * @param matches The matched ordinals of the window, laid out as for
+         *                {@link WordIndex#findMatches}.
+         */
+        void offer(final int firstBitsetWord, final long[] matches) {
+            if(heap.length == 0) {
+                return;
+            }
+            for(int matchIdx = 0; matchIdx < matches.length; matchIdx++) {
+                long matchBits = matches[matchIdx];
+                while(matchBits != 0) {
+                    final int ordinal = (firstBitsetWord + matchIdx) * Long.SIZE +
+                            Long.numberOfTrailingZeros(matchBits);
+                    offer(ordinal);
+                    // clear the lowest set bit
+                    matchBits &= matchBits - 1;
+                }
+            }
+        }
+
+        /**
+         * Get the words that were picked.
+         * @return The most common of the words that were considered, the most common first.
+         */
+        List<String> getWords() {
+            final long[] rankedWords = Arrays.copyOf(heap, heapSize);
+            Arrays.sort(rankedWords);
+            final ImmutableList.Builder<String> wordsBuilder = ImmutableList.builder();
+            for(int rankIdx = rankedWords.length - 1; rankIdx >= 0; rankIdx--) {
+                final int ordinal = Integer.MAX_VALUE - (int)rankedWords[rankIdx];
+                wordsBuilder.add(wordIndex.getWord(wordLength, ordinal));
+            }
+            return wordsBuilder.build();
+        }
+
+        /**
+         * Consider a matched word.
+         * @param ordinal The ordinal of the word.
+         */
+        private void offer(final int ordinal) {
+            final long rankedWord = ((long)frequencies[ordinal] << Integer.SIZE) |
+                    (Integer.MAX_VALUE - ordinal);
+            if(heapSize < heap.length) {
+                heap[heapSize] = rankedWord;
+                siftUp(heapSize++);
+            } else if(rankedWord > heap[0]) {
+                // only a word that ranks higher than the lowest kept word gets in
+                heap[0] = rankedWord;
+                siftDown(0);
+            }
+        }
+
+        /**
+         * Move a word up the heap until its parent ranks lower than it.
+         * @param heapIdx The position of the word in the heap.
+         */
+        private void siftUp(final int heapIdx) {
+            final long rankedWord = heap[heapIdx];
+            int curIdx = heapIdx;
+            while(curIdx > 0) {
+                final int parentIdx = (curIdx - 1) >>> 1;
+                if(heap[parentIdx] <= rankedWord) {
+                    break;
+                }
+                heap[curIdx] = heap[parentIdx];
+                curIdx = parentIdx;
+            }
+            heap[curIdx] = rankedWord;
+        }
+
+        /**
+         * Move a word down the heap until its children rank higher than it.
+         * @param heapIdx The position of the word in the heap.
+         */
+        private void siftDown(final int heapIdx) {
+            final long rankedWord = heap[heapIdx];
+            int curIdx = heapIdx;
+            while(true) {
+                int childIdx = curIdx * 2 + 1;
+                if(childIdx >= heapSize) {
+                    break;
+                }
+                if(childIdx + 1 < heapSize && heap[childIdx + 1] < heap[childIdx]) {
+                    childIdx++;
+                }
+                if(rankedWord <= heap[childIdx]) {
+                    break;
+                }
+                heap[curIdx] = heap[childIdx];
+                curIdx = childIdx;
+            }
+            heap[curIdx] = rankedWord;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.marlowsoft.wofsolver.dictionary;
+
+/**
+ * How much calling a letter is expected to tell about the board, as worked out by
+ * {@link LetterAdvisor}. This class is immutable.
+ */
+public final class LetterAdvice {
+    private final char letter;
+    private final double probabilityOnBoard;
+    private final double expectedInformation;
+
+    /**
+     * Create the advice for a letter.
+     * @param letter The letter, in lower case.
+     * @param probabilityOnBoard The probability that the letter is on the board at all.
+     * @param expectedInformation The expected number of bits of entropy that calling the letter
+     *                            takes out of the candidates.
+     */
+    public LetterAdvice(final char letter,
+                        final double probabilityOnBoard,
+                        final double expectedInformation) {
+        this.letter = letter;
+        this.probabilityOnBoard = probabilityOnBoard;
+        this.expectedInformation = expectedInformation;
+    }
+
+    /**
+     * Get the letter.
+     * @return The letter, in lower case.
+     */
+    public char getLetter() {
+        return letter;
+    }
+
+    /**
+     * Get the probability that the letter is on the board.
+     * @return The probability, from 0 to 1, with every candidate of a word as likely as any other.
+     */
+    public double getProbabilityOnBoard() {
+        return probabilityOnBoard;
+    }
+
+    /**
+     * Get how much calling the letter is expected to narrow down the candidates.
+     * @return The expected reduction of the entropy of the candidates of every word, in bits.
+     */
+    public double getExpectedInformation() {
+        return expectedInformation;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return String.format("%c: %.0f%% on board, %.2f bits", Character.toUpperCase(letter),
+                probabilityOnBoard * 100.0, expectedInformation);
+    }
+}
@@ -0,0 +1,162 @@
+package com.marlowsoft.wofsolver.dictionary;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Works out which letter to call next, given the candidates of every word on the board.
+ * <p>
+ * Calling a letter reveals every one of it, so it splits the candidates of a word by the
+ * positions the letter is at; candidates without the letter are all in one part. Taking every
+ * candidate to be as likely as any other, the expected information of the call for that word is
+ * the entropy of the split, and the letter is on the board unless every word turns out to be in
+ * its part without the letter. Words are independent of each other, so their information adds
+ * up.
+ * <p>
+ * The positions of a letter are read straight from the dictionary by ordinal, so no candidate
+ * is ever spelled out. They're sorted, so every part of the split is a run of equal positions.
+ * Letters are worked out in parallel, one task apiece, on the executor the advisor is given.
+ * This class is thread-safe.
+ */
+public class LetterAdvisor {
+    /**
+     * Ranks advice by the expected information, then by the probability the letter is on the
+     * board, then alphabetically.
+     */
+    private static final Comparator<LetterAdvice> BEST_FIRST = new Comparator<LetterAdvice>() {
+        @Override
+        public int compare(final LetterAdvice advice, final LetterAdvice otherAdvice) {
+            final int informationOrder = Double.compare(otherAdvice.getExpectedInformation(),
+                    advice.getExpectedInformation());
+            if(informationOrder != 0) {
+                return informationOrder;
+            }
+            final int probabilityOrder = Double.compare(otherAdvice.getProbabilityOnBoard(),
+                    advice.getProbabilityOnBoard());
+            if(probabilityOrder != 0) {
+                return probabilityOrder;
+            }
+            return Character.compare(advice.getLetter(), otherAdvice.getLetter());
+        }
+    };
+
+    private static final double LOG_2 = Math.log(2.0);
+
+    private final ExecutorService executor;
+
+    /**
+     * Create an advisor.
+     * @param executor Runs the task of every letter.
+     */
+    public LetterAdvisor(final ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Work out how much calling each of the specified letters is expected to tell.
+     * @param candidates The candidates of every word on the board. Words without any candidates
+     *                   are left out. The sets are read from several threads at once, so they
+     *                   mustn't be refined until the advice is back.
+     * @param letters The letters that could be called, in either case.
+     * @return The advice for every letter, the best letter to call first.
+     * @throws InterruptedException If the thread is interrupted while waiting for the tasks.
+     */
+    public List<LetterAdvice> advise(final Collection<CandidateSet> candidates,
+                                     final Collection<Character> letters)
+            throws InterruptedException {
+        // the candidates are only counted once, for every letter's sake
+        final ImmutableList.Builder<CandidateSet> candidateSetsBuilder = ImmutableList.builder();
+        int maxCandidateCount = 0;
+        for(final CandidateSet candidateSet : candidates) {
+            final int candidateCount = candidateSet.getCount();
+            if(candidateCount != 0) {
+                candidateSetsBuilder.add(candidateSet);
+                maxCandidateCount = Math.max(maxCandidateCount, candidateCount);
+            }
+        }
+        final List<CandidateSet> candidateSets = candidateSetsBuilder.build();
+        final int letterPositionsSize = maxCandidateCount;
+
+        final List<Callable<LetterAdvice>> letterTasks = Lists.newArrayList();
+        for(final Character letter : letters) {
+            final char lowerCaseLetter = Character.toLowerCase(letter);
+            letterTasks.add(new Callable<LetterAdvice>() {
+                @Override
+                public LetterAdvice call() {
+                    return advise(candidateSets, lowerCaseLetter,
+                            new long[letterPositionsSize]);
+                }
+            });
+        }
+
+        final List<LetterAdvice> letterAdvice = Lists.newArrayList();
+        try {
+            for(final Future<LetterAdvice> letterFuture : executor.invokeAll(letterTasks)) {
+                letterAdvice.add(letterFuture.get());
+            }
+        } catch(final ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        Collections.sort(letterAdvice, BEST_FIRST);
+        return ImmutableList.copyOf(letterAdvice);
+    }
+
+    /**
+     * Work out how much calling a letter is expected to tell.
+     * @param candidateSets The candidates of every word on the board.
+     * @param letter The letter, in lower case.
+     * @param letterPositions Room for the positions of the letter in the candidates of any word.
+     * @return The advice for the letter.
+     */
+    private static LetterAdvice advise(final List<CandidateSet> candidateSets,
+                                       final char letter,
+                                       final long[] letterPositions) {
+        double probabilityOffBoard = 1.0;
+        double expectedInformation = 0.0;
+        for(final CandidateSet candidateSet : candidateSets) {
+            final int candidateCount = candidateSet.getLetterPositions(letter, letterPositions);
+            // the candidates with the letter at the same positions end up next to each other
+            Arrays.sort(letterPositions, 0, candidateCount);
+            int withoutLetterCount = 0;
+            int partStart = 0;
+            while(partStart < candidateCount) {
+                int partEnd = partStart + 1;
+                while(partEnd < candidateCount &&
+                        letterPositions[partEnd] == letterPositions[partStart]) {
+                    partEnd++;
+                }
+                if(letterPositions[partStart] == 0L) {
+                    withoutLetterCount = partEnd - partStart;
+                }
+                expectedInformation += getEntropy(partEnd - partStart, candidateCount);
+                partStart = partEnd;
+            }
+            probabilityOffBoard *= withoutLetterCount / (double)candidateCount;
+        }
+        return new LetterAdvice(letter, 1.0 - probabilityOffBoard, expectedInformation);
+    }
+
+    /**
+     * Get what a part of a split adds to the entropy of the split.
+     * @param partSize The number of candidates in the part.
+     * @param candidateCount The number of candidates in every part.
+     * @return The entropy of the part, in bits.
+     */
+    private static double getEntropy(final int partSize, final double candidateCount) {
+        if(partSize == 0) {
+            return 0.0;
+        }
+        final double probability = partSize / candidateCount;
+        return -probability * Math.log(probability) / LOG_2;
+    }
+}
@@ -0,0 +1,300 @@
+package com.marlowsoft.wofsolver.dictionary;
+
+import com.google.inject.Inject;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Indexes words by the letter found at each position so that a {@link CompiledWordQuery} can be
+ * answered with bitwise operations rather than by looking at every word.
+ * <p>
+ * Words are grouped by length. Within a group, bit <i>n</i> of a bitset stands for the
+ * <i>n</i>th word of that length (its <i>ordinal</i>). Each group keeps one bitset per
+ * (position, letter) and one "contains letter" bitset per letter. The words themselves are kept
+ * in a {@link PackedWordStore}.
+ */
+public class LetterBitsetIndex implements WordIndex {
+    private static final int BITS_PER_WORD = Long.SIZE;
+
+    private final PackedWordStore wordStore;
+    private final LengthBucket[] buckets;
+
+    /**
+     * Builds the index.
+     * @param wordList All known words; i.e. a dictionary.
+     * @throws Exception If a problem occurs while creating the word list.
+     */
+    @Inject
+    public LetterBitsetIndex(final WordList wordList) throws Exception {
+        this(wordList.getWordList());
+    }
+
+    /**
+     * Builds the index.
+     * @param words All known words, in lower case; i.e. a dictionary.
+     */
+    public LetterBitsetIndex(final List<String> words) {
+        this(new PackedWordStore(words));
+    }
+
+    /**
+     * Builds the index over words that are already packed.
+     * @param wordStore All known words; i.e. a dictionary.
+     */
+    public LetterBitsetIndex(final PackedWordStore wordStore) {
+        this.wordStore = wordStore;
+
+        buckets = new LengthBucket[wordStore.getMaxWordLength() + 1];
+        for(int wordLength = 0; wordLength < buckets.length; wordLength++) {
+            buckets[wordLength] = new LengthBucket(wordStore, wordLength);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getWordCount(final int wordLength) {
+        return wordStore.getWordCount(wordLength);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getWord(final int wordLength, final int ordinal) {
+        return wordStore.getWord(wordLength, ordinal);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getLetterPositions(final int wordLength, final int ordinal, final char letter) {
+        return wordStore.getLetterPositions(wordLength, ordinal, letter);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void findMatches(final CompiledWordQuery searchQuery,
+                            final int firstBitsetWord,
+                            final long[] matches) {
+        final LengthBucket bucket = getBucket(searchQuery.getWordLength());
+        final int windowWords = getWindowWords(bucket, firstBitsetWord, matches);
+        if(windowWords == 0) {
+            return;
+        }
+
+        // start out with every word in the window, then narrow it down constraint by constraint
+        bucket.fillAllWords(firstBitsetWord, windowWords, matches);
+        applyConstraints(searchQuery, bucket, firstBitsetWord, windowWords, matches);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void filterMatches(final CompiledWordQuery searchQuery,
+                              final int firstBitsetWord,
+                              final long[] matches) {
+        final LengthBucket bucket = getBucket(searchQuery.getWordLength());
+        final int windowWords = getWindowWords(bucket, firstBitsetWord, matches);
+        if(windowWords == 0) {
+            return;
+        }
+
+        // the bitsets of words that aren't in the group anymore are never set
+        applyConstraints(searchQuery, bucket, firstBitsetWord, windowWords, matches);
+    }
+
+    /**
+     * Get the number of bitset words of a window that fall within a group, clearing the rest.
+     * @param bucket The group of words, or <code>null</code> if there are no such words.
+     * @param firstBitsetWord The index of the first bitset word in the window.
+     * @param matches The window.
+     * @return The number of bitset words at the start of the window that fall within the group.
+     */
+    private static int getWindowWords(final LengthBucket bucket,
+                                      final int firstBitsetWord,
+                                      final long[] matches) {
+        final int bucketWords = bucket == null ? 0 : bucket.bitsetWords;
+        final int windowWords = Math.max(0,
+                Math.min(matches.length, bucketWords - firstBitsetWord));
+        Arrays.fill(matches, windowWords, matches.length, 0L);
+        return windowWords;
+    }
+
+    /**
+     * Clear the bit of every word in a window that doesn't match a query.
+     * @param searchQuery The compiled query to match words.
+     * @param bucket The group of words the window is in.
+     * @param firstBitsetWord The index of the first bitset word in the window.
+     * @param windowWords The number of bitset words in the window.
+     * @param matches The window to narrow down.
+     */
+    private static void applyConstraints(final CompiledWordQuery searchQuery,
+                                         final LengthBucket bucket,
+                                         final int firstBitsetWord,
+                                         final int windowWords,
+                                         final long[] matches) {
+        final int wordLength = searchQuery.getWordLength();
+
+        // every known letter has to be at its position
+        for(int position = 0; position < wordLength; position++) {
+            if(searchQuery.getKnownLetter(position) == CompiledWordQuery.UNKNOWN_LETTER) {
+                continue;
+            }
+            final int letter = searchQuery.getKnownLetterIndex(position);
+            if(letter == Alphabet.NONE) {
+                Arrays.fill(matches, 0L);
+                return;
+            }
+            and(matches, bucket.getPositionBits(position, letter), firstBitsetWord, windowWords);
+        }
+
+        // no excluded letter can be at any position that isn't known
+        final int excludedMask = searchQuery.getExcludedMask();
+        final int knownMask = searchQuery.getKnownMask();
+        for(int letter = 0; letter < Alphabet.SIZE; letter++) {
+            final int letterMask = 1 << letter;
+            if((excludedMask & letterMask) == 0) {
+                continue;
+            }
+            if((knownMask & letterMask) == 0) {
+                // the cheap case: the letter can't be anywhere in the word
+                andNot(matches, bucket.containsBits[letter], firstBitsetWord, windowWords);
+            } else {
+                for(int position = 0; position < wordLength; position++) {
+                    if(searchQuery.getKnownLetter(position) == CompiledWordQuery.UNKNOWN_LETTER) {
+                        andNot(matches, bucket.getPositionBits(position, letter),
+                                firstBitsetWord, windowWords);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the group of words of the specified length.
+     * @param wordLength The length of the words.
+     * @return The group of words of the specified length,
+     * or <code>null</code> if there are no such words.
+     */
+    private LengthBucket getBucket(final int wordLength) {
+        if(wordLength < 0 || wordLength >= buckets.length) {
+            return null;
+        }
+        return buckets[wordLength];
+    }
+
+    /**
+     * Intersect a window of bitset words with a bitset.
+     * @param matches The window to narrow down.
+     * @param bits The bitset to intersect with. <code>null</code> is an empty bitset.
+     * @param firstBitsetWord The index of the first bitset word in the window.
+     * @param windowWords The number of bitset words in the window.
+     */
+    private static void and(final long[] matches, final long[] bits,
+                            final int firstBitsetWord, final int windowWords) {
+        if(bits == null) {
+            Arrays.fill(matches, 0, windowWords, 0L);
+            return;
+        }
+        for(int wordIdx = 0; wordIdx < windowWords; wordIdx++) {
+            matches[wordIdx] &= bits[firstBitsetWord + wordIdx];
+        }
+    }
+
+    /**
+     * Remove the bits of a bitset from a window of bitset words.
+     * @param matches The window to narrow down.
+     * @param bits The bitset to remove. <code>null</code> is an empty bitset.
+     * @param firstBitsetWord The index of the first bitset word in the window.
+     * @param windowWords The number of bitset words in the window.
+     */
+    private static void andNot(final long[] matches, final long[] bits,
+                               final int firstBitsetWord, final int windowWords) {
+        if(bits == null) {
+            return;
+        }
+        for(int wordIdx = 0; wordIdx < windowWords; wordIdx++) {
+            matches[wordIdx] &= ~bits[firstBitsetWord + wordIdx];
+        }
+    }
+
+    /**
+     * The bitsets of all words of a single length.
+     */
+    private static class LengthBucket {
+        private final int wordCount;
+        private final int bitsetWords;
+        private final long[][] positionBits;
+        private final long[][] containsBits;
+
+        /**
+         * Builds the bitsets for a group of words.
+         * @param wordStore The packed words.
+         * @param wordLength The length of every word in the group.
+         */
+        public LengthBucket(final PackedWordStore wordStore, final int wordLength) {
+            wordCount = wordStore.getWordCount(wordLength);
+            bitsetWords = (wordCount + BITS_PER_WORD - 1) / BITS_PER_WORD;
+
+            // bitsets are only created for letters that actually show up
+            positionBits = new long[wordLength * Alphabet.SIZE][];
+            containsBits = new long[Alphabet.SIZE][];
+
+            for(int ordinal = 0; ordinal < wordCount; ordinal++) {
+                final int bitsetWord = ordinal / BITS_PER_WORD;
+                final long bit = 1L << (ordinal % BITS_PER_WORD);
+                for(int position = 0; position < wordLength; position++) {
+                    final int letter =
+                            Alphabet.indexOf(wordStore.getLetter(wordLength, ordinal, position));
+                    if(letter == Alphabet.NONE) {
+                        continue;
+                    }
+                    final int positionLetter = position * Alphabet.SIZE + letter;
+                    if(positionBits[positionLetter] == null) {
+                        positionBits[positionLetter] = new long[bitsetWords];
+                    }
+                    if(containsBits[letter] == null) {
+                        containsBits[letter] = new long[bitsetWords];
+                    }
+                    positionBits[positionLetter][bitsetWord] |= bit;
+                    containsBits[letter][bitsetWord] |= bit;
+                }
+            }
+        }
+
+        /**
+         * Get the bitset of words that have the specified letter at the specified position.
+         * @param position The position in the word.
+         * @param letter The {@link Alphabet} index of the letter.
+         * @return The bitset, or <code>null</code> if no word has the letter there.
+         */
+        public long[] getPositionBits(final int position, final int letter) {
+            return positionBits[position * Alphabet.SIZE + letter];
+        }
+
+        /**
+         * Set the bit of every word in a window.
+         * @param firstBitsetWord The index of the first bitset word in the window.
+         * @param windowWords The number of bitset words in the window.
+         * @param matches Receives the bits.
+         */
+        public void fillAllWords(final int firstBitsetWord, final int windowWords,
+                                 final long[] matches) {
+            Arrays.fill(matches, 0, windowWords, -1L);
+            // the last bitset word of the group might only be partially used
+            if(firstBitsetWord + windowWords == bitsetWords) {
+                final int usedBits = wordCount % BITS_PER_WORD;
+                if(usedBits != 0) {
+                    matches[windowWords - 1] = (1L << usedBits) - 1;
+                }
+            }
+        }
+    }
+}
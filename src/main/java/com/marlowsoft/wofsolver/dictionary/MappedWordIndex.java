@@ -0,0 +1,443 @@
+package com.marlowsoft.wofsolver.dictionary;
+
+import com.google.common.collect.Lists;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.name.Named;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Searches a binary dictionary file that is memory-mapped rather than read, so the words live
+ * off-heap and are never decoded into {@link String} objects until they're returned.
+ * <p>
+ * The file is laid out as:
+ * <ol>
+ *     <li>A header: the magic number {@code WOFD}, the format version, the checksum of the
+ *     word list the file was written from and the number of word lengths (the longest word
+ *     length + 1).</li>
+ *     <li>An offset table with, for every word length, the number of words of that length and
+ *     the offset in the file of the first one.</li>
+ *     <li>The words; every word is stored as one ASCII byte per letter with no separators, so
+ *     the word with ordinal <i>n</i> of length <i>L</i> is at {@code offset + n * L}.</li>
+ * </ol>
+ * All numbers are big-endian; the checksum is 64 bits and everything else is 32 bits.
+ */
+public class MappedWordIndex implements WordIndex {
+    /**
+     * The first four bytes of every dictionary file: "WOFD".
+     */
+    public static final int MAGIC = 0x574f4644;
+
+    /**
+     * The version of the file format that is written and read.
+     */
+    public static final int VERSION = 2;
+
+    private static final int BITS_PER_WORD = Long.SIZE;
+    private static final int CHECKSUM_OFFSET = 2 * 4;
+    private static final int LENGTH_COUNT_OFFSET = CHECKSUM_OFFSET + 8;
+    private static final int HEADER_SIZE = LENGTH_COUNT_OFFSET + 4;
+    private static final int TABLE_ENTRY_SIZE = 2 * 4;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final ByteBuffer[] buckets;
+    private final int[] wordCounts;
+    private final long sourceChecksum;
+
+    /**
+     * Maps the dictionary file at the specified location, first writing it from the word list if
+     * it doesn't exist yet, was written from a different word list file or can't be mapped.
+     * Only the bytes of the word list file are read to check it; as long as the dictionary file
+     * is up to date, the word list is never loaded.
+     * @param filePath The location of the dictionary file.
+     * @param wordListPath The path of the word list file the dictionary file is written from.
+     * @param wordListProvider Provides all known words in case the file needs to be written.
+     * @throws Exception If a problem occurs while creating the word list or the file.
+     */
+    @Inject
+    public MappedWordIndex(@Named("DictionaryFileLoc") final String filePath,
+                           @Named("WordListFileLoc") final String wordListPath,
+                           final Provider<WordList> wordListProvider) throws Exception {
+        this(getOrWriteFile(new File(filePath), getSourceChecksum(wordListPath),
+                wordListProvider));
+    }
+
+    /**
+     * Maps an existing dictionary file.
+     * @param file The dictionary file.
+     * @throws IOException If a problem occurs while mapping the file or the file is not
+     * a dictionary file or is corrupt.
+     */
+    public MappedWordIndex(final File file) throws IOException {
+        final FileTable fileTable;
+        final MappedByteBuffer mappedFile;
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            fileTable = new FileTable(file, randomAccessFile);
+            // the file is only mapped once it's known to be sound, and only once; the mapping
+            // stays valid after the channel is closed
+            mappedFile = randomAccessFile.getChannel()
+                    .map(FileChannel.MapMode.READ_ONLY, 0, randomAccessFile.length());
+        } finally {
+            randomAccessFile.close();
+        }
+
+        sourceChecksum = fileTable.sourceChecksum;
+        buckets = new ByteBuffer[fileTable.wordCounts.length];
+        wordCounts = fileTable.wordCounts;
+        for(int wordLength = 0; wordLength < buckets.length; wordLength++) {
+            // each bucket is a view of the mapping; nothing is copied
+            final int offset = fileTable.offsets[wordLength];
+            final ByteBuffer bucket = mappedFile.duplicate();
+            bucket.position(offset);
+            bucket.limit(offset + wordCounts[wordLength] * wordLength);
+            buckets[wordLength] = bucket.slice();
+        }
+    }
+
+    /**
+     * Get the checksum of a word list file, to tell whether a dictionary file was written from it.
+     * @param wordListPath The class path of the word list file.
+     * @return The CRC-32 of the bytes in the word list file.
+     * @throws IOException If a problem occurs while reading the word list file.
+     */
+    public static long getSourceChecksum(final String wordListPath) throws IOException {
+        final InputStream inputStream =
+                MappedWordIndex.class.getClassLoader().getResourceAsStream(wordListPath);
+        if(inputStream == null) {
+            throw new IOException("Unable to find " + wordListPath);
+        }
+        try {
+            final CRC32 checksum = new CRC32();
+            final byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            int readCount;
+            while((readCount = inputStream.read(buffer)) != -1) {
+                checksum.update(buffer, 0, readCount);
+            }
+            return checksum.getValue();
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    /**
+     * Write a dictionary file.
+     * @param words All known words, in lower case; i.e. a dictionary.
+     * @param sourceChecksum The checksum of the word list file the words were read from.
+     * @param file The file to write to. It will be overwritten if it exists.
+     * @throws IOException If a problem occurs while writing the file.
+     * @throws IllegalArgumentException If a word has a character that isn't ASCII.
+     */
+    public static void write(final List<String> words, final long sourceChecksum,
+                             final File file) throws IOException {
+        // group the words by length, keeping them in dictionary order
+        final List<List<String>> wordsByLength = Lists.newArrayList();
+        for(final String word : words) {
+            while(wordsByLength.size() <= word.length()) {
+                wordsByLength.add(Lists.<String>newArrayList());
+            }
+            wordsByLength.get(word.length()).add(word);
+        }
+
+        final DataOutputStream outputStream = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            outputStream.writeInt(MAGIC);
+            outputStream.writeInt(VERSION);
+            outputStream.writeLong(sourceChecksum);
+            outputStream.writeInt(wordsByLength.size());
+
+            int offset = HEADER_SIZE + wordsByLength.size() * TABLE_ENTRY_SIZE;
+            for(int wordLength = 0; wordLength < wordsByLength.size(); wordLength++) {
+                final int wordCount = wordsByLength.get(wordLength).size();
+                outputStream.writeInt(wordCount);
+                outputStream.writeInt(offset);
+                offset += wordCount * wordLength;
+            }
+
+            for(final List<String> sameLengthWords : wordsByLength) {
+                for(final String word : sameLengthWords) {
+                    for(int position = 0; position < word.length(); position++) {
+                        final char letter = word.charAt(position);
+                        if(letter > 0x7f) {
+                            throw new IllegalArgumentException(
+                                    "\"" + word + "\" can't be written as ASCII");
+                        }
+                        outputStream.writeByte(letter);
+                    }
+                }
+            }
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    /**
+     * Get the checksum of the word list file this dictionary file was written from.
+     * @return The checksum of the word list file.
+     */
+    public long getSourceChecksum() {
+        return sourceChecksum;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getWordCount(final int wordLength) {
+        return getBucket(wordLength) == null ? 0 : wordCounts[wordLength];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getWord(final int wordLength, final int ordinal) {
+        final ByteBuffer bucket = getBucket(wordLength);
+        if(bucket == null || ordinal < 0 || ordinal >= wordCounts[wordLength]) {
+            throw new IndexOutOfBoundsException(
+                    "No word of length " + wordLength + " with ordinal " + ordinal);
+        }
+        final char[] word = new char[wordLength];
+        final int offset = ordinal * wordLength;
+        for(int position = 0; position < wordLength; position++) {
+            word[position] = (char)(bucket.get(offset + position) & 0xff);
+        }
+        return new String(word);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getLetterPositions(final int wordLength, final int ordinal, final char letter) {
+        final ByteBuffer bucket = getBucket(wordLength);
+        if(bucket == null || ordinal < 0 || ordinal >= wordCounts[wordLength]) {
+            throw new IndexOutOfBoundsException(
+                    "No word of length " + wordLength + " with ordinal " + ordinal);
+        }
+        long positions = 0L;
+        final int offset = ordinal * wordLength;
+        for(int position = 0; position < wordLength; position++) {
+            if((char)(bucket.get(offset + position) & 0xff) == letter) {
+                positions |= 1L << position;
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void findMatches(final CompiledWordQuery searchQuery,
+                            final int firstBitsetWord,
+                            final long[] matches) {
+        Arrays.fill(matches, 0L);
+
+        final int wordLength = searchQuery.getWordLength();
+        final ByteBuffer bucket = getBucket(wordLength);
+        if(bucket == null) {
+            return;
+        }
+
+        // the words are read straight out of the mapping, one record after the other
+        final long firstOrdinal = (long)firstBitsetWord * BITS_PER_WORD;
+        final long lastOrdinal = Math.min(wordCounts[wordLength],
+                firstOrdinal + (long)matches.length * BITS_PER_WORD);
+        for(int ordinal = (int)firstOrdinal; ordinal < lastOrdinal; ordinal++) {
+            if(searchQuery.matches(bucket, ordinal * wordLength)) {
+                final int matchIdx = ordinal - (int)firstOrdinal;
+                matches[matchIdx / BITS_PER_WORD] |= 1L << (matchIdx % BITS_PER_WORD);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void filterMatches(final CompiledWordQuery searchQuery,
+                              final int firstBitsetWord,
+                              final long[] matches) {
+        final int wordLength = searchQuery.getWordLength();
+        final ByteBuffer bucket = getBucket(wordLength);
+        if(bucket == null) {
+            Arrays.fill(matches, 0L);
+            return;
+        }
+
+        final long firstOrdinal = (long)firstBitsetWord * BITS_PER_WORD;
+        for(int matchIdx = 0; matchIdx < matches.length; matchIdx++) {
+            long matchBits = matches[matchIdx];
+            while(matchBits != 0) {
+                final long matchBit = Long.lowestOneBit(matchBits);
+                final long ordinal = firstOrdinal + (long)matchIdx * BITS_PER_WORD +
+                        Long.numberOfTrailingZeros(matchBits);
+                if(ordinal >= wordCounts[wordLength] ||
+                        !searchQuery.matches(bucket, (int)ordinal * wordLength)) {
+                    matches[matchIdx] &= ~matchBit;
+                }
+                matchBits &= ~matchBit;
+            }
+        }
+    }
+
+    /**
+     * Get the words of the specified length.
+     * @param wordLength The length of the words.
+     * @return The words of the specified length, or <code>null</code> if there are no such words.
+     */
+    private ByteBuffer getBucket(final int wordLength) {
+        if(wordLength < 0 || wordLength >= buckets.length) {
+            return null;
+        }
+        return buckets[wordLength];
+    }
+
+    /**
+     * Get the dictionary file, writing it from the word list first if it doesn't exist, was
+     * written from a different word list file or can't be mapped.
+     * @param file The location of the dictionary file.
+     * @param sourceChecksum The checksum of the word list file.
+     * @param wordListProvider Provides all known words.
+     * @return The dictionary file.
+     * @throws Exception If a problem occurs while creating the word list or the file.
+     */
+    private static File getOrWriteFile(final File file,
+                                       final long sourceChecksum,
+                                       final Provider<WordList> wordListProvider)
+            throws Exception {
+        if(isCurrent(file, sourceChecksum)) {
+            return file;
+        }
+
+        // write to a temporary file first so a half-written file is never mapped
+        final File parentDir = file.getAbsoluteFile().getParentFile();
+        if(!parentDir.isDirectory() && !parentDir.mkdirs()) {
+            throw new IOException("Unable to create " + parentDir);
+        }
+        final File tempFile = File.createTempFile("wof-solver", ".tmp", parentDir);
+        write(wordListProvider.get().getWordList(), sourceChecksum, tempFile);
+        // an out of date file is replaced; renaming over it fails on some platforms
+        if(!tempFile.renameTo(file) && !(file.delete() && tempFile.renameTo(file))) {
+            tempFile.delete();
+            throw new IOException("Unable to create " + file);
+        }
+        return file;
+    }
+
+    /**
+     * Get whether a dictionary file exists, is sound and was written from the current word list
+     * file. Only the header and offset table are read; the file isn't mapped, so it can still be
+     * replaced on every platform if it isn't current.
+     * @param file The location of the dictionary file.
+     * @param sourceChecksum The checksum of the word list file.
+     * @return <code>true</code> if the dictionary file can be used as it is.
+     */
+    private static boolean isCurrent(final File file, final long sourceChecksum) {
+        if(!file.isFile()) {
+            return false;
+        }
+        try {
+            final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+            try {
+                return new FileTable(file, randomAccessFile).sourceChecksum == sourceChecksum;
+            } finally {
+                randomAccessFile.close();
+            }
+        } catch(final IOException e) {
+            // a corrupt or old file is simply written again
+            return false;
+        }
+    }
+
+    /**
+     * The header and offset table of a dictionary file, read without mapping the file.
+     */
+    private static final class FileTable {
+        private final long sourceChecksum;
+        private final int[] wordCounts;
+        private final int[] offsets;
+
+        /**
+         * Read the header and offset table of a dictionary file. Every count and offset is
+         * checked, so a corrupt file fails here rather than while searching.
+         * @param file The dictionary file.
+         * @param randomAccessFile The dictionary file, opened for reading.
+         * @throws IOException If a problem occurs while reading the file, or the file is not
+         * a dictionary file or is corrupt.
+         */
+        public FileTable(final File file, final RandomAccessFile randomAccessFile)
+                throws IOException {
+            final long fileLength = randomAccessFile.length();
+            if(fileLength > Integer.MAX_VALUE) {
+                throw new IOException(file + " is too large to be a dictionary file");
+            }
+            final ByteBuffer header = readBytes(randomAccessFile, 0, HEADER_SIZE, fileLength);
+            if(header == null || header.getInt(0) != MAGIC) {
+                throw new IOException(file + " is not a dictionary file");
+            }
+            if(header.getInt(4) != VERSION) {
+                throw new IOException(file + " has unsupported version " + header.getInt(4));
+            }
+            sourceChecksum = header.getLong(CHECKSUM_OFFSET);
+
+            final int lengthCount = header.getInt(LENGTH_COUNT_OFFSET);
+            final long wordsOffset = HEADER_SIZE + (long)lengthCount * TABLE_ENTRY_SIZE;
+            final ByteBuffer table = lengthCount < 0 ? null : readBytes(randomAccessFile,
+                    HEADER_SIZE, (long)lengthCount * TABLE_ENTRY_SIZE, fileLength);
+            if(table == null) {
+                throw new IOException(file + " has a corrupt offset table");
+            }
+            wordCounts = new int[lengthCount];
+            offsets = new int[lengthCount];
+            for(int wordLength = 0; wordLength < lengthCount; wordLength++) {
+                final int wordCount = table.getInt(wordLength * TABLE_ENTRY_SIZE);
+                final int offset = table.getInt(wordLength * TABLE_ENTRY_SIZE + 4);
+                if(wordCount < 0 || offset < wordsOffset ||
+                        offset + (long)wordCount * wordLength > fileLength) {
+                    throw new IOException(file + " has a corrupt entry for words of length " +
+                            wordLength);
+                }
+                wordCounts[wordLength] = wordCount;
+                offsets[wordLength] = offset;
+            }
+        }
+
+        /**
+         * Read part of a file.
+         * @param randomAccessFile The file.
+         * @param position Where to start reading.
+         * @param size The number of bytes to read.
+         * @param fileLength The length of the file.
+         * @return The bytes, or <code>null</code> if the file isn't long enough.
+         * @throws IOException If a problem occurs while reading the file.
+         */
+        private static ByteBuffer readBytes(final RandomAccessFile randomAccessFile,
+                                            final long position,
+                                            final long size,
+                                            final long fileLength) throws IOException {
+            if(position + size > fileLength) {
+                return null;
+            }
+            final byte[] bytes = new byte[(int)size];
+            randomAccessFile.seek(position);
+            randomAccessFile.readFully(bytes);
+            return ByteBuffer.wrap(bytes);
+        }
+    }
+}
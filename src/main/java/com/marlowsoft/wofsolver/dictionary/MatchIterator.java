@@ -0,0 +1,138 @@
+package com.marlowsoft.wofsolver.dictionary;
+
+import com.google.common.collect.UnmodifiableIterator;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over the words that match a query, in dictionary order, searching only as far as
+ * it's been asked to.
+ * <p>
+ * The index is searched a chunk at a time, and only when the previous chunk has run out of
+ * matches; a word is only created when it's asked for with {@link #next()}. Callers that only
+ * need ordinals can use {@link #nextOrdinal()}, which creates nothing. So a caller that stops
+ * early (for instance with {@link com.google.common.collect.Iterators#limit} or
+ * {@link com.google.common.collect.Iterators#any}) stops the search right there.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class MatchIterator extends UnmodifiableIterator<String> {
+    private final WordIndex wordIndex;
+    private final CompiledWordQuery compiledQuery;
+    private final int firstOrdinal;
+    private final int lastOrdinal;
+    private final int lastBitsetWord;
+    private final long[] matches;
+    private int chunkStart;
+    private int chunkWords;
+    private int matchIdx;
+    private long matchBits;
+
+    /**
+     * Initializes the iterator. Nothing is searched until the first match is asked for.
+     * @param wordIndex All known words; i.e. a dictionary.
+     * @param compiledQuery The query to match words.
+     * @param firstOrdinal The ordinal of the first word to search.
+     * @param lastOrdinal The ordinal just past the last word to search.
+     * @param chunkSize The number of bitset words to search at a time.
+     */
+    MatchIterator(final WordIndex wordIndex,
+                  final CompiledWordQuery compiledQuery,
+                  final int firstOrdinal,
+                  final int lastOrdinal,
+                  final int chunkSize) {
+        this.wordIndex = wordIndex;
+        this.compiledQuery = compiledQuery;
+        this.firstOrdinal = firstOrdinal;
+        this.lastOrdinal = lastOrdinal;
+        final int firstBitsetWord = firstOrdinal / Long.SIZE;
+        lastBitsetWord = (lastOrdinal + Long.SIZE - 1) / Long.SIZE;
+        matches = new long[Math.max(0, Math.min(chunkSize, lastBitsetWord - firstBitsetWord))];
+        chunkStart = firstBitsetWord;
+        chunkWords = 0;
+        matchIdx = 0;
+        matchBits = 0;
+    }
+
+    /**
+     * Gets the length of the matched words.
+     * @return The length of the matched words.
+     */
+    public int getWordLength() {
+        return compiledQuery.getWordLength();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasNext() {
+        while(matchBits == 0) {
+            matchIdx++;
+            if(matchIdx >= chunkWords) {
+                // this chunk is used up, so search the next one, if there is one
+                if(chunkStart + chunkWords >= lastBitsetWord) {
+                    return false;
+                }
+                chunkStart += chunkWords;
+                wordIndex.findMatches(compiledQuery, chunkStart, matches);
+                chunkWords = Math.min(matches.length, lastBitsetWord - chunkStart);
+                clearOutsideOrdinals();
+                matchIdx = 0;
+            }
+            matchBits = matches[matchIdx];
+        }
+        return true;
+    }
+
+    /**
+     * Get the ordinal of the next matched word, without creating the word.
+     * @return The position of the next matched word amongst all words of the same length.
+     * @throws NoSuchElementException If there are no more matched words.
+     */
+    public int nextOrdinal() {
+        if(!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final int ordinal = (chunkStart + matchIdx) * Long.SIZE +
+                Long.numberOfTrailingZeros(matchBits);
+        // clear the lowest set bit
+        matchBits &= matchBits - 1;
+        return ordinal;
+    }
+
+    /**
+     * Get the ordinal of the next matched word without moving past it.
+     * @return The position of the next matched word amongst all words of the same length.
+     * @throws NoSuchElementException If there are no more matched words.
+     */
+    int peekOrdinal() {
+        if(!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return (chunkStart + matchIdx) * Long.SIZE + Long.numberOfTrailingZeros(matchBits);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String next() {
+        return wordIndex.getWord(compiledQuery.getWordLength(), nextOrdinal());
+    }
+
+    /**
+     * Clear the bits of the chunk that was just searched that stand for words before the first
+     * ordinal or past the last one, when those don't fall on a bitset word boundary.
+     */
+    private void clearOutsideOrdinals() {
+        final int firstChunkOrdinal = chunkStart * Long.SIZE;
+        if(firstChunkOrdinal < firstOrdinal) {
+            matches[0] &= -1L << (firstOrdinal - firstChunkOrdinal);
+        }
+        final int lastChunkOrdinal = (chunkStart + chunkWords) * Long.SIZE;
+        if(lastChunkOrdinal > lastOrdinal) {
+            matches[chunkWords - 1] &= -1L >>> (lastChunkOrdinal - lastOrdinal);
+        }
+    }
+}
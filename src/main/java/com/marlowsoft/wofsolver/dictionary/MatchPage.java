@@ -0,0 +1,51 @@
+package com.marlowsoft.wofsolver.dictionary;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+/**
+ * A page of matched words, along with a token to get the page after it.
+ * This class is immutable.
+ */
+public class MatchPage {
+    private final List<String> words;
+    private final String resumeToken;
+
+    /**
+     * Initializes the page.
+     * @param words The matched words on the page, in dictionary order.
+     * @param resumeToken The token to get the next page with,
+     *                    or <code>null</code> if this is the last page.
+     */
+    MatchPage(final List<String> words, final String resumeToken) {
+        this.words = ImmutableList.copyOf(words);
+        this.resumeToken = resumeToken;
+    }
+
+    /**
+     * Get the matched words on this page.
+     * @return The matched words on this page, in dictionary order.
+     */
+    public List<String> getWords() {
+        return words;
+    }
+
+    /**
+     * Get the token to pass to
+     * {@link WordSearch#getMatchedWordsPage(WordSearchQuery, String, int)} to get the next page.
+     * The token is only meant to be passed back with the same query.
+     * @return The token, or <code>null</code> if this is the last page.
+     */
+    public String getResumeToken() {
+        return resumeToken;
+    }
+
+    /**
+     * Determine whether or not there are more matched words after this page.
+     * @return <code>true</code> if there's another page; <code>false</code> otherwise.
+     */
+    public boolean hasNextPage() {
+        return resumeToken != null;
+    }
+}
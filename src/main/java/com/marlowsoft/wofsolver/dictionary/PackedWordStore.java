@@ -0,0 +1,247 @@
+package com.marlowsoft.wofsolver.dictionary;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
+import com.google.inject.Inject;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Stores words as fixed-width ASCII records packed into one contiguous array per word length,
+ * rather than as one {@link String} per word.
+ * <p>
+ * The word with ordinal <i>n</i> of length <i>L</i> is at {@code n * L} in the array for
+ * length <i>L</i>. Strings are only created when a word is asked for, and a search reads the
+ * records one after the other, which makes good use of the CPU cache.
+ * <p>
+ * When the store is searched directly, a mask of the letters in every word is kept next to it,
+ * so a search can turn away most words that have an excluded letter with a single AND before
+ * looking at any of their letters. The masks of a word length are only built the first time
+ * words of that length are searched, so indexes that keep the words here but search them some
+ * other way never pay for them.
+ */
+public class PackedWordStore implements WordIndex {
+    private static final int BITS_PER_WORD = Long.SIZE;
+
+    private final byte[][] buckets;
+    private final AtomicReferenceArray<int[]> letterMasks;
+    private final int[] wordCounts;
+
+    /**
+     * Packs the words.
+     * @param wordList All known words; i.e. a dictionary.
+     * @throws Exception If a problem occurs while creating the word list.
+     */
+    @Inject
+    public PackedWordStore(final WordList wordList) throws Exception {
+        this(wordList.getWordList());
+    }
+
+    /**
+     * Packs the words.
+     * @param words All known words, in lower case; i.e. a dictionary.
+     * @throws IllegalArgumentException If a word has a character that isn't ASCII.
+     */
+    public PackedWordStore(final List<String> words) {
+        // count the words of every length first so every array is allocated exactly once
+        final List<Integer> counts = Lists.newArrayList();
+        for(final String word : words) {
+            while(counts.size() <= word.length()) {
+                counts.add(0);
+            }
+            counts.set(word.length(), counts.get(word.length()) + 1);
+        }
+
+        buckets = new byte[counts.size()][];
+        letterMasks = new AtomicReferenceArray<int[]>(counts.size());
+        wordCounts = new int[counts.size()];
+        for(int wordLength = 0; wordLength < buckets.length; wordLength++) {
+            buckets[wordLength] = new byte[counts.get(wordLength) * wordLength];
+        }
+
+        // words keep their dictionary order within their length
+        for(final String word : words) {
+            final int wordLength = word.length();
+            final int offset = wordCounts[wordLength] * wordLength;
+            for(int position = 0; position < wordLength; position++) {
+                final char letter = word.charAt(position);
+                if(letter > 0x7f) {
+                    throw new IllegalArgumentException("\"" + word + "\" can't be packed as ASCII");
+                }
+                buckets[wordLength][offset + position] = (byte)letter;
+            }
+            wordCounts[wordLength]++;
+        }
+    }
+
+    /**
+     * Get the length of the longest word.
+     * @return The length of the longest word, or 0 if there are no words.
+     */
+    public int getMaxWordLength() {
+        return Math.max(0, buckets.length - 1);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getWordCount(final int wordLength) {
+        return getBucket(wordLength) == null ? 0 : wordCounts[wordLength];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getWord(final int wordLength, final int ordinal) {
+        final byte[] bucket = getBucket(wordLength);
+        if(bucket == null || ordinal < 0 || ordinal >= wordCounts[wordLength]) {
+            throw new IndexOutOfBoundsException(
+                    "No word of length " + wordLength + " with ordinal " + ordinal);
+        }
+        return new String(bucket, ordinal * wordLength, wordLength, Charsets.US_ASCII);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getLetterPositions(final int wordLength, final int ordinal, final char letter) {
+        final byte[] bucket = getBucket(wordLength);
+        if(bucket == null || ordinal < 0 || ordinal >= wordCounts[wordLength]) {
+            throw new IndexOutOfBoundsException(
+                    "No word of length " + wordLength + " with ordinal " + ordinal);
+        }
+        long positions = 0L;
+        final int offset = ordinal * wordLength;
+        for(int position = 0; position < wordLength; position++) {
+            if((char)(bucket[offset + position] & 0xff) == letter) {
+                positions |= 1L << position;
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Get a letter of a word without creating a {@link String} for the word.
+     * @param wordLength The length of the word.
+     * @param ordinal The position of the word amongst all words of the same length.
+     * @param position The position of the letter in the word.
+     * @return The letter.
+     */
+    public char getLetter(final int wordLength, final int ordinal, final int position) {
+        return (char)(buckets[wordLength][ordinal * wordLength + position] & 0xff);
+    }
+
+    /**
+     * Get a mask of every letter in a word.
+     * @param wordLength The length of the word.
+     * @param ordinal The position of the word amongst all words of the same length.
+     * @return The mask, where bit <i>n</i> stands for the letter with {@link Alphabet} index
+     * <i>n</i>.
+     */
+    public int getLetterMask(final int wordLength, final int ordinal) {
+        return getLetterMasks(wordLength)[ordinal];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void findMatches(final CompiledWordQuery searchQuery,
+                            final int firstBitsetWord,
+                            final long[] matches) {
+        Arrays.fill(matches, 0L);
+
+        final int wordLength = searchQuery.getWordLength();
+        final byte[] bucket = getBucket(wordLength);
+        if(bucket == null) {
+            return;
+        }
+        final int[] bucketMasks = getLetterMasks(wordLength);
+
+        final long firstOrdinal = (long)firstBitsetWord * BITS_PER_WORD;
+        final long lastOrdinal = Math.min(wordCounts[wordLength],
+                firstOrdinal + (long)matches.length * BITS_PER_WORD);
+        for(int ordinal = (int)firstOrdinal; ordinal < lastOrdinal; ordinal++) {
+            // only words with the right letters have their letters looked at one by one
+            if(searchQuery.mightMatch(bucketMasks[ordinal]) &&
+                    searchQuery.matches(bucket, ordinal * wordLength)) {
+                final int matchIdx = ordinal - (int)firstOrdinal;
+                matches[matchIdx / BITS_PER_WORD] |= 1L << (matchIdx % BITS_PER_WORD);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void filterMatches(final CompiledWordQuery searchQuery,
+                              final int firstBitsetWord,
+                              final long[] matches) {
+        final int wordLength = searchQuery.getWordLength();
+        final byte[] bucket = getBucket(wordLength);
+        if(bucket == null) {
+            Arrays.fill(matches, 0L);
+            return;
+        }
+        final int[] bucketMasks = getLetterMasks(wordLength);
+
+        final long firstOrdinal = (long)firstBitsetWord * BITS_PER_WORD;
+        for(int matchIdx = 0; matchIdx < matches.length; matchIdx++) {
+            long matchBits = matches[matchIdx];
+            while(matchBits != 0) {
+                final long matchBit = Long.lowestOneBit(matchBits);
+                final long ordinal = firstOrdinal + (long)matchIdx * BITS_PER_WORD +
+                        Long.numberOfTrailingZeros(matchBits);
+                if(ordinal >= wordCounts[wordLength] ||
+                        !(searchQuery.mightMatch(bucketMasks[(int)ordinal]) &&
+                        searchQuery.matches(bucket, (int)ordinal * wordLength))) {
+                    matches[matchIdx] &= ~matchBit;
+                }
+                matchBits &= ~matchBit;
+            }
+        }
+    }
+
+    /**
+     * Get the packed words of the specified length.
+     * @param wordLength The length of the words.
+     * @return The packed words of the specified length,
+     * or <code>null</code> if there are no such words.
+     */
+    private byte[] getBucket(final int wordLength) {
+        if(wordLength < 0 || wordLength >= buckets.length) {
+            return null;
+        }
+        return buckets[wordLength];
+    }
+
+    /**
+     * Get the letter masks of every word of the specified length, building them the first time.
+     * @param wordLength The length of the words, which must have a bucket.
+     * @return The mask of every word of the specified length, by ordinal.
+     */
+    private int[] getLetterMasks(final int wordLength) {
+        int[] bucketMasks = letterMasks.get(wordLength);
+        if(bucketMasks == null) {
+            // racing searches may both build the masks, but they build the same ones
+            final byte[] bucket = buckets[wordLength];
+            bucketMasks = new int[wordCounts[wordLength]];
+            for(int ordinal = 0; ordinal < bucketMasks.length; ordinal++) {
+                int letterMask = 0;
+                for(int position = 0; position < wordLength; position++) {
+                    letterMask |= CompiledWordQuery.getMask(
+                            (char)(bucket[ordinal * wordLength + position] & 0xff));
+                }
+                bucketMasks[ordinal] = letterMask;
+            }
+            letterMasks.set(wordLength, bucketMasks);
+        }
+        return bucketMasks;
+    }
+}
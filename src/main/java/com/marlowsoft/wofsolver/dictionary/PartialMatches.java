@@ -0,0 +1,64 @@
+package com.marlowsoft.wofsolver.dictionary;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+/**
+ * The words a search matched before it had to give up, along with how far it got.
+ * This class is immutable.
+ */
+public class PartialMatches {
+    private final List<String> words;
+    private final boolean complete;
+    private final double fractionSearched;
+
+    /**
+     * Initializes the matches.
+     * @param words The matched words, in dictionary order.
+     * @param complete Whether or not the search finished before it had to give up.
+     * @param fractionSearched The fraction of the words of the query's length that were searched.
+     */
+    PartialMatches(final List<String> words, final boolean complete,
+                   final double fractionSearched) {
+        this.words = ImmutableList.copyOf(words);
+        this.complete = complete;
+        this.fractionSearched = fractionSearched;
+    }
+
+    /**
+     * Get the matched words.
+     * @return The words that were matched before the search finished or gave up,
+     * in dictionary order.
+     */
+    public List<String> getWords() {
+        return words;
+    }
+
+    /**
+     * Determine whether or not the search finished; i.e. it either searched every word of the
+     * query's length or matched as many words as it was limited to.
+     * @return <code>true</code> if the search finished; <code>false</code> if it gave up.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Determine whether or not the search gave up before it finished, so there might be more
+     * matched words than were found.
+     * @return <code>true</code> if the search gave up; <code>false</code> if it finished.
+     */
+    public boolean isTruncated() {
+        return !complete;
+    }
+
+    /**
+     * Get how much of the dictionary was searched.
+     * @return The fraction of the words of the query's length that were searched,
+     * from 0 to 1.
+     */
+    public double getFractionSearched() {
+        return fractionSearched;
+    }
+}
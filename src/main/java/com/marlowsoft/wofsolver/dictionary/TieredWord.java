@@ -0,0 +1,69 @@
+package com.marlowsoft.wofsolver.dictionary;
+
+import com.google.common.base.Objects;
+
+/**
+ * A word found by a {@link TieredWordSearch}, labeled with the tier it was found in.
+ * This class is immutable.
+ */
+public final class TieredWord {
+    private final String word;
+    private final String tier;
+
+    /**
+     * Create a labeled word.
+     * @param word The word.
+     * @param tier The name of the tier the word was found in.
+     */
+    public TieredWord(final String word, final String tier) {
+        this.word = word;
+        this.tier = tier;
+    }
+
+    /**
+     * Get the word.
+     * @return The word, in lower case.
+     */
+    public String getWord() {
+        return word;
+    }
+
+    /**
+     * Get the tier the word was found in.
+     * @return The name of the tier.
+     */
+    public String getTier() {
+        return tier;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(final Object other) {
+        if(this == other) {
+            return true;
+        }
+        if(!(other instanceof TieredWord)) {
+            return false;
+        }
+        final TieredWord otherWord = (TieredWord)other;
+        return word.equals(otherWord.word) && tier.equals(otherWord.tier);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(word, tier);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return word + " (" + tier + ")";
+    }
+}
@@ -0,0 +1,159 @@
+package com.marlowsoft.wofsolver.dictionary;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Searches the dictionary one tier at a time, in order; e.g. a short list of common words
+ * first, then every word. Most answers are common words, so most searches never have to look
+ * past the first tier, while the rest of the dictionary is still there when they do.
+ * <p>
+ * A later tier may hold the words of an earlier one as well; each word is only found once,
+ * labeled with the first tier it's in. When every match of the last tier is already known as a
+ * {@link CandidateSet}, the last tier is filled from it rather than searched again. This class
+ * is thread-safe.
+ */
+public class TieredWordSearch {
+    /**
+     * The name of the tier of common words made by {@link #TieredWordSearch(WordIndex,
+     * WordIndex)}.
+     */
+    public static final String CORE_TIER = "core";
+
+    /**
+     * The name of the tier of every word made by {@link #TieredWordSearch(WordIndex,
+     * WordIndex)}.
+     */
+    public static final String FULL_TIER = "full";
+
+    private final List<DictionaryTier> tiers;
+
+    /**
+     * Initializes the search with a tier of common words and a tier of every word.
+     * @param coreWordIndex The common words.
+     * @param fullWordIndex Every word; i.e. the dictionary.
+     */
+    public TieredWordSearch(final WordIndex coreWordIndex, final WordIndex fullWordIndex) {
+        this(ImmutableList.of(new DictionaryTier(CORE_TIER, coreWordIndex),
+                new DictionaryTier(FULL_TIER, fullWordIndex)));
+    }
+
+    /**
+     * Initializes the search with a tier of common words, the most common first, and a tier of
+     * every word.
+     * @param coreWordIndex The common words.
+     * @param fullWordIndex Every word; i.e. the dictionary.
+     * @param wordFrequencies How common the common words are.
+     */
+    public TieredWordSearch(final WordIndex coreWordIndex,
+                            final WordIndex fullWordIndex,
+                            final WordFrequencies wordFrequencies) {
+        this(ImmutableList.of(new DictionaryTier(CORE_TIER, coreWordIndex, wordFrequencies),
+                new DictionaryTier(FULL_TIER, fullWordIndex)));
+    }
+
+    /**
+     * Initializes the search.
+     * @param tiers The tiers, in the order to search them.
+     * @throws IllegalArgumentException If there are no tiers.
+     */
+    public TieredWordSearch(final List<DictionaryTier> tiers) {
+        if(tiers.isEmpty()) {
+            throw new IllegalArgumentException("At least one tier is needed");
+        }
+        this.tiers = ImmutableList.copyOf(tiers);
+    }
+
+    /**
+     * Get the tiers.
+     * @return The tiers, in the order they're searched.
+     */
+    public List<DictionaryTier> getTiers() {
+        return tiers;
+    }
+
+    /**
+     * Get <i>up to</i> the specified number of matched words, based on the specified query.
+     * The tiers are searched in order, and the search stops after the first tier that fills
+     * the limit.
+     * @param searchQuery The query to match words.
+     * @param matchedWordLimit The maximum number of words to match.
+     * @return A <i>maximum</i> of the specified amount of matched words, labeled with their
+     * tier. The words of each tier come after those of the tiers before it.
+     */
+    public List<TieredWord> getMatchedWords(final WordSearchQuery searchQuery,
+                                            final int matchedWordLimit) {
+        final CompiledWordQuery compiledQuery = new CompiledWordQuery(searchQuery);
+        final ImmutableList.Builder<TieredWord> matchedWordsBuilder = ImmutableList.builder();
+        final Set<String> matchedWords = Sets.newHashSet();
+        for(final DictionaryTier tier : tiers) {
+            if(matchedWords.size() >= matchedWordLimit) {
+                break;
+            }
+            addWords(tier.getName(), tier.getMatchedWords(compiledQuery, matchedWordLimit),
+                    matchedWordLimit, matchedWords, matchedWordsBuilder);
+        }
+        return matchedWordsBuilder.build();
+    }
+
+    /**
+     * Get <i>up to</i> the specified number of candidates, labeled with their tier. Every tier
+     * but the last is searched for the query of the candidates as usual; what's left of the
+     * limit is filled from the candidates themselves, so the last tier, which is usually the
+     * whole dictionary, is never searched again.
+     * @param candidates Every word of the last tier that matches a query; e.g. from
+     *                   {@link WordSearch#getCandidates(WordSearchQueryImpl)} over the same
+     *                   words as the last tier.
+     * @param matchedWordLimit The maximum number of words to get.
+     * @return A <i>maximum</i> of the specified amount of candidates, labeled with their tier.
+     * The words of each tier come after those of the tiers before it; those of the last tier
+     * are the most common first.
+     */
+    public List<TieredWord> getMatchedWords(final CandidateSet candidates,
+                                            final int matchedWordLimit) {
+        final CompiledWordQuery compiledQuery =
+                new CompiledWordQuery(candidates.getSearchQuery());
+        final ImmutableList.Builder<TieredWord> matchedWordsBuilder = ImmutableList.builder();
+        final Set<String> matchedWords = Sets.newHashSet();
+        final int lastTierIdx = tiers.size() - 1;
+        for(int tierIdx = 0;
+            (tierIdx < lastTierIdx) && (matchedWords.size() < matchedWordLimit);
+            tierIdx++) {
+            final DictionaryTier tier = tiers.get(tierIdx);
+            addWords(tier.getName(), tier.getMatchedWords(compiledQuery, matchedWordLimit),
+                    matchedWordLimit, matchedWords, matchedWordsBuilder);
+        }
+        if(matchedWords.size() < matchedWordLimit) {
+            addWords(tiers.get(lastTierIdx).getName(), candidates.getTopWords(matchedWordLimit),
+                    matchedWordLimit, matchedWords, matchedWordsBuilder);
+        }
+        return matchedWordsBuilder.build();
+    }
+
+    /**
+     * Add the words of a tier that haven't been found yet, until the limit is reached.
+     * @param tierName The name of the tier.
+     * @param tierWords The matched words of the tier. At most every word found so far is found
+     *                  again, so as many words as the whole limit are always enough.
+     * @param matchedWordLimit The maximum number of words to match.
+     * @param matchedWords The words found so far.
+     * @param matchedWordsBuilder Receives the words that haven't been found yet.
+     */
+    private static void addWords(final String tierName,
+                                 final List<String> tierWords,
+                                 final int matchedWordLimit,
+                                 final Set<String> matchedWords,
+                                 final ImmutableList.Builder<TieredWord> matchedWordsBuilder) {
+        for(final String word : tierWords) {
+            if(matchedWords.size() >= matchedWordLimit) {
+                break;
+            }
+            if(matchedWords.add(word)) {
+                matchedWordsBuilder.add(new TieredWord(word, tierName));
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.marlowsoft.wofsolver.dictionary;
+
+import java.util.Map;
+
+/**
+ * Defines how common words are, so that the most likely answers can be suggested first.
+ */
+public interface WordFrequencies {
+    /**
+     * Get how common a word is.
+     * @param word The word, in lower case.
+     * @return How common the word is; the higher, the more common. Words that aren't known to
+     * be common are 0.
+     */
+    int getFrequency(String word);
+
+    /**
+     * Get every word that is known to be common.
+     * @return How common each word is, by word, in lower case. Words that aren't in it are 0.
+     */
+    Map<String, Integer> getFrequencies();
+}
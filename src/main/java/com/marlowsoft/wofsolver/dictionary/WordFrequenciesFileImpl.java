@@ -0,0 +1,77 @@
+package com.marlowsoft.wofsolver.dictionary;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * File-backed implementation to get how common words are.
+ * <p>
+ * The file has one word per line, the most common word first. A word's frequency is the
+ * number of words after it in the file, plus one; so the first word is the most common and
+ * every word in the file is more common than any word that isn't. If the file doesn't exist,
+ * no word is more common than any other.
+ */
+public class WordFrequenciesFileImpl implements WordFrequencies {
+    /**
+     * The frequency of every word in the file.
+     */
+    private final Map<String, Integer> frequencies;
+
+    /**
+     * Read how common words are from a file.
+     * @param filePath The path to load the file from.
+     * @throws IOException If a problem occurs when reading the file.
+     */
+    @Inject
+    public WordFrequenciesFileImpl(@Named("WordFrequencyFileLoc") final String filePath)
+            throws IOException {
+        final InputStream fileStream = getClass().getClassLoader().getResourceAsStream(filePath);
+        if(fileStream == null) {
+            frequencies = ImmutableMap.of();
+            return;
+        }
+
+        final List<String> words;
+        try {
+            words = IOUtils.readLines(fileStream, Charsets.UTF_8);
+        } finally {
+            fileStream.close();
+        }
+        // the first time a word is listed is the one that counts
+        final Map<String, Integer> fileFrequencies = Maps.newHashMap();
+        for(int rank = 0; rank < words.size(); rank++) {
+            final String word = words.get(rank).trim().toLowerCase(Locale.ENGLISH);
+            if(!word.isEmpty() && !fileFrequencies.containsKey(word)) {
+                fileFrequencies.put(word, words.size() - rank);
+            }
+        }
+        frequencies = ImmutableMap.copyOf(fileFrequencies);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getFrequency(final String word) {
+        final Integer frequency = frequencies.get(word);
+        return frequency == null ? 0 : frequency;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, Integer> getFrequencies() {
+        return frequencies;
+    }
+}
@@ -0,0 +1,61 @@
+package com.marlowsoft.wofsolver.dictionary;
+
+/**
+ * Defines a way to store all known words and find the ones that match a
+ * {@link CompiledWordQuery}.
+ * <p>
+ * Words are grouped by length. Within a group, every word has an <i>ordinal</i>: its position
+ * amongst all words of the same length, in dictionary order.
+ * <p>
+ * An index doesn't change once it's built, so it may be searched from several threads at once.
+ */
+public interface WordIndex {
+    /**
+     * Get the number of words of the specified length.
+     * @param wordLength The length of the words.
+     * @return The number of words of the specified length.
+     */
+    int getWordCount(int wordLength);
+
+    /**
+     * Get a word by its length and ordinal.
+     * @param wordLength The length of the word.
+     * @param ordinal The position of the word amongst all words of the same length.
+     * @return The word.
+     * @throws IndexOutOfBoundsException If there is no such word.
+     */
+    String getWord(int wordLength, int ordinal);
+
+    /**
+     * Get the positions a letter is at in a word, without creating a {@link String} for the word.
+     * @param wordLength The length of the word.
+     * @param ordinal The position of the word amongst all words of the same length.
+     * @param letter The letter, in lower case.
+     * @return A mask where bit <i>n</i> is set when the letter is at position <i>n</i>. Positions
+     * past the 64th share their bits with the ones 64 before them.
+     * @throws IndexOutOfBoundsException If there is no such word.
+     */
+    long getLetterPositions(int wordLength, int ordinal, char letter);
+
+    /**
+     * Find the words that match the specified query. Only a window of the query's length
+     * group is searched; the window starts at ordinal {@code firstBitsetWord * 64} and is
+     * {@code matches.length * 64} ordinals long.
+     * @param searchQuery The compiled query to match words.
+     * @param firstBitsetWord The index of the first bitset word in the window.
+     * @param matches Receives the matched ordinals of the window. Bit <i>n</i> of
+     *                {@code matches[i]} is set when the word with ordinal
+     *                {@code (firstBitsetWord + i) * 64 + n} matches.
+     */
+    void findMatches(CompiledWordQuery searchQuery, int firstBitsetWord, long[] matches);
+
+    /**
+     * Narrow down words that were already found to match another query. Only the words whose
+     * bits are set are looked at; the bit of every one that doesn't match the specified query is
+     * cleared. The window is laid out the same as for {@link #findMatches}.
+     * @param searchQuery The compiled query to match words.
+     * @param firstBitsetWord The index of the first bitset word in the window.
+     * @param matches The ordinals of the window to narrow down.
+     */
+    void filterMatches(CompiledWordQuery searchQuery, int firstBitsetWord, long[] matches);
+}
@@ -8,7 +8,7 @@ import java.util.List;
 public interface WordList {
     /**
      * Get all known words that can exist on the board.
-     * @return All known words; i.e. a dictionary.
+     * @return All known words, in lower case and in dictionary order; i.e. a dictionary.
      * @throws Exception If a problem occurs during the creation of the word list.
      */
     List<String> getWordList() throws Exception;
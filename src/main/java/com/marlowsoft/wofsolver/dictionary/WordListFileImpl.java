@@ -1,12 +1,14 @@
 package com.marlowsoft.wofsolver.dictionary;
 
-import com.google.common.collect.ImmutableList;
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableSet;
 import com.google.inject.Inject;
 import com.google.inject.name.Named;
 import org.apache.commons.io.IOUtils;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * File-backed implementation get get all words.
@@ -25,8 +27,16 @@ public class WordListFileImpl implements WordList {
     @Inject
     public WordListFileImpl(@Named("WordListFileLoc")String filePath)
             throws IOException {
-        wordList = ImmutableList.copyOf(IOUtils.readLines(getClass().
-                getClassLoader().getResourceAsStream(filePath)));
+        // normalize the dictionary once, here, so nothing has to fold case while searching;
+        // the words stay in the file's order, minus the ones that only differed by case
+        final ImmutableSet.Builder<String> wordListBuilder = ImmutableSet.builder();
+        for(final String word : IOUtils.readLines(getClass().
+                getClassLoader().getResourceAsStream(filePath), Charsets.UTF_8)) {
+            if(!word.isEmpty()) {
+                wordListBuilder.add(word.toLowerCase(Locale.ENGLISH));
+            }
+        }
+        wordList = wordListBuilder.build().asList();
     }
 
     /**
@@ -1,42 +1,93 @@
 package com.marlowsoft.wofsolver.dictionary;
 
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+import com.google.common.io.BaseEncoding;
 import com.google.inject.Inject;
 
+import java.nio.ByteBuffer;
+import java.util.Collection;
 import java.util.List;
-import java.util.Set;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Gets a collection of matched words based on a {@link WordSearchQueryImpl}.
  */
 public class WordSearch {
-    private final List<String> dictionaryEntries;
-    private final ImmutableMultimap<Integer, String> knownLengthEntries;
+    /**
+     * The number of bitset words (64 words of the dictionary apiece) that are matched at a time.
+     */
+    private static final int SEARCH_CHUNK_SIZE = 64;
 
     /**
-     * Initializes the word list.
-     * @param wordList All known words; i.e. a dictionary.
-     * @throws Exception If a problem occurs while creating the word list.
+     * The number of bitset words that are matched by a single task of a parallel search.
+     * It's smaller than {@link #SEARCH_CHUNK_SIZE} so even a single length group is split into
+     * enough tasks to keep every core busy.
      */
-    @Inject
-    public WordSearch(final WordList wordList) throws Exception {
-        final ImmutableList.Builder<String> dictionaryEntriesBuilder =
-                ImmutableList.builder();
-        final ImmutableMultimap.Builder<Integer, String> knownLengthEntriesBuilder =
-                ImmutableMultimap.builder();
+    private static final int PARALLEL_CHUNK_SIZE = 8;
 
-        for(final String dictionaryEntry : wordList.getWordList()) {
-            dictionaryEntriesBuilder.add(dictionaryEntry);
-            knownLengthEntriesBuilder.put(dictionaryEntry.length(), dictionaryEntry);
+    /**
+     * Length groups with fewer words than this are searched serially, since splitting them
+     * up costs more than it saves.
+     */
+    private static final int PARALLEL_THRESHOLD = 8192;
+
+    /**
+     * The number of tasks per thread of the pool that a limited parallel search runs before
+     * checking whether the limit has been reached.
+     */
+    private static final int TASKS_PER_THREAD = 2;
+
+    /**
+     * The number of bytes in a resume token before its known letters: the word length, the
+     * ordinal and the mask of excluded letters.
+     */
+    private static final int RESUME_TOKEN_HEADER_SIZE = 3 * 4;
+
+    /**
+     * Doesn't know of any word that is more common than any other.
+     */
+    private static final WordFrequencies NO_FREQUENCIES = new WordFrequencies() {
+        @Override
+        public int getFrequency(final String word) {
+            return 0;
+        }
+
+        @Override
+        public Map<String, Integer> getFrequencies() {
+            return ImmutableMap.of();
         }
+    };
 
-        dictionaryEntries = dictionaryEntriesBuilder.build();
-        knownLengthEntries = knownLengthEntriesBuilder.build();
+    private final WordIndex wordIndex;
+    private final FrequencyRanks frequencyRanks;
+
+    /**
+     * Initializes the word search without knowing how common any word is, so the top matched
+     * words are the first ones in dictionary order.
+     * @param wordIndex All known words; i.e. a dictionary.
+     */
+    public WordSearch(final WordIndex wordIndex) {
+        this(wordIndex, NO_FREQUENCIES);
     }
 
-    // TODO add a "give up" overload for getMatchedWords?
+    /**
+     * Initializes the word search.
+     * @param wordIndex All known words; i.e. a dictionary.
+     * @param wordFrequencies How common the words are.
+     */
+    @Inject
+    public WordSearch(final WordIndex wordIndex, final WordFrequencies wordFrequencies) {
+        this.wordIndex = wordIndex;
+        frequencyRanks = new FrequencyRanks(wordIndex, wordFrequencies);
+    }
 
     /**
      * Get <i>all</i> matched words, based on the specified query.
@@ -44,9 +95,10 @@ public class WordSearch {
      * @return <i>All</i> matched words, based on the specified query.
      */
     public List<String> getMatchedWords(final WordSearchQueryImpl searchQuery) {
-        // the length of all the dictionary entries ought to be a
+        // the amount of words with the same length ought to be a
         // good way to say, "give me everything".
-        return getMatchedWords(searchQuery, dictionaryEntries.size());
+        return getMatchedWords(searchQuery,
+                wordIndex.getWordCount(searchQuery.getWordLength()));
     }
 
     /**
@@ -57,64 +109,659 @@ public class WordSearch {
      */
     public List<String> getMatchedWords(final WordSearchQueryImpl searchQuery,
                                                  final int matchedWordLimit) {
+        return getMatchedWords(new CompiledWordQuery(searchQuery), matchedWordLimit);
+    }
+
+    /**
+     * Get <i>up to</i> the specified number of matched words, based on the specified
+     * compiled query.
+     * @param compiledQuery The query to match words.
+     * @param matchedWordLimit The maximum number of words to match.
+     * @return A <i>maximum</i> of the specified amount of limit of matched words.
+     */
+    protected List<String> getMatchedWords(final CompiledWordQuery compiledQuery,
+                                           final int matchedWordLimit) {
         final ImmutableList.Builder<String> matchedWordsBuilder = ImmutableList.builder();
+        collectMatches(compiledQuery, 0, getBitsetWordCount(compiledQuery.getWordLength()),
+                matchedWordLimit, matchedWordsBuilder);
+        return matchedWordsBuilder.build();
+    }
 
-        // first, get the matched word length; this should narrow things down a lot
-        ImmutableList<String> sameLengthWords =
-                knownLengthEntries.get(searchQuery.getWordLength()).asList();
+    /**
+     * Get <i>all</i> matched words, based on the specified query, but give up once the
+     * specified amount of time has passed.
+     * @param searchQuery The query to match words.
+     * @param timeout The longest the search may take.
+     * @param timeUnit The unit of the timeout.
+     * @return The words that were matched before the search finished or gave up.
+     */
+    public PartialMatches getMatchedWordsWithin(final WordSearchQueryImpl searchQuery,
+                                                final long timeout,
+                                                final TimeUnit timeUnit) {
+        return getMatchedWordsWithin(searchQuery,
+                wordIndex.getWordCount(searchQuery.getWordLength()), timeout, timeUnit);
+    }
 
-        // next, apply a pattern to all the words and
-        // bail if the matched word count reaches the specified limit, or
-        // list of known words is exhausted
-        final Pattern wordPattern = getWordPattern(searchQuery);
+    /**
+     * Get <i>up to</i> the specified number of matched words, based on the specified query, but
+     * give up once the specified amount of time has passed.
+     * @param searchQuery The query to match words.
+     * @param matchedWordLimit The maximum number of words to match.
+     * @param timeout The longest the search may take.
+     * @param timeUnit The unit of the timeout.
+     * @return The words that were matched before the search finished or gave up.
+     */
+    public PartialMatches getMatchedWordsWithin(final WordSearchQueryImpl searchQuery,
+                                                final int matchedWordLimit,
+                                                final long timeout,
+                                                final TimeUnit timeUnit) {
+        return getMatchedWordsUntil(searchQuery, matchedWordLimit,
+                System.nanoTime() + timeUnit.toNanos(timeout));
+    }
+
+    /**
+     * Get <i>up to</i> the specified number of matched words, based on the specified query, but
+     * give up once the specified deadline has passed.
+     * <p>
+     * The deadline is checked before every chunk of the dictionary is searched, so the search
+     * gives up at most one chunk (a few microseconds) after the deadline.
+     * @param searchQuery The query to match words.
+     * @param matchedWordLimit The maximum number of words to match.
+     * @param deadline The {@link System#nanoTime()} by which to give up.
+     * @return The words that were matched before the search finished or gave up.
+     */
+    public PartialMatches getMatchedWordsUntil(final WordSearchQueryImpl searchQuery,
+                                               final int matchedWordLimit,
+                                               final long deadline) {
+        final CompiledWordQuery compiledQuery = new CompiledWordQuery(searchQuery);
+        final int wordCount = wordIndex.getWordCount(compiledQuery.getWordLength());
+        final int bitsetWordCount = getBitsetWordCount(compiledQuery.getWordLength());
+
+        final ImmutableList.Builder<String> matchedWordsBuilder = ImmutableList.builder();
         int matchedWordCount = 0;
-        int curWordIdx = 0;
-        while((matchedWordCount < matchedWordLimit) &&
-                (curWordIdx < sameLengthWords.size())) {
-            final String curWord = sameLengthWords.get(curWordIdx);
-            if(wordPattern.matcher(curWord).matches()) {
-                matchedWordsBuilder.add(curWord);
-                matchedWordCount++;
+        int firstBitsetWord = 0;
+        while((matchedWordCount < matchedWordLimit) && (firstBitsetWord < bitsetWordCount)) {
+            // subtract rather than compare, in case nanoTime wraps around
+            if(System.nanoTime() - deadline >= 0) {
+                return new PartialMatches(matchedWordsBuilder.build(), false,
+                        (double)firstBitsetWord * Long.SIZE / wordCount);
             }
-            curWordIdx++;
+            final int lastBitsetWord =
+                    Math.min(bitsetWordCount, firstBitsetWord + SEARCH_CHUNK_SIZE);
+            matchedWordCount += collectMatches(compiledQuery, firstBitsetWord, lastBitsetWord,
+                    matchedWordLimit - matchedWordCount, matchedWordsBuilder);
+            firstBitsetWord = lastBitsetWord;
+        }
+
+        return new PartialMatches(matchedWordsBuilder.build(), true, wordCount == 0 ? 1.0 :
+                Math.min(1.0, (double)firstBitsetWord * Long.SIZE / wordCount));
+    }
+
+    /**
+     * Get <i>all</i> matched words, based on the specified query, matching parts of the
+     * dictionary concurrently on the specified pool.
+     * @param searchQuery The query to match words.
+     * @param forkJoinPool The pool to match words on.
+     * @return <i>All</i> matched words, based on the specified query, in dictionary order.
+     */
+    public List<String> getMatchedWords(final WordSearchQueryImpl searchQuery,
+                                        final ForkJoinPool forkJoinPool) {
+        return getMatchedWords(searchQuery,
+                wordIndex.getWordCount(searchQuery.getWordLength()), forkJoinPool);
+    }
+
+    /**
+     * Get <i>up to</i> the specified number of matched words, based on the specified query,
+     * matching parts of the dictionary concurrently on the specified pool.
+     * <p>
+     * Small length groups are searched serially on the calling thread. The rest are split into
+     * tasks that are matched a batch at a time, so the search stops soon after the limit is
+     * reached; the words returned are the same as the serial search would return.
+     * @param searchQuery The query to match words.
+     * @param matchedWordLimit The maximum number of words to match.
+     * @param forkJoinPool The pool to match words on.
+     * @return A <i>maximum</i> of the specified amount of limit of matched words,
+     * in dictionary order.
+     */
+    public List<String> getMatchedWords(final WordSearchQueryImpl searchQuery,
+                                        final int matchedWordLimit,
+                                        final ForkJoinPool forkJoinPool) {
+        final int wordLength = searchQuery.getWordLength();
+        final int wordCount = wordIndex.getWordCount(wordLength);
+        if(wordCount < PARALLEL_THRESHOLD) {
+            return getMatchedWords(searchQuery, matchedWordLimit);
+        }
+
+        final CompiledWordQuery compiledQuery = new CompiledWordQuery(searchQuery);
+        final int bitsetWordCount = getBitsetWordCount(wordLength);
+
+        // when everything is wanted there's no reason to check the limit along the way
+        final int batchSize = matchedWordLimit >= wordCount ? bitsetWordCount :
+                forkJoinPool.getParallelism() * TASKS_PER_THREAD * PARALLEL_CHUNK_SIZE;
+
+        final ImmutableList.Builder<String> matchedWordsBuilder = ImmutableList.builder();
+        int matchedWordCount = 0;
+        int firstBitsetWord = 0;
+        while((matchedWordCount < matchedWordLimit) && (firstBitsetWord < bitsetWordCount)) {
+            final int lastBitsetWord = Math.min(bitsetWordCount, firstBitsetWord + batchSize);
+            final List<String> batchWords = forkJoinPool.invoke(new MatchTask(compiledQuery,
+                    firstBitsetWord, lastBitsetWord, matchedWordLimit - matchedWordCount));
+            // the batch is in dictionary order, but might go past the limit
+            final int batchWordCount =
+                    Math.min(batchWords.size(), matchedWordLimit - matchedWordCount);
+            matchedWordsBuilder.addAll(batchWords.subList(0, batchWordCount));
+            matchedWordCount += batchWordCount;
+            firstBitsetWord = lastBitsetWord;
         }
 
         return matchedWordsBuilder.build();
     }
 
     /**
-     * Get a regex {@link java.util.regex.Pattern} based on the specified
-     * {@link WordSearchQueryImpl}.
-     * @param searchQuery The query used to build the {@link java.util.regex.Pattern}.
-     * @return A {@link java.util.regex.Pattern} optimized for searching for
-     * word matches based on the specified {@link WordSearchQueryImpl}.
+     * Get <i>up to</i> the specified number of matched words for each of the specified
+     * queries, searching each length group only once for all of the queries of that length.
+     * <p>
+     * Letters that every query of a length excludes from the whole word (the incorrect guesses,
+     * on a board) are ruled out once per chunk of the length group; each query then only narrows
+     * down what's left. Queries that match the same words are only matched once.
+     * @param searchQueries The queries to match words.
+     * @param matchedWordLimit The maximum number of words to match per query.
+     * @return The matched words of each query, in the same order as the queries.
+     */
+    public List<List<String>> getMatchedWordsBatch(
+            final List<? extends WordSearchQuery> searchQueries, final int matchedWordLimit) {
+        // queries that match the same words share their results
+        final Map<CompiledWordQuery, List<String>> matchedWordsByQuery = Maps.newHashMap();
+        final Multimap<Integer, CompiledWordQuery> queriesByLength = LinkedHashMultimap.create();
+        for(final WordSearchQuery searchQuery : searchQueries) {
+            final CompiledWordQuery compiledQuery = new CompiledWordQuery(searchQuery);
+            queriesByLength.put(compiledQuery.getWordLength(), compiledQuery);
+        }
+
+        for(final Map.Entry<Integer, Collection<CompiledWordQuery>> lengthQueries :
+                queriesByLength.asMap().entrySet()) {
+            final List<CompiledWordQuery> compiledQueries =
+                    ImmutableList.copyOf(lengthQueries.getValue());
+            final List<List<String>> matchedWords = getMatchedWordsBatch(
+                    lengthQueries.getKey(), compiledQueries, matchedWordLimit);
+            for(int queryIdx = 0; queryIdx < compiledQueries.size(); queryIdx++) {
+                matchedWordsByQuery.put(compiledQueries.get(queryIdx), matchedWords.get(queryIdx));
+            }
+        }
+
+        final ImmutableList.Builder<List<String>> batchBuilder = ImmutableList.builder();
+        for(final WordSearchQuery searchQuery : searchQueries) {
+            batchBuilder.add(matchedWordsByQuery.get(new CompiledWordQuery(searchQuery)));
+        }
+        return batchBuilder.build();
+    }
+
+    /**
+     * Get <i>up to</i> the specified number of the most common matched words, based on the
+     * specified query. Every match is ranked as it's found, with a heap that never holds more
+     * than the specified number of words, so the matches are never sorted as a whole.
+     * @param searchQuery The query to match words.
+     * @param matchedWordLimit The maximum number of words to match.
+     * @return A <i>maximum</i> of the specified amount of matched words, the most common first.
+     * Words that are as common as each other are in dictionary order.
+     */
+    public List<String> getTopMatchedWords(final WordSearchQuery searchQuery,
+                                           final int matchedWordLimit) {
+        return getTopMatchedWords(new CompiledWordQuery(searchQuery), matchedWordLimit);
+    }
+
+    /**
+     * Get <i>up to</i> the specified number of the most common matched words, based on the
+     * specified compiled query.
+     * @param compiledQuery The compiled query to match words.
+     * @param matchedWordLimit The maximum number of words to match.
+     * @return A <i>maximum</i> of the specified amount of matched words, the most common first.
+     * Words that are as common as each other are in dictionary order.
+     */
+    List<String> getTopMatchedWords(final CompiledWordQuery compiledQuery,
+                                    final int matchedWordLimit) {
+        final FrequencyRanks.Selector selector =
+                frequencyRanks.newSelector(compiledQuery.getWordLength(), matchedWordLimit);
+        if(matchedWordLimit > 0) {
+            // ranking looks at every match anyway, so they're all found at once
+            selector.offer(0, findCandidates(compiledQuery));
+        }
+        return selector.getWords();
+    }
+
+    /**
+     * Iterate over the matched words, based on the specified query. Words are only searched
+     * for as they're asked for, so a caller that stops early never pays for the rest.
+     * @param searchQuery The query to match words.
+     * @return An iterator over the matched words, in dictionary order.
+     */
+    public MatchIterator getMatchIterator(final WordSearchQuery searchQuery) {
+        final CompiledWordQuery compiledQuery = new CompiledWordQuery(searchQuery);
+        return new MatchIterator(wordIndex, compiledQuery, 0,
+                wordIndex.getWordCount(compiledQuery.getWordLength()), SEARCH_CHUNK_SIZE);
+    }
+
+    /**
+     * Get the first page of matched words, based on the specified query.
+     * @param searchQuery The query to match words.
+     * @param pageSize The maximum number of words on the page.
+     * @return The first page of matched words.
+     */
+    public MatchPage getMatchedWordsPage(final WordSearchQuery searchQuery, final int pageSize) {
+        return getMatchedWordsPage(searchQuery, null, pageSize);
+    }
+
+    /**
+     * Get a page of matched words, based on the specified query, that starts where a
+     * previous page stopped. The search picks up exactly where the previous one left off, so
+     * getting a page costs about the same no matter how far along it is.
+     * @param searchQuery The query to match words.
+     * @param resumeToken The token of the previous page, or <code>null</code> for the first page.
+     * @param pageSize The maximum number of words on the page.
+     * @return The page of matched words.
+     * @throws IllegalArgumentException If the token wasn't made by a page of the same query.
+     */
+    public MatchPage getMatchedWordsPage(final WordSearchQuery searchQuery,
+                                         final String resumeToken,
+                                         final int pageSize) {
+        final CompiledWordQuery compiledQuery = new CompiledWordQuery(searchQuery);
+        final int wordLength = compiledQuery.getWordLength();
+        final int firstOrdinal =
+                resumeToken == null ? 0 : decodeResumeToken(compiledQuery, resumeToken);
+
+        final MatchIterator matchIterator = new MatchIterator(wordIndex, compiledQuery,
+                firstOrdinal, wordIndex.getWordCount(wordLength), SEARCH_CHUNK_SIZE);
+        final ImmutableList.Builder<String> pageWordsBuilder = ImmutableList.builder();
+        for(int pageWordCount = 0;
+            (pageWordCount < pageSize) && matchIterator.hasNext();
+            pageWordCount++) {
+            pageWordsBuilder.add(matchIterator.next());
+        }
+
+        // the next page starts right at the next match, if there is one
+        final String nextResumeToken = matchIterator.hasNext() ?
+                encodeResumeToken(compiledQuery, matchIterator.peekOrdinal()) : null;
+        return new MatchPage(pageWordsBuilder.build(), nextResumeToken);
+    }
+
+    /**
+     * Count <i>all</i> matched words, based on the specified query. The words themselves are
+     * never looked at; only the bits the index sets for them are counted.
+     * @param searchQuery The query to match words.
+     * @return The number of matched words.
+     */
+    public int countMatches(final WordSearchQuery searchQuery) {
+        int matchedWordCount = 0;
+        for(final long matchBits : findCandidates(new CompiledWordQuery(searchQuery))) {
+            matchedWordCount += Long.bitCount(matchBits);
+        }
+        return matchedWordCount;
+    }
+
+    /**
+     * Count matched words, based on the specified query, but stop counting once the specified
+     * number is reached.
+     * @param searchQuery The query to match words.
+     * @param matchedWordCap The number of matched words past which there's no need to count.
+     * @return The number of matched words, or {@code matchedWordCap} if there are at least that
+     * many.
+     */
+    public int countMatchesUpTo(final WordSearchQuery searchQuery, final int matchedWordCap) {
+        final CompiledWordQuery compiledQuery = new CompiledWordQuery(searchQuery);
+        final int bitsetWordCount = getBitsetWordCount(compiledQuery.getWordLength());
+
+        final long[] matches = new long[Math.min(SEARCH_CHUNK_SIZE, bitsetWordCount)];
+        int matchedWordCount = 0;
+        for(int firstBitsetWord = 0;
+            (firstBitsetWord < bitsetWordCount) && (matchedWordCount < matchedWordCap);
+            firstBitsetWord += matches.length) {
+            wordIndex.findMatches(compiledQuery, firstBitsetWord, matches);
+            for(final long matchBits : matches) {
+                matchedWordCount += Long.bitCount(matchBits);
+            }
+        }
+
+        return Math.min(matchedWordCount, matchedWordCap);
+    }
+
+    /**
+     * Get every word that matches the specified query, as a set that can be refined as the
+     * query changes.
+     * @param searchQuery The query to match words.
+     * @return The candidates.
+     */
+    public CandidateSet getCandidates(final WordSearchQueryImpl searchQuery) {
+        final CompiledWordQuery compiledQuery = new CompiledWordQuery(searchQuery);
+        // the set narrows down its own bits when it's refined, so it gets a copy of them
+        return new CandidateSet(wordIndex, frequencyRanks, searchQuery, compiledQuery,
+                findCandidates(compiledQuery).clone());
+    }
+
+    /**
+     * Get every word that matches each of the specified queries, searching each length group
+     * only once for all of the queries of that length. Like
+     * {@link #getMatchedWordsBatch(List, int)}, the letters that every query of a length excludes
+     * from the whole word are ruled out once per chunk, and queries that match the same words
+     * are only matched once. Since every word is matched, each set knows both its words and how
+     * many there are without searching again.
+     * @param searchQueries The queries to match words.
+     * @return The candidates of each query, in the same order as the queries. Every set can be
+     * refined on its own.
+     */
+    public List<CandidateSet> getCandidatesBatch(
+            final List<? extends WordSearchQuery> searchQueries) {
+        final List<CompiledWordQuery> compiledQueries = Lists.newArrayList();
+        final Multimap<Integer, CompiledWordQuery> queriesByLength = LinkedHashMultimap.create();
+        for(final WordSearchQuery searchQuery : searchQueries) {
+            final CompiledWordQuery compiledQuery = new CompiledWordQuery(searchQuery);
+            compiledQueries.add(compiledQuery);
+            queriesByLength.put(compiledQuery.getWordLength(), compiledQuery);
+        }
+
+        // queries that match the same words share their results
+        final Map<CompiledWordQuery, long[]> candidatesByQuery = Maps.newHashMap();
+        for(final Map.Entry<Integer, Collection<CompiledWordQuery>> lengthQueries :
+                queriesByLength.asMap().entrySet()) {
+            final List<CompiledWordQuery> distinctQueries =
+                    ImmutableList.copyOf(lengthQueries.getValue());
+            final List<long[]> candidates =
+                    findCandidatesBatch(lengthQueries.getKey(), distinctQueries);
+            for(int queryIdx = 0; queryIdx < distinctQueries.size(); queryIdx++) {
+                candidatesByQuery.put(distinctQueries.get(queryIdx), candidates.get(queryIdx));
+            }
+        }
+
+        final ImmutableList.Builder<CandidateSet> batchBuilder = ImmutableList.builder();
+        for(int queryIdx = 0; queryIdx < compiledQueries.size(); queryIdx++) {
+            final CompiledWordQuery compiledQuery = compiledQueries.get(queryIdx);
+            // each set narrows down its own bits when it's refined, so none of them are shared
+            batchBuilder.add(new CandidateSet(wordIndex, frequencyRanks,
+                    searchQueries.get(queryIdx), compiledQuery,
+                    candidatesByQuery.get(compiledQuery).clone()));
+        }
+        return batchBuilder.build();
+    }
+
+    /**
+     * Get <i>up to</i> the specified number of matched words for each of the specified
+     * queries, which all have the same length, with a single pass over the length group.
+     * @param wordLength The length of the words.
+     * @param compiledQueries The queries to match words, all different.
+     * @param matchedWordLimit The maximum number of words to match per query.
+     * @return The matched words of each query, in the same order as the queries.
+     */
+    private List<List<String>> getMatchedWordsBatch(final int wordLength,
+                                                    final List<CompiledWordQuery> compiledQueries,
+                                                    final int matchedWordLimit) {
+        // the letters that every query rules out of the whole word
+        int sharedRejectMask = -1;
+        for(final CompiledWordQuery compiledQuery : compiledQueries) {
+            sharedRejectMask &= compiledQuery.getRejectMask();
+        }
+        final CompiledWordQuery sharedQuery =
+                CompiledWordQuery.excluding(wordLength, sharedRejectMask);
+
+        final List<ImmutableList.Builder<String>> matchedWordsBuilders = Lists.newArrayList();
+        final int[] matchedWordCounts = new int[compiledQueries.size()];
+        for(int queryIdx = 0; queryIdx < compiledQueries.size(); queryIdx++) {
+            matchedWordsBuilders.add(ImmutableList.<String>builder());
+        }
+
+        final int bitsetWordCount = getBitsetWordCount(wordLength);
+        final long[] sharedMatches = new long[Math.min(SEARCH_CHUNK_SIZE, bitsetWordCount)];
+        final long[] matches = new long[sharedMatches.length];
+        int unfinishedQueryCount = matchedWordLimit > 0 ? compiledQueries.size() : 0;
+        for(int firstBitsetWord = 0;
+            (firstBitsetWord < bitsetWordCount) && (unfinishedQueryCount > 0);
+            firstBitsetWord += sharedMatches.length) {
+            wordIndex.findMatches(sharedQuery, firstBitsetWord, sharedMatches);
+
+            for(int queryIdx = 0; queryIdx < compiledQueries.size(); queryIdx++) {
+                if(matchedWordCounts[queryIdx] >= matchedWordLimit) {
+                    continue;
+                }
+                System.arraycopy(sharedMatches, 0, matches, 0, matches.length);
+                wordIndex.filterMatches(compiledQueries.get(queryIdx), firstBitsetWord, matches);
+
+                for(int matchIdx = 0;
+                    (matchIdx < matches.length) &&
+                            (matchedWordCounts[queryIdx] < matchedWordLimit);
+                    matchIdx++) {
+                    long matchBits = matches[matchIdx];
+                    while((matchBits != 0) && (matchedWordCounts[queryIdx] < matchedWordLimit)) {
+                        final int ordinal = (firstBitsetWord + matchIdx) * Long.SIZE +
+                                Long.numberOfTrailingZeros(matchBits);
+                        matchedWordsBuilders.get(queryIdx)
+                                .add(wordIndex.getWord(wordLength, ordinal));
+                        matchedWordCounts[queryIdx]++;
+                        // clear the lowest set bit
+                        matchBits &= matchBits - 1;
+                    }
+                }
+                if(matchedWordCounts[queryIdx] >= matchedWordLimit) {
+                    unfinishedQueryCount--;
+                }
+            }
+        }
+
+        final ImmutableList.Builder<List<String>> batchBuilder = ImmutableList.builder();
+        for(final ImmutableList.Builder<String> matchedWordsBuilder : matchedWordsBuilders) {
+            batchBuilder.add(matchedWordsBuilder.build());
+        }
+        return batchBuilder.build();
+    }
+
+    /**
+     * Find every word that matches the specified compiled query.
+     * @param compiledQuery The compiled query to match words.
+     * @return The bitset of the words the query matches, by ordinal. It may be shared, so it
+     * must not be changed.
      */
-    private Pattern getWordPattern(final WordSearchQueryImpl searchQuery) {
-        final Set<Character> usedLetters = searchQuery.getUsedLetters();
-        final StringBuilder usedLettersRegexBuilder = new StringBuilder();
-        final String usedLettersRegex;
-        final StringBuilder regexStringBuilder = new StringBuilder();
+    protected long[] findCandidates(final CompiledWordQuery compiledQuery) {
+        final long[] candidates = new long[getBitsetWordCount(compiledQuery.getWordLength())];
+        wordIndex.findMatches(compiledQuery, 0, candidates);
+        return candidates;
+    }
+
+    /**
+     * Find every word that matches each of the specified queries, which all have the same
+     * length, with a single pass over the length group.
+     * @param wordLength The length of the words.
+     * @param compiledQueries The queries to match words, all different.
+     * @return The bitset of the words each query matches, by ordinal, in the same order as the
+     * queries. They may be shared, so they must not be changed.
+     */
+    protected List<long[]> findCandidatesBatch(final int wordLength,
+                                             final List<CompiledWordQuery> compiledQueries) {
+        // the letters that every query rules out of the whole word
+        int sharedRejectMask = -1;
+        for(final CompiledWordQuery compiledQuery : compiledQueries) {
+            sharedRejectMask &= compiledQuery.getRejectMask();
+        }
+        final CompiledWordQuery sharedQuery =
+                CompiledWordQuery.excluding(wordLength, sharedRejectMask);
+
+        final int bitsetWordCount = getBitsetWordCount(wordLength);
+        final List<long[]> candidates = Lists.newArrayList();
+        for(int queryIdx = 0; queryIdx < compiledQueries.size(); queryIdx++) {
+            candidates.add(new long[bitsetWordCount]);
+        }
+
+        final long[] sharedMatches = new long[Math.min(SEARCH_CHUNK_SIZE, bitsetWordCount)];
+        final long[] matches = new long[sharedMatches.length];
+        for(int firstBitsetWord = 0;
+            firstBitsetWord < bitsetWordCount;
+            firstBitsetWord += sharedMatches.length) {
+            wordIndex.findMatches(sharedQuery, firstBitsetWord, sharedMatches);
+            final int windowWords =
+                    Math.min(sharedMatches.length, bitsetWordCount - firstBitsetWord);
 
-        // if there aren't any used letters, an "any letter" will have to do
-        if(usedLetters.isEmpty()) {
-            usedLettersRegexBuilder.append(".");
-        } else {
-            usedLettersRegexBuilder.append("[^");
-            for (final char usedLetter : usedLetters) {
-                usedLettersRegexBuilder.append(usedLetter);
+            for(int queryIdx = 0; queryIdx < compiledQueries.size(); queryIdx++) {
+                System.arraycopy(sharedMatches, 0, matches, 0, matches.length);
+                wordIndex.filterMatches(compiledQueries.get(queryIdx), firstBitsetWord, matches);
+                System.arraycopy(matches, 0, candidates.get(queryIdx), firstBitsetWord,
+                        windowWords);
             }
-            usedLettersRegexBuilder.append("]");
         }
+        return candidates;
+    }
+
+    /**
+     * Get <i>up to</i> the specified number of words from a bitset of matched words.
+     * @param wordLength The length of the words.
+     * @param candidates The bitset of the matched words, by ordinal.
+     * @param wordLimit The maximum number of words to get.
+     * @return A <i>maximum</i> of the specified amount of the words, in dictionary order.
+     */
+    protected List<String> getWords(final int wordLength,
+                                    final long[] candidates,
+                                    final int wordLimit) {
+        return CandidateSet.getWords(wordIndex, wordLength, candidates, wordLimit);
+    }
+
+    /**
+     * Create a token that resumes a search at the specified ordinal. The token holds the word
+     * length, the ordinal, the mask of excluded letters and the known letter at every position,
+     * so it can be checked against the whole query when it comes back.
+     * @param compiledQuery The query of the search.
+     * @param ordinal The ordinal to resume at.
+     * @return The token.
+     */
+    private static String encodeResumeToken(final CompiledWordQuery compiledQuery,
+                                            final int ordinal) {
+        final int wordLength = compiledQuery.getWordLength();
+        final ByteBuffer tokenBuffer =
+                ByteBuffer.allocate(RESUME_TOKEN_HEADER_SIZE + wordLength * 2);
+        tokenBuffer.putInt(wordLength);
+        tokenBuffer.putInt(ordinal);
+        tokenBuffer.putInt(compiledQuery.getExcludedMask());
+        for(int position = 0; position < wordLength; position++) {
+            tokenBuffer.putChar(compiledQuery.getKnownLetter(position));
+        }
+        return BaseEncoding.base64Url().omitPadding().encode(tokenBuffer.array());
+    }
+
+    /**
+     * Get the ordinal a token resumes a search at.
+     * @param compiledQuery The query of the search.
+     * @param resumeToken The token.
+     * @return The ordinal to resume at.
+     * @throws IllegalArgumentException If the token wasn't made for the same query.
+     */
+    private static int decodeResumeToken(final CompiledWordQuery compiledQuery,
+                                         final String resumeToken) {
+        final byte[] tokenBytes = BaseEncoding.base64Url().omitPadding().decode(resumeToken);
+        final int wordLength = compiledQuery.getWordLength();
+        if(tokenBytes.length != RESUME_TOKEN_HEADER_SIZE + wordLength * 2) {
+            throw new IllegalArgumentException(
+                    "\"" + resumeToken + "\" doesn't resume a search for this query");
+        }
+        final ByteBuffer tokenBuffer = ByteBuffer.wrap(tokenBytes);
+        final int tokenWordLength = tokenBuffer.getInt();
+        final int ordinal = tokenBuffer.getInt();
+        final int excludedMask = tokenBuffer.getInt();
+        boolean sameQuery = tokenWordLength == wordLength &&
+                excludedMask == compiledQuery.getExcludedMask() && ordinal >= 0;
+        for(int position = 0; sameQuery && position < wordLength; position++) {
+            sameQuery = tokenBuffer.getChar() == compiledQuery.getKnownLetter(position);
+        }
+        if(!sameQuery) {
+            throw new IllegalArgumentException(
+                    "\"" + resumeToken + "\" doesn't resume a search for this query");
+        }
+        return ordinal;
+    }
 
-        usedLettersRegex = usedLettersRegexBuilder.toString();
+    /**
+     * Get the number of bitset words it takes to cover every word of the specified length.
+     * @param wordLength The length of the words.
+     * @return The number of bitset words.
+     */
+    private int getBitsetWordCount(final int wordLength) {
+        return (wordIndex.getWordCount(wordLength) + Long.SIZE - 1) / Long.SIZE;
+    }
 
-        // for every known letter, insert the letter
-        // for every unknown letter, use the used letters regex string
-        for(int charIdx = 0; charIdx < searchQuery.getWordLength(); charIdx++) {
-            final Character knownLetter = searchQuery.getKnownLetters().get(charIdx);
-            regexStringBuilder.append(knownLetter != null ? knownLetter : usedLettersRegex);
+    /**
+     * Match the words in a window of a length group, in dictionary order.
+     * @param compiledQuery The query to match words.
+     * @param firstBitsetWord The index of the first bitset word in the window.
+     * @param lastBitsetWord The index of the bitset word just past the window.
+     * @param matchedWordLimit The maximum number of words to match.
+     * @param matchedWordsBuilder Receives the matched words.
+     * @return The number of matched words.
+     */
+    private int collectMatches(final CompiledWordQuery compiledQuery,
+                               final int firstBitsetWord,
+                               final int lastBitsetWord,
+                               final int matchedWordLimit,
+                               final ImmutableList.Builder<String> matchedWordsBuilder) {
+        // match a chunk of same-length words at a time with the index and
+        // bail if the matched word count reaches the specified limit, or
+        // the window is exhausted
+        final MatchIterator matchIterator = new MatchIterator(wordIndex, compiledQuery,
+                firstBitsetWord * Long.SIZE, lastBitsetWord * Long.SIZE, SEARCH_CHUNK_SIZE);
+        int matchedWordCount = 0;
+        while((matchedWordCount < matchedWordLimit) && matchIterator.hasNext()) {
+            matchedWordsBuilder.add(matchIterator.next());
+            matchedWordCount++;
         }
 
-        return Pattern.compile(regexStringBuilder.toString(), Pattern.CASE_INSENSITIVE);
+        return matchedWordCount;
+    }
+
+    /**
+     * Matches the words in a window of a length group, splitting the window in halves until
+     * each half is small enough to match on its own.
+     */
+    private class MatchTask extends RecursiveTask<List<String>> {
+        private static final long serialVersionUID = 1L;
+
+        private final CompiledWordQuery compiledQuery;
+        private final int firstBitsetWord;
+        private final int lastBitsetWord;
+        private final int matchedWordLimit;
+
+        /**
+         * Initializes the task.
+         * @param compiledQuery The query to match words.
+         * @param firstBitsetWord The index of the first bitset word in the window.
+         * @param lastBitsetWord The index of the bitset word just past the window.
+         * @param matchedWordLimit The maximum number of words to match.
+         */
+        public MatchTask(final CompiledWordQuery compiledQuery,
+                         final int firstBitsetWord,
+                         final int lastBitsetWord,
+                         final int matchedWordLimit) {
+            this.compiledQuery = compiledQuery;
+            this.firstBitsetWord = firstBitsetWord;
+            this.lastBitsetWord = lastBitsetWord;
+            this.matchedWordLimit = matchedWordLimit;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected List<String> compute() {
+            final ImmutableList.Builder<String> matchedWordsBuilder = ImmutableList.builder();
+            if(lastBitsetWord - firstBitsetWord <= PARALLEL_CHUNK_SIZE) {
+                collectMatches(compiledQuery, firstBitsetWord, lastBitsetWord,
+                        matchedWordLimit, matchedWordsBuilder);
+                return matchedWordsBuilder.build();
+            }
+
+            final int middleBitsetWord = (firstBitsetWord + lastBitsetWord) >>> 1;
+            final MatchTask firstHalf = new MatchTask(compiledQuery,
+                    firstBitsetWord, middleBitsetWord, matchedWordLimit);
+            final MatchTask secondHalf = new MatchTask(compiledQuery,
+                    middleBitsetWord, lastBitsetWord, matchedWordLimit);
+            firstHalf.fork();
+            final List<String> secondHalfWords = secondHalf.compute();
+
+            // the first half comes first in dictionary order
+            return matchedWordsBuilder.addAll(firstHalf.join())
+                    .addAll(secondHalfWords)
+                    .build();
+        }
     }
 }
@@ -19,6 +19,14 @@ public interface WordSearchQuery {
      */
     Set<Character> getUsedLetters();
 
+    /**
+     * Get all letters that have been revealed anywhere on the board. Calling a letter reveals
+     * every one of it, so a revealed letter can't be at any position of the word that isn't
+     * known; it may only be at the positions where it's a known letter.
+     * @return All letters that have been revealed.
+     */
+    Set<Character> getRevealedLetters();
+
     /**
      * Get all known letters in the word where
      * the key is the index of the character and
@@ -1,5 +1,6 @@
 package com.marlowsoft.wofsolver.dictionary;
 
+import com.google.common.base.Objects;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
@@ -13,6 +14,7 @@ import java.util.Set;
 public class WordSearchQueryImpl implements WordSearchQuery {
     private final int wordLength;
     private final Set<Character> usedLetters;
+    private final Set<Character> revealedLetters;
     private final Map<Integer, Character> knownLetters;
 
     /**
@@ -21,15 +23,18 @@ public class WordSearchQueryImpl implements WordSearchQuery {
      * {@link com.marlowsoft.wofsolver.dictionary.WordSearchQueryImpl.WordSearchQueryBuilder}
      * @param wordLength The length of the word.
      * @param usedLetters All used letters.
+     * @param revealedLetters All letters revealed anywhere on the board.
      * @param knownLetters All known characters where
      *                     the key is the index of the character in the word and
      *                     the value is the character.
      */
     private WordSearchQueryImpl(final int wordLength,
                                 final Set<Character> usedLetters,
+                                final Set<Character> revealedLetters,
                                 final Map<Integer, Character> knownLetters) {
         this.wordLength = wordLength;
         this.usedLetters = usedLetters;
+        this.revealedLetters = revealedLetters;
         this.knownLetters = knownLetters;
     }
 
@@ -47,6 +52,13 @@ public class WordSearchQueryImpl implements WordSearchQuery {
         return usedLetters;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public Set<Character> getRevealedLetters() {
+        return revealedLetters;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -54,6 +66,37 @@ public class WordSearchQueryImpl implements WordSearchQuery {
         return knownLetters;
     }
 
+    /**
+     * Two queries are equal if they have the same word length, used letters, revealed letters
+     * and known letters.
+     * Queries that are spelled differently but match the same words (for instance, with
+     * letters in a different case) aren't equal; compare {@link CompiledWordQuery}s for that.
+     * @param other The object to compare to.
+     * @return <code>true</code> if the object is an equal query; <code>false</code> otherwise.
+     */
+    @Override
+    public boolean equals(final Object other) {
+        if(this == other) {
+            return true;
+        }
+        if(!(other instanceof WordSearchQueryImpl)) {
+            return false;
+        }
+        final WordSearchQueryImpl otherQuery = (WordSearchQueryImpl)other;
+        return wordLength == otherQuery.wordLength &&
+                usedLetters.equals(otherQuery.usedLetters) &&
+                revealedLetters.equals(otherQuery.revealedLetters) &&
+                knownLetters.equals(otherQuery.knownLetters);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(wordLength, usedLetters, revealedLetters, knownLetters);
+    }
+
     /**
      * Builds a {@link com.marlowsoft.wofsolver.dictionary.WordSearchQueryImpl}.
      */
@@ -64,11 +107,13 @@ public class WordSearchQueryImpl implements WordSearchQuery {
         public WordSearchQueryBuilder() {
             wordLength = 0;
             usedLettersBuilder = ImmutableSet.builder();
+            revealedLettersBuilder = ImmutableSet.builder();
             knownLettersBuilder = ImmutableMap.builder();
         }
 
         private int wordLength;
         private final ImmutableSet.Builder<Character> usedLettersBuilder;
+        private final ImmutableSet.Builder<Character> revealedLettersBuilder;
         private final ImmutableMap.Builder<Integer, Character> knownLettersBuilder;
 
         /**
@@ -81,6 +126,16 @@ public class WordSearchQueryImpl implements WordSearchQuery {
             return this;
         }
 
+        /**
+         * Add a letter that has been revealed somewhere on the board to this builder.
+         * @param revealedLetter The revealed letter to add to this builder.
+         * @return This, for chaining.
+         */
+        public WordSearchQueryBuilder addRevealedLetter(final Character revealedLetter) {
+            revealedLettersBuilder.add(revealedLetter);
+            return this;
+        }
+
         /**
          * Add a known letter for this builder.
          * @param index The index of the known letter.
@@ -111,7 +166,7 @@ public class WordSearchQueryImpl implements WordSearchQuery {
             // TODO should there be a thing in here to guarantee knownLetters' key
             // TODO isn't greater than wordLength?
             return new WordSearchQueryImpl(wordLength, usedLettersBuilder.build(),
-                    knownLettersBuilder.build());
+                    revealedLettersBuilder.build(), knownLettersBuilder.build());
         }
     }
 }
@@ -0,0 +1,70 @@
+package com.marlowsoft.wofsolver.headless;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How a run of the {@link BatchSolver} went. This class is immutable.
+ */
+public final class BatchReport {
+    private final int puzzleCount;
+    private final int errorCount;
+    private final long elapsedNanos;
+
+    /**
+     * Create a report.
+     * @param puzzleCount The number of puzzles that were read, including those with errors.
+     * @param errorCount The number of puzzles that couldn't be read.
+     * @param elapsedNanos How long the run took, in nanoseconds.
+     */
+    public BatchReport(final int puzzleCount, final int errorCount, final long elapsedNanos) {
+        this.puzzleCount = puzzleCount;
+        this.errorCount = errorCount;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Get the number of puzzles that were read.
+     * @return The number of puzzles, including those with errors.
+     */
+    public int getPuzzleCount() {
+        return puzzleCount;
+    }
+
+    /**
+     * Get the number of puzzles that couldn't be read.
+     * @return The number of puzzles with errors.
+     */
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Get how long the run took.
+     * @param unit The unit of the result.
+     * @return How long the run took, in the specified unit.
+     */
+    public long getElapsed(final TimeUnit unit) {
+        return unit.convert(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the throughput of the run.
+     * @return The number of puzzles solved per second.
+     */
+    public double getPuzzlesPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : puzzleCount * (double)TimeUnit.SECONDS.toNanos(1) /
+                elapsedNanos;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.ENGLISH,
+                "Solved %,d puzzles (%,d errors) in %.3f s: %,.1f puzzles/s",
+                puzzleCount, errorCount, elapsedNanos / (double)TimeUnit.SECONDS.toNanos(1),
+                getPuzzlesPerSecond());
+    }
+}
@@ -0,0 +1,159 @@
+package com.marlowsoft.wofsolver.headless;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.Queues;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Solves every puzzle in a file, one {@link Puzzle} per line, on a pool of worker threads that
+ * share one {@link PuzzleSolver}.
+ * <p>
+ * Blank lines and lines that start with {@code #} are skipped. Every other line gets one line
+ * of JSON in the output, in the same order as the input, with its line number; e.g.
+ * {@code {"line":3,"puzzle":"c__ch","words":[...]}}. A line that isn't a puzzle gets
+ * {@code {"line":4,"error":"..."}} instead. Only a limited number of puzzles are read ahead of
+ * the output, so files of any size can be solved.
+ */
+public class BatchSolver {
+    /**
+     * The number of candidates per word that are returned if no other number is asked for.
+     */
+    public static final int DEFAULT_CANDIDATE_LIMIT = 10;
+
+    private static final int PUZZLES_IN_FLIGHT_PER_THREAD = 4;
+    private static final char COMMENT_START = '#';
+
+    private final PuzzleSolver puzzleSolver;
+    private final int threadCount;
+    private final int candidateLimit;
+
+    /**
+     * Create a batch solver.
+     * @param puzzleSolver Solves the puzzles. It's shared by every worker thread.
+     * @param threadCount The number of worker threads.
+     * @param candidateLimit The maximum number of candidates to return per word.
+     * @throws IllegalArgumentException If the number of threads isn't positive.
+     */
+    public BatchSolver(final PuzzleSolver puzzleSolver,
+                       final int threadCount,
+                       final int candidateLimit) {
+        if(threadCount < 1) {
+            throw new IllegalArgumentException("At least one thread is needed");
+        }
+        this.puzzleSolver = puzzleSolver;
+        this.threadCount = threadCount;
+        this.candidateLimit = candidateLimit;
+    }
+
+    /**
+     * Solve every puzzle.
+     * @param puzzles The puzzles, one per line.
+     * @param solutions Receives one line of JSON per puzzle. It's flushed, but not closed.
+     * @return How the run went.
+     * @throws IOException If a problem occurs while reading or writing.
+     * @throws InterruptedException If the thread is interrupted while waiting for a solution.
+     */
+    public BatchReport solve(final Reader puzzles, final Writer solutions)
+            throws IOException, InterruptedException {
+        final ExecutorService workers = Executors.newFixedThreadPool(threadCount,
+                new ThreadFactoryBuilder().setNameFormat("wof-batch-%d").setDaemon(true).build());
+        try {
+            final BufferedReader puzzleReader = new BufferedReader(puzzles);
+            final Queue<Future<String>> inFlight = Queues.newArrayDeque();
+            final AtomicInteger errorCount = new AtomicInteger();
+            final long startNanos = System.nanoTime();
+            int puzzleCount = 0;
+            int lineNumber = 0;
+
+            String line;
+            while((line = puzzleReader.readLine()) != null) {
+                lineNumber++;
+                final String trimmedLine = line.trim();
+                if(trimmedLine.isEmpty() || trimmedLine.charAt(0) == COMMENT_START) {
+                    continue;
+                }
+                inFlight.add(workers.submit(new SolveTask(lineNumber, trimmedLine, errorCount)));
+                puzzleCount++;
+
+                // write out the oldest solution before reading too far ahead of it
+                if(inFlight.size() >= threadCount * PUZZLES_IN_FLIGHT_PER_THREAD) {
+                    writeSolution(inFlight.remove(), solutions);
+                }
+            }
+            while(!inFlight.isEmpty()) {
+                writeSolution(inFlight.remove(), solutions);
+            }
+            solutions.flush();
+
+            return new BatchReport(puzzleCount, errorCount.get(), System.nanoTime() - startNanos);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Wait for a solution and write it out.
+     * @param solution The solution, as a line of JSON.
+     * @param solutions Receives the solution.
+     * @throws IOException If a problem occurs while writing.
+     * @throws InterruptedException If the thread is interrupted while waiting for the solution.
+     */
+    private static void writeSolution(final Future<String> solution, final Writer solutions)
+            throws IOException, InterruptedException {
+        try {
+            solutions.write(solution.get());
+        } catch(final ExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+        solutions.write('\n');
+    }
+
+    /**
+     * Solves the puzzle on one line.
+     */
+    private class SolveTask implements Callable<String> {
+        private final int lineNumber;
+        private final String line;
+        private final AtomicInteger errorCount;
+
+        /**
+         * Create a task.
+         * @param lineNumber The number of the line, starting at 1.
+         * @param line The line.
+         * @param errorCount Counts the lines that aren't puzzles.
+         */
+        public SolveTask(final int lineNumber, final String line, final AtomicInteger errorCount) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+            this.errorCount = errorCount;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String call() {
+            final StringBuilder json = new StringBuilder("{");
+            Json.appendName(json, "line").append(lineNumber).append(',');
+            try {
+                puzzleSolver.solve(Puzzle.parse(line), candidateLimit).appendJsonMembers(json);
+            } catch(final IllegalArgumentException e) {
+                errorCount.incrementAndGet();
+                Json.appendString(Json.appendName(json, "error"), e.getMessage());
+            }
+            return json.append('}').toString();
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.marlowsoft.wofsolver.headless;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Maps;
+import com.google.common.io.Files;
+import com.google.inject.Guice;
+import com.marlowsoft.wofsolver.bind.WofModule;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Runs the solver without a display, based on command line arguments.
+ * <p>
+ * <ul>
+ *     <li>{@code --batch <file> [--threads <count>] [--limit <count>]} solves every puzzle in
+ *     a file (or standard input, if the file is {@code -}) with a {@link BatchSolver}, writing
+ *     the solutions to standard output and how the run went to standard error.</li>
+ *     <li>{@code --daemon <port> [--threads <count>] [--limit <count>]} runs a
+ *     {@link SolverDaemon} that serves clients connecting to the port on the loopback address
+ *     (any free port, if it's 0), or standard input and output if the port is {@code -}.</li>
+ *     <li>{@code --http <port> [--host <address>] [--limit <count>]} runs a
+ *     {@link SolverHttpService} on the port, on the loopback address unless another address
+ *     is asked for.</li>
+ * </ul>
+ */
+public final class HeadlessLauncher {
+    /**
+     * The exit code when everything went well.
+     */
+    public static final int EXIT_OK = 0;
+
+    /**
+     * The exit code when the arguments couldn't be understood.
+     */
+    public static final int EXIT_USAGE = 2;
+
+    private static final String BATCH_OPTION = "--batch";
+    private static final String DAEMON_OPTION = "--daemon";
+    private static final String HTTP_OPTION = "--http";
+    private static final String HOST_OPTION = "--host";
+    private static final String THREADS_OPTION = "--threads";
+    private static final String LIMIT_OPTION = "--limit";
+    private static final String STANDARD_STREAM = "-";
+    private static final String USAGE =
+            "Usage: wof-solver (--batch <file|-> | --daemon <port|-> | --http <port>) " +
+                    "[--host <address>] [--threads <count>] [--limit <count>]";
+
+    /**
+     * Private constructor; this class only has static functions.
+     */
+    private HeadlessLauncher() {
+    }
+
+    /**
+     * Determine whether or not command line arguments ask for a headless mode.
+     * @param args Arguments to the application.
+     * @return <code>true</code> if the solver should run without a display;
+     * <code>false</code> otherwise.
+     */
+    public static boolean isHeadless(final String[] args) {
+        return args.length > 0;
+    }
+
+    /**
+     * Run the headless mode the arguments ask for.
+     * @param args Arguments to the application.
+     * @param in The standard input.
+     * @param out The standard output.
+     * @param err The standard error.
+     * @return The exit code.
+     * @throws Exception If a problem occurs while running.
+     */
+    public static int launch(final String[] args,
+                             final InputStream in,
+                             final OutputStream out,
+                             final PrintStream err) throws Exception {
+        final Map<String, String> options;
+        try {
+            options = parseOptions(args);
+        } catch(final IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.println(USAGE);
+            return EXIT_USAGE;
+        }
+
+        int modeCount = 0;
+        for(final String modeOption : new String[] {BATCH_OPTION, DAEMON_OPTION, HTTP_OPTION}) {
+            modeCount += options.containsKey(modeOption) ? 1 : 0;
+        }
+        if(modeCount != 1) {
+            err.println(USAGE);
+            return EXIT_USAGE;
+        }
+
+        final int threadCount;
+        final int candidateLimit;
+        try {
+            threadCount = getIntOption(options, THREADS_OPTION,
+                    Runtime.getRuntime().availableProcessors());
+            candidateLimit = getIntOption(options, LIMIT_OPTION,
+                    BatchSolver.DEFAULT_CANDIDATE_LIMIT);
+        } catch(final NumberFormatException e) {
+            err.println(USAGE);
+            return EXIT_USAGE;
+        }
+        if(threadCount < 1 || candidateLimit < 0) {
+            err.println(USAGE);
+            return EXIT_USAGE;
+        }
+
+        final PuzzleSolver puzzleSolver =
+                Guice.createInjector(new WofModule()).getInstance(PuzzleSolver.class);
+        if(options.containsKey(BATCH_OPTION)) {
+            runBatch(new BatchSolver(puzzleSolver, threadCount, candidateLimit),
+                    options.get(BATCH_OPTION), in, out, err);
+        } else if(options.containsKey(HTTP_OPTION)) {
+            runHttpService(puzzleSolver, threadCount, candidateLimit, options, err);
+        } else {
+            final SolverDaemon solverDaemon =
+                    new SolverDaemon(puzzleSolver, threadCount, candidateLimit);
+            try {
+                runDaemon(solverDaemon, options.get(DAEMON_OPTION), in, out, err);
+            } finally {
+                solverDaemon.close();
+            }
+        }
+        return EXIT_OK;
+    }
+
+    /**
+     * Solve every puzzle in a file.
+     * @param batchSolver Solves the puzzles.
+     * @param puzzleFile The file, or {@code -} for the standard input.
+     * @param in The standard input.
+     * @param out The standard output.
+     * @param err The standard error.
+     * @throws Exception If a problem occurs while solving.
+     */
+    private static void runBatch(final BatchSolver batchSolver,
+                                 final String puzzleFile,
+                                 final InputStream in,
+                                 final OutputStream out,
+                                 final PrintStream err) throws Exception {
+        final Reader puzzles = STANDARD_STREAM.equals(puzzleFile) ?
+                new InputStreamReader(in, Charsets.UTF_8) :
+                Files.newReader(new File(puzzleFile), Charsets.UTF_8);
+        try {
+            final Writer solutions = new OutputStreamWriter(out, Charsets.UTF_8);
+            err.println(batchSolver.solve(puzzles, solutions));
+        } finally {
+            puzzles.close();
+        }
+    }
+
+    /**
+     * Answer requests until the standard input ends or, when serving a port, forever.
+     * @param solverDaemon Answers the requests.
+     * @param port The port on the loopback address, or {@code -} for the standard streams.
+     * @param in The standard input.
+     * @param out The standard output.
+     * @param err The standard error.
+     * @throws Exception If a problem occurs while serving.
+     */
+    private static void runDaemon(final SolverDaemon solverDaemon,
+                                  final String port,
+                                  final InputStream in,
+                                  final OutputStream out,
+                                  final PrintStream err) throws Exception {
+        if(STANDARD_STREAM.equals(port)) {
+            solverDaemon.serve(new InputStreamReader(in, Charsets.UTF_8),
+                    new OutputStreamWriter(out, Charsets.UTF_8));
+            return;
+        }
+
+        final ServerSocket serverSocket =
+                new ServerSocket(Integer.parseInt(port), 0, InetAddress.getLoopbackAddress());
+        try {
+            err.println("Listening on " + serverSocket.getLocalSocketAddress());
+            solverDaemon.serve(serverSocket);
+        } finally {
+            serverSocket.close();
+        }
+    }
+
+    /**
+     * Serve the solver over HTTP until the process is killed.
+     * @param puzzleSolver Solves the puzzles.
+     * @param threadCount The number of worker threads.
+     * @param candidateLimit The maximum number of candidates to return per word.
+     * @param options The value of every option, by name.
+     * @param err The standard error.
+     * @throws Exception If a problem occurs while serving.
+     */
+    private static void runHttpService(final PuzzleSolver puzzleSolver,
+                                       final int threadCount,
+                                       final int candidateLimit,
+                                       final Map<String, String> options,
+                                       final PrintStream err) throws Exception {
+        final InetAddress host = options.containsKey(HOST_OPTION) ?
+                InetAddress.getByName(options.get(HOST_OPTION)) :
+                InetAddress.getLoopbackAddress();
+        final SolverHttpService httpService = new SolverHttpService(puzzleSolver, threadCount,
+                candidateLimit,
+                new InetSocketAddress(host, Integer.parseInt(options.get(HTTP_OPTION))));
+        try {
+            httpService.start();
+            err.println("Listening on http://" + httpService.getAddress().getHostString() + ":" +
+                    httpService.getAddress().getPort() + "/");
+            new CountDownLatch(1).await();
+        } finally {
+            httpService.close();
+        }
+    }
+
+    /**
+     * Read {@code --name value} pairs.
+     * @param args Arguments to the application.
+     * @return The value of every option, by name.
+     * @throws IllegalArgumentException If an argument isn't an option or an option has no value.
+     */
+    private static Map<String, String> parseOptions(final String[] args) {
+        final Map<String, String> options = Maps.newHashMap();
+        for(int argIdx = 0; argIdx < args.length; argIdx += 2) {
+            if(!args[argIdx].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument " + args[argIdx]);
+            }
+            if(argIdx + 1 >= args.length) {
+                throw new IllegalArgumentException(args[argIdx] + " needs a value");
+            }
+            options.put(args[argIdx], args[argIdx + 1]);
+        }
+        return options;
+    }
+
+    /**
+     * Get the value of an option that is a number.
+     * @param options The value of every option, by name.
+     * @param name The name of the option.
+     * @param defaultValue The value if the option wasn't given.
+     * @return The value of the option.
+     * @throws NumberFormatException If the value isn't a number.
+     */
+    private static int getIntOption(final Map<String, String> options,
+                                    final String name,
+                                    final int defaultValue) {
+        return options.containsKey(name) ? Integer.parseInt(options.get(name)) : defaultValue;
+    }
+}
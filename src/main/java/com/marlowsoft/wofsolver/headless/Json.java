@@ -0,0 +1,99 @@
+package com.marlowsoft.wofsolver.headless;
+
+import java.util.List;
+
+/**
+ * Writes the few kinds of JSON values the headless modes put out, so that no JSON library is
+ * needed.
+ */
+final class Json {
+    /**
+     * Private constructor; this class only has static functions.
+     */
+    private Json() {
+    }
+
+    /**
+     * Append a string value, quoted and escaped.
+     * @param json Receives the value.
+     * @param value The string.
+     * @return The same builder, for chaining.
+     */
+    public static StringBuilder appendString(final StringBuilder json, final CharSequence value) {
+        json.append('"');
+        for(int charIdx = 0; charIdx < value.length(); charIdx++) {
+            final char valueChar = value.charAt(charIdx);
+            switch(valueChar) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if(valueChar < 0x20 || valueChar > 0x7e) {
+                        json.append(String.format("\\u%04x", (int)valueChar));
+                    } else {
+                        json.append(valueChar);
+                    }
+                    break;
+            }
+        }
+        return json.append('"');
+    }
+
+    /**
+     * Append an array of string values.
+     * @param json Receives the array.
+     * @param values The strings.
+     * @return The same builder, for chaining.
+     */
+    public static StringBuilder appendStrings(final StringBuilder json,
+                                              final List<String> values) {
+        json.append('[');
+        for(int valueIdx = 0; valueIdx < values.size(); valueIdx++) {
+            if(valueIdx > 0) {
+                json.append(',');
+            }
+            appendString(json, values.get(valueIdx));
+        }
+        return json.append(']');
+    }
+
+    /**
+     * Append an array of number values.
+     * @param json Receives the array.
+     * @param values The numbers.
+     * @return The same builder, for chaining.
+     */
+    public static StringBuilder appendNumbers(final StringBuilder json,
+                                              final List<? extends Number> values) {
+        json.append('[');
+        for(int valueIdx = 0; valueIdx < values.size(); valueIdx++) {
+            if(valueIdx > 0) {
+                json.append(',');
+            }
+            json.append(values.get(valueIdx));
+        }
+        return json.append(']');
+    }
+
+    /**
+     * Append the name of a member of an object, followed by its colon.
+     * @param json Receives the name.
+     * @param name The name of the member.
+     * @return The same builder, for chaining.
+     */
+    public static StringBuilder appendName(final StringBuilder json, final String name) {
+        return appendString(json, name).append(':');
+    }
+}
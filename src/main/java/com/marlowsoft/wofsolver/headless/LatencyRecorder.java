@@ -0,0 +1,77 @@
+package com.marlowsoft.wofsolver.headless;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Keeps the most recent latencies of some operation so that their percentiles can be reported.
+ * Recording a latency takes no locks, so any number of threads can record at the same time.
+ */
+public class LatencyRecorder {
+    /**
+     * The number of latencies that are kept if no other number is asked for.
+     */
+    public static final int DEFAULT_SAMPLE_SIZE = 4096;
+
+    private final AtomicLongArray samples;
+    private final AtomicLong count = new AtomicLong();
+
+    /**
+     * Create a recorder that keeps {@link #DEFAULT_SAMPLE_SIZE} latencies.
+     */
+    public LatencyRecorder() {
+        this(DEFAULT_SAMPLE_SIZE);
+    }
+
+    /**
+     * Create a recorder.
+     * @param sampleSize The number of most recent latencies to keep.
+     * @throws IllegalArgumentException If the sample size isn't positive.
+     */
+    public LatencyRecorder(final int sampleSize) {
+        if(sampleSize < 1) {
+            throw new IllegalArgumentException("At least one latency has to be kept");
+        }
+        samples = new AtomicLongArray(sampleSize);
+    }
+
+    /**
+     * Record a latency, replacing the oldest one that is kept if there's no more room.
+     * @param latencyNanos The latency, in nanoseconds.
+     */
+    public void record(final long latencyNanos) {
+        final long sampleIdx = count.getAndIncrement();
+        samples.set((int)(sampleIdx % samples.length()), latencyNanos);
+    }
+
+    /**
+     * Get the number of latencies that have ever been recorded.
+     * @return The number of latencies, including those that are no longer kept.
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Get a percentile of the latencies that are kept.
+     * @param percentile The percentile, from 0 to 100; e.g. 99 for the latency that 99% of the
+     *                   latencies are at or below.
+     * @return The latency at the percentile, in nanoseconds, or 0 if none have been recorded.
+     */
+    public long getPercentile(final double percentile) {
+        final int sampleCount = (int)Math.min(count.get(), samples.length());
+        if(sampleCount == 0) {
+            return 0L;
+        }
+        final long[] sortedSamples = new long[sampleCount];
+        for(int sampleIdx = 0; sampleIdx < sampleCount; sampleIdx++) {
+            sortedSamples[sampleIdx] = samples.get(sampleIdx);
+        }
+        Arrays.sort(sortedSamples);
+
+        // nearest rank
+        final int rank = (int)Math.ceil(percentile / 100.0 * sampleCount);
+        return sortedSamples[Math.min(sampleCount, Math.max(1, rank)) - 1];
+    }
+}
@@ -0,0 +1,166 @@
+package com.marlowsoft.wofsolver.headless;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
+import com.marlowsoft.wofsolver.dictionary.WordSearchQueryImpl;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The state of a puzzle as written on one line of text; e.g. {@code wh__l o_ _o_t_ne | rsz}.
+ * <p>
+ * Everything before the {@code |} is the board: its words are separated by spaces, every
+ * {@code _} is a blank and every other character is a letter that has been revealed. The
+ * letters after the {@code |} have been guessed and aren't on the board; the {@code |} can be
+ * left out if there are none. Letters may be in either case. This class is immutable.
+ * <p>
+ * Calling a letter reveals every one of it, so a letter that is anywhere on the board isn't
+ * at any of the blanks either.
+ */
+public final class Puzzle {
+    /**
+     * Stands in for a letter on the board that hasn't been revealed yet.
+     */
+    public static final char BLANK = '_';
+
+    /**
+     * Separates the board from the letters that aren't on it.
+     */
+    public static final char EXCLUDED_SEPARATOR = '|';
+
+    private static final String BOARD_CHARS = "abcdefghijklmnopqrstuvwxyz'-" + BLANK;
+    private static final String EXCLUDED_CHARS = "abcdefghijklmnopqrstuvwxyz";
+
+    private final List<String> wordPatterns;
+    private final Set<Character> excludedLetters;
+    private final Set<Character> revealedLetters;
+
+    /**
+     * Private constructor. Create a {@link Puzzle} with {@link #parse(String)}.
+     * @param wordPatterns The pattern of every word on the board, in lower case.
+     * @param excludedLetters The letters that aren't on the board, in lower case.
+     * @param revealedLetters The letters that are on the board, in lower case.
+     */
+    private Puzzle(final List<String> wordPatterns,
+                   final Set<Character> excludedLetters,
+                   final Set<Character> revealedLetters) {
+        this.wordPatterns = wordPatterns;
+        this.excludedLetters = excludedLetters;
+        this.revealedLetters = revealedLetters;
+    }
+
+    /**
+     * Read a puzzle from a line of text.
+     * @param line The line, in the format described by {@link Puzzle}.
+     * @return The puzzle.
+     * @throws IllegalArgumentException If the line isn't a puzzle.
+     */
+    public static Puzzle parse(final String line) {
+        final int separatorIdx = line.indexOf(EXCLUDED_SEPARATOR);
+        final String board = separatorIdx < 0 ? line : line.substring(0, separatorIdx);
+        final String excluded = separatorIdx < 0 ? "" : line.substring(separatorIdx + 1);
+
+        final ImmutableList.Builder<String> wordPatternsBuilder = ImmutableList.builder();
+        final ImmutableSortedSet.Builder<Character> revealedLettersBuilder =
+                ImmutableSortedSet.naturalOrder();
+        for(final String word : Splitter.on(' ').trimResults().omitEmptyStrings().split(board)) {
+            final String wordPattern = word.toLowerCase(Locale.ENGLISH);
+            for(int position = 0; position < wordPattern.length(); position++) {
+                if(BOARD_CHARS.indexOf(wordPattern.charAt(position)) < 0) {
+                    throw new IllegalArgumentException(
+                            "'" + word.charAt(position) + "' can't be on the board");
+                }
+                if(wordPattern.charAt(position) != BLANK) {
+                    revealedLettersBuilder.add(wordPattern.charAt(position));
+                }
+            }
+            wordPatternsBuilder.add(wordPattern);
+        }
+        final List<String> wordPatterns = wordPatternsBuilder.build();
+        if(wordPatterns.isEmpty()) {
+            throw new IllegalArgumentException("The board has no words");
+        }
+
+        final ImmutableSortedSet.Builder<Character> excludedLettersBuilder =
+                ImmutableSortedSet.naturalOrder();
+        for(final char letter : excluded.toLowerCase(Locale.ENGLISH).toCharArray()) {
+            if(Character.isWhitespace(letter) || letter == ',') {
+                continue;
+            }
+            if(EXCLUDED_CHARS.indexOf(letter) < 0) {
+                throw new IllegalArgumentException("'" + letter + "' can't be guessed");
+            }
+            excludedLettersBuilder.add(letter);
+        }
+
+        return new Puzzle(wordPatterns, excludedLettersBuilder.build(),
+                revealedLettersBuilder.build());
+    }
+
+    /**
+     * Get the pattern of every word on the board.
+     * @return The patterns, in lower case, where {@link #BLANK} stands for a letter that hasn't
+     * been revealed.
+     */
+    public List<String> getWordPatterns() {
+        return wordPatterns;
+    }
+
+    /**
+     * Get the letters that have been guessed and aren't on the board.
+     * @return The letters, in lower case.
+     */
+    public Set<Character> getExcludedLetters() {
+        return excludedLetters;
+    }
+
+    /**
+     * Get the letters that are on the board, in any word.
+     * @return The letters, in lower case.
+     */
+    public Set<Character> getRevealedLetters() {
+        return revealedLetters;
+    }
+
+    /**
+     * Get a query for every word on the board.
+     * @return The queries, in the same order as the words.
+     */
+    public List<WordSearchQueryImpl> getSearchQueries() {
+        final ImmutableList.Builder<WordSearchQueryImpl> searchQueriesBuilder =
+                ImmutableList.builder();
+        for(final String wordPattern : wordPatterns) {
+            final WordSearchQueryImpl.WordSearchQueryBuilder queryBuilder =
+                    new WordSearchQueryImpl.WordSearchQueryBuilder()
+                            .setWordLength(wordPattern.length());
+            for(int position = 0; position < wordPattern.length(); position++) {
+                if(wordPattern.charAt(position) != BLANK) {
+                    queryBuilder.addKnownLetter(position, wordPattern.charAt(position));
+                }
+            }
+            for(final Character excludedLetter : excludedLetters) {
+                queryBuilder.addUsedLetter(excludedLetter);
+            }
+            for(final Character revealedLetter : revealedLetters) {
+                queryBuilder.addRevealedLetter(revealedLetter);
+            }
+            searchQueriesBuilder.add(queryBuilder.build());
+        }
+        return searchQueriesBuilder.build();
+    }
+
+    /**
+     * Get the puzzle in the format it's read in, with its letters in lower case.
+     * @return The puzzle as a line of text.
+     */
+    @Override
+    public String toString() {
+        final String board = Joiner.on(' ').join(wordPatterns);
+        return excludedLetters.isEmpty() ? board :
+                board + " " + EXCLUDED_SEPARATOR + " " + Joiner.on("").join(excludedLetters);
+    }
+}
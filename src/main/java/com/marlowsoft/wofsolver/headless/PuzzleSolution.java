@@ -0,0 +1,78 @@
+package com.marlowsoft.wofsolver.headless;
+
+import java.util.List;
+
+/**
+ * The candidates for every word of a {@link Puzzle}. This class is immutable.
+ */
+public final class PuzzleSolution {
+    private final Puzzle puzzle;
+    private final List<List<String>> candidates;
+    private final List<Integer> candidateCounts;
+
+    /**
+     * Create a solution.
+     * @param puzzle The puzzle that was solved.
+     * @param candidates <i>Up to</i> a limited number of candidates for each word of the puzzle,
+     *                   in the same order as the words.
+     * @param candidateCounts The number of <i>all</i> candidates for each word of the puzzle.
+     */
+    public PuzzleSolution(final Puzzle puzzle,
+                          final List<List<String>> candidates,
+                          final List<Integer> candidateCounts) {
+        this.puzzle = puzzle;
+        this.candidates = candidates;
+        this.candidateCounts = candidateCounts;
+    }
+
+    /**
+     * Get the puzzle that was solved.
+     * @return The puzzle.
+     */
+    public Puzzle getPuzzle() {
+        return puzzle;
+    }
+
+    /**
+     * Get the candidates for each word of the puzzle.
+     * @return <i>Up to</i> a limited number of candidates for each word, in the same order as
+     * the words.
+     */
+    public List<List<String>> getCandidates() {
+        return candidates;
+    }
+
+    /**
+     * Get the number of candidates for each word of the puzzle.
+     * @return The number of <i>all</i> candidates for each word, which may be more than were
+     * returned.
+     */
+    public List<Integer> getCandidateCounts() {
+        return candidateCounts;
+    }
+
+    /**
+     * Append the members of the JSON object for this solution; i.e. everything between its
+     * braces. E.g.
+     * {@code "puzzle":"c__ch","words":[{"pattern":"c__ch","count":2,"candidates":[...]}]}
+     * @param json Receives the members.
+     * @return The same builder, for chaining.
+     */
+    public StringBuilder appendJsonMembers(final StringBuilder json) {
+        Json.appendString(Json.appendName(json, "puzzle"), puzzle.toString()).append(',');
+        Json.appendName(json, "words").append('[');
+        final List<String> wordPatterns = puzzle.getWordPatterns();
+        for(int wordIdx = 0; wordIdx < wordPatterns.size(); wordIdx++) {
+            if(wordIdx > 0) {
+                json.append(',');
+            }
+            json.append('{');
+            Json.appendString(Json.appendName(json, "pattern"), wordPatterns.get(wordIdx))
+                    .append(',');
+            Json.appendName(json, "count").append(candidateCounts.get(wordIdx)).append(',');
+            Json.appendStrings(Json.appendName(json, "candidates"), candidates.get(wordIdx));
+            json.append('}');
+        }
+        return json.append(']');
+    }
+}
@@ -0,0 +1,92 @@
+package com.marlowsoft.wofsolver.headless;
+
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Inject;
+import com.marlowsoft.wofsolver.dictionary.CandidateSet;
+import com.marlowsoft.wofsolver.dictionary.TieredWord;
+import com.marlowsoft.wofsolver.dictionary.TieredWordSearch;
+import com.marlowsoft.wofsolver.dictionary.WordSearch;
+import com.marlowsoft.wofsolver.dictionary.WordSearchQueryImpl;
+
+import java.util.List;
+
+/**
+ * Finds the candidates for every word of a {@link Puzzle}. Any number of threads can solve
+ * puzzles with the same solver; they all share its {@link WordSearch}.
+ */
+public class PuzzleSolver {
+    private final WordSearch wordSearch;
+    private final TieredWordSearch tieredWordSearch;
+
+    /**
+     * Create a solver whose candidates are in dictionary order.
+     * @param wordSearch Searches the dictionary.
+     */
+    public PuzzleSolver(final WordSearch wordSearch) {
+        this.wordSearch = wordSearch;
+        tieredWordSearch = null;
+    }
+
+    /**
+     * Create a solver whose candidates are the common words first, then the rest.
+     * @param wordSearch Searches the dictionary.
+     * @param tieredWordSearch Searches the common words first. Its last tier must hold the same
+     *                         words as the dictionary the word search searches.
+     */
+    @Inject
+    public PuzzleSolver(final WordSearch wordSearch, final TieredWordSearch tieredWordSearch) {
+        this.wordSearch = wordSearch;
+        this.tieredWordSearch = tieredWordSearch;
+    }
+
+    /**
+     * Solve a puzzle.
+     * @param puzzle The puzzle.
+     * @param candidateLimit The maximum number of candidates to return per word.
+     * @return The candidates for every word of the puzzle.
+     */
+    public PuzzleSolution solve(final Puzzle puzzle, final int candidateLimit) {
+        // a single pass finds every candidate, so the counts come for free
+        final ImmutableList.Builder<List<String>> candidatesBuilder = ImmutableList.builder();
+        final ImmutableList.Builder<Integer> candidateCountsBuilder = ImmutableList.builder();
+        for(final CandidateSet candidateSet :
+                wordSearch.getCandidatesBatch(puzzle.getSearchQueries())) {
+            candidatesBuilder.add(getWords(candidateSet, candidateLimit));
+            candidateCountsBuilder.add(candidateSet.getCount());
+        }
+        return new PuzzleSolution(puzzle, candidatesBuilder.build(),
+                candidateCountsBuilder.build());
+    }
+
+    /**
+     * Count the candidates for every word of a puzzle, without looking up any of them.
+     * @param puzzle The puzzle.
+     * @return The number of candidates for each word of the puzzle, in the same order as the
+     * words.
+     */
+    public List<Integer> count(final Puzzle puzzle) {
+        final ImmutableList.Builder<Integer> candidateCountsBuilder = ImmutableList.builder();
+        for(final WordSearchQueryImpl searchQuery : puzzle.getSearchQueries()) {
+            candidateCountsBuilder.add(wordSearch.countMatches(searchQuery));
+        }
+        return candidateCountsBuilder.build();
+    }
+
+    /**
+     * Get <i>up to</i> the specified number of candidates.
+     * @param candidateSet Every candidate.
+     * @param candidateLimit The maximum number of candidates to get.
+     * @return A <i>maximum</i> of the specified amount of candidates.
+     */
+    private List<String> getWords(final CandidateSet candidateSet, final int candidateLimit) {
+        if(tieredWordSearch == null) {
+            return candidateSet.getWords(candidateLimit);
+        }
+        final ImmutableList.Builder<String> wordsBuilder = ImmutableList.builder();
+        for(final TieredWord tieredWord :
+                tieredWordSearch.getMatchedWords(candidateSet, candidateLimit)) {
+            wordsBuilder.add(tieredWord.getWord());
+        }
+        return wordsBuilder.build();
+    }
+}
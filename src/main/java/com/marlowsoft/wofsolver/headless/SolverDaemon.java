@@ -0,0 +1,238 @@
+package com.marlowsoft.wofsolver.headless;
+
+import com.google.common.base.Charsets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Answers requests to solve puzzles for as long as it runs, so the dictionary is only loaded
+ * once no matter how many requests there are.
+ * <p>
+ * Requests and responses are one per line. A request is {@code <id> <command> <puzzle>}, where
+ * the id is any word the client picks and the puzzle is in the format described by
+ * {@link Puzzle}. The commands are:
+ * <ul>
+ *     <li>{@code solve}: the candidates for every word; answered with
+ *     {@code {"id":"7","puzzle":"c__ch","words":[...]}}, as for {@link BatchSolver}.</li>
+ *     <li>{@code count}: only the number of candidates for every word; answered with
+ *     {@code {"id":"8","counts":[2]}}.</li>
+ * </ul>
+ * A request that can't be answered gets {@code {"id":"9","error":"..."}}.
+ * <p>
+ * Clients don't need to wait for an answer before sending the next request. Requests are
+ * answered concurrently, on a pool of worker threads, and every response is written as soon as
+ * it's ready; so responses may come back in a different order than the requests, and the id is
+ * the way to match them up.
+ */
+public class SolverDaemon implements Closeable {
+    private static final int REQUESTS_IN_FLIGHT_PER_THREAD = 64;
+    private static final String SOLVE_COMMAND = "solve";
+    private static final String COUNT_COMMAND = "count";
+
+    private final PuzzleSolver puzzleSolver;
+    private final int candidateLimit;
+    private final int maxRequestsInFlight;
+    private final ExecutorService workers;
+    private final ExecutorService connections;
+
+    /**
+     * Create a daemon.
+     * @param puzzleSolver Solves the puzzles. It's shared by every worker thread.
+     * @param threadCount The number of worker threads.
+     * @param candidateLimit The maximum number of candidates to return per word.
+     * @throws IllegalArgumentException If the number of threads isn't positive.
+     */
+    public SolverDaemon(final PuzzleSolver puzzleSolver,
+                        final int threadCount,
+                        final int candidateLimit) {
+        if(threadCount < 1) {
+            throw new IllegalArgumentException("At least one thread is needed");
+        }
+        this.puzzleSolver = puzzleSolver;
+        this.candidateLimit = candidateLimit;
+        maxRequestsInFlight = threadCount * REQUESTS_IN_FLIGHT_PER_THREAD;
+        workers = Executors.newFixedThreadPool(threadCount,
+                new ThreadFactoryBuilder().setNameFormat("wof-daemon-%d").setDaemon(true).build());
+        connections = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                .setNameFormat("wof-daemon-connection-%d").setDaemon(true).build());
+    }
+
+    /**
+     * Answer requests until there are no more. Every request that was read has been answered
+     * by the time this returns.
+     * @param requests The requests, one per line.
+     * @param responses Receives one line of JSON per request. It's flushed after every
+     *                  response, but not closed.
+     * @throws IOException If a problem occurs while reading.
+     * @throws InterruptedException If the thread is interrupted while waiting for a response.
+     */
+    public void serve(final Reader requests, final Writer responses)
+            throws IOException, InterruptedException {
+        final BufferedReader requestReader = new BufferedReader(requests);
+        // bounds how far a client can get ahead of the responses
+        final Semaphore inFlight = new Semaphore(maxRequestsInFlight);
+        try {
+            String line;
+            while((line = requestReader.readLine()) != null) {
+                if(line.trim().isEmpty()) {
+                    continue;
+                }
+                inFlight.acquire();
+                workers.execute(new RequestTask(line, responses, inFlight));
+            }
+        } finally {
+            // wait for every response to be written
+            inFlight.acquire(maxRequestsInFlight);
+            inFlight.release(maxRequestsInFlight);
+        }
+    }
+
+    /**
+     * Answer the requests of every client that connects to a socket, until the socket is
+     * closed. Each connection is served as by {@link #serve(Reader, Writer)}, with all of the
+     * connections sharing the worker threads.
+     * @param serverSocket The socket clients connect to.
+     * @throws IOException If a problem occurs while accepting a connection.
+     */
+    public void serve(final ServerSocket serverSocket) throws IOException {
+        while(!serverSocket.isClosed()) {
+            final Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch(final SocketException e) {
+                // the socket was closed while waiting for a connection
+                if(serverSocket.isClosed()) {
+                    return;
+                }
+                throw e;
+            }
+            // responses are small and a client may be waiting on each one
+            socket.setTcpNoDelay(true);
+            connections.execute(new ConnectionTask(socket));
+        }
+    }
+
+    /**
+     * Stop the worker threads. Requests that haven't been answered yet won't be.
+     */
+    @Override
+    public void close() {
+        connections.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /**
+     * Answer a request.
+     * @param line The request.
+     * @return The response, as a line of JSON.
+     */
+    private String answer(final String line) {
+        final String[] request = line.trim().split("\\s+", 3);
+        final StringBuilder json = new StringBuilder("{");
+        Json.appendString(Json.appendName(json, "id"), request[0]).append(',');
+        try {
+            final String command = request.length > 1 ? request[1] : "";
+            final Puzzle puzzle = Puzzle.parse(request.length > 2 ? request[2] : "");
+            if(SOLVE_COMMAND.equals(command)) {
+                puzzleSolver.solve(puzzle, candidateLimit).appendJsonMembers(json);
+            } else if(COUNT_COMMAND.equals(command)) {
+                Json.appendNumbers(Json.appendName(json, "counts"), puzzleSolver.count(puzzle));
+            } else {
+                throw new IllegalArgumentException("Unknown command \"" + command + "\"");
+            }
+        } catch(final IllegalArgumentException e) {
+            Json.appendString(Json.appendName(json, "error"), e.getMessage());
+        }
+        return json.append('}').toString();
+    }
+
+    /**
+     * Answers one request and writes out the response.
+     */
+    private class RequestTask implements Runnable {
+        private final String line;
+        private final Writer responses;
+        private final Semaphore inFlight;
+
+        /**
+         * Create a task.
+         * @param line The request.
+         * @param responses Receives the response.
+         * @param inFlight Is released once the response is written.
+         */
+        public RequestTask(final String line, final Writer responses, final Semaphore inFlight) {
+            this.line = line;
+            this.responses = responses;
+            this.inFlight = inFlight;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void run() {
+            try {
+                final String response = answer(line);
+                // responses of different requests can't be interleaved
+                synchronized(responses) {
+                    responses.write(response);
+                    responses.write('\n');
+                    responses.flush();
+                }
+            } catch(final IOException e) {
+                // the client has gone away; there's no one left to tell
+            } finally {
+                inFlight.release();
+            }
+        }
+    }
+
+    /**
+     * Serves the requests of one client.
+     */
+    private class ConnectionTask implements Runnable {
+        private final Socket socket;
+
+        /**
+         * Create a task.
+         * @param socket The connection to the client.
+         */
+        public ConnectionTask(final Socket socket) {
+            this.socket = socket;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void run() {
+            try {
+                serve(new InputStreamReader(socket.getInputStream(), Charsets.UTF_8),
+                        new OutputStreamWriter(socket.getOutputStream(), Charsets.UTF_8));
+            } catch(final IOException e) {
+                // the client has gone away
+            } catch(final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                try {
+                    socket.close();
+                } catch(final IOException e) {
+                    // nothing else can be done with the connection
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package com.marlowsoft.wofsolver.headless;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Splitter;
+import com.google.common.collect.Maps;
+import com.google.common.io.CharStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves the solver over HTTP with the JDK's built-in server. Every response is JSON.
+ * <ul>
+ *     <li>{@code GET /query?puzzle=<puzzle>[&limit=<count>]}: the candidates for every word,
+ *     as {@code {"puzzle":"c__ch","words":[...]}}.</li>
+ *     <li>{@code GET /count?puzzle=<puzzle>}: the number of candidates for every word, as
+ *     {@code {"counts":[2]}}.</li>
+ *     <li>{@code POST /batch[?limit=<count>]} with one puzzle per line: the candidates for every
+ *     word of every puzzle, as {@code {"solutions":[{"puzzle":...,"words":[...]},...]}}.</li>
+ *     <li>{@code GET /stats}: the number of requests answered and the median and 99th
+ *     percentile of their latencies, as
+ *     {@code {"requests":12,"p50Micros":85,"p99Micros":410}}.</li>
+ * </ul>
+ * Puzzles are in the format described by {@link Puzzle}. A request that can't be answered
+ * gets a 400 response (405 if it uses the wrong method, 500 if answering it fails) with
+ * {@code {"error":"..."}}.
+ * <p>
+ * The server's own thread only reads each request's headers and hands the request to a pool of
+ * worker threads of fixed size. Like {@link SolverDaemon}, only a bounded number of requests
+ * may wait for a worker; once that many are waiting, further requests are turned away right
+ * away with a 503 response rather than queued without end.
+ */
+public class SolverHttpService implements Closeable {
+    private static final int HTTP_OK = HttpURLConnection.HTTP_OK;
+    private static final int HTTP_BAD_REQUEST = HttpURLConnection.HTTP_BAD_REQUEST;
+    private static final int HTTP_BAD_METHOD = HttpURLConnection.HTTP_BAD_METHOD;
+    private static final int HTTP_INTERNAL_ERROR = HttpURLConnection.HTTP_INTERNAL_ERROR;
+    private static final int HTTP_UNAVAILABLE = HttpURLConnection.HTTP_UNAVAILABLE;
+    private static final int REQUESTS_IN_FLIGHT_PER_THREAD = 64;
+    private static final String PUZZLE_PARAMETER = "puzzle";
+    private static final String LIMIT_PARAMETER = "limit";
+
+    private final PuzzleSolver puzzleSolver;
+    private final int candidateLimit;
+    private final HttpServer httpServer;
+    private final ExecutorService requestThreads;
+    private final LatencyRecorder latencyRecorder = new LatencyRecorder();
+
+    /**
+     * Create a service. It doesn't accept any requests until it's started.
+     * @param puzzleSolver Solves the puzzles. It's shared by every request.
+     * @param threadCount The number of worker threads.
+     * @param candidateLimit The maximum number of candidates to return per word, unless a
+     *                       request asks for another number.
+     * @param address The address to listen on. A port of 0 picks any free port.
+     * @throws IOException If the address can't be listened on.
+     * @throws IllegalArgumentException If the number of threads isn't positive.
+     */
+    public SolverHttpService(final PuzzleSolver puzzleSolver,
+                             final int threadCount,
+                             final int candidateLimit,
+                             final InetSocketAddress address) throws IOException {
+        if(threadCount < 1) {
+            throw new IllegalArgumentException("At least one thread is needed");
+        }
+        this.puzzleSolver = puzzleSolver;
+        this.candidateLimit = candidateLimit;
+
+        // the server's own thread runs the handlers, which hand the requests to the workers
+        httpServer = HttpServer.create(address, 0);
+        requestThreads = new ThreadPoolExecutor(threadCount, threadCount,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(threadCount * REQUESTS_IN_FLIGHT_PER_THREAD),
+                new ThreadFactoryBuilder().setNameFormat("wof-http-%d").setDaemon(true).build());
+
+        httpServer.createContext("/query", new SolverHandler("GET") {
+            @Override
+            protected void answer(final HttpExchange exchange,
+                                  final Map<String, String> parameters,
+                                  final StringBuilder json) {
+                puzzleSolver.solve(getPuzzle(parameters), getCandidateLimit(parameters))
+                        .appendJsonMembers(json);
+            }
+        });
+        httpServer.createContext("/count", new SolverHandler("GET") {
+            @Override
+            protected void answer(final HttpExchange exchange,
+                                  final Map<String, String> parameters,
+                                  final StringBuilder json) {
+                Json.appendNumbers(Json.appendName(json, "counts"),
+                        puzzleSolver.count(getPuzzle(parameters)));
+            }
+        });
+        httpServer.createContext("/batch", new SolverHandler("POST") {
+            @Override
+            protected void answer(final HttpExchange exchange,
+                                  final Map<String, String> parameters,
+                                  final StringBuilder json) throws IOException {
+                final List<String> lines = CharStreams.readLines(
+                        new InputStreamReader(exchange.getRequestBody(), Charsets.UTF_8));
+                final int batchCandidateLimit = getCandidateLimit(parameters);
+
+                Json.appendName(json, "solutions").append('[');
+                boolean firstSolution = true;
+                for(final String line : lines) {
+                    if(line.trim().isEmpty()) {
+                        continue;
+                    }
+                    if(!firstSolution) {
+                        json.append(',');
+                    }
+                    firstSolution = false;
+                    json.append('{');
+                    puzzleSolver.solve(Puzzle.parse(line), batchCandidateLimit)
+                            .appendJsonMembers(json);
+                    json.append('}');
+                }
+                json.append(']');
+            }
+        });
+        httpServer.createContext("/stats", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                final StringBuilder json = new StringBuilder("{");
+                Json.appendName(json, "requests").append(latencyRecorder.getCount()).append(',');
+                Json.appendName(json, "p50Micros")
+                        .append(TimeUnit.NANOSECONDS.toMicros(latencyRecorder.getPercentile(50)))
+                        .append(',');
+                Json.appendName(json, "p99Micros")
+                        .append(TimeUnit.NANOSECONDS.toMicros(latencyRecorder.getPercentile(99)));
+                sendJson(exchange, HTTP_OK, json.append('}'));
+            }
+        });
+    }
+
+    /**
+     * Start accepting requests.
+     */
+    public void start() {
+        httpServer.start();
+    }
+
+    /**
+     * Get the address the service listens on.
+     * @return The address, with the port that was picked if any free port was asked for.
+     */
+    public InetSocketAddress getAddress() {
+        return httpServer.getAddress();
+    }
+
+    /**
+     * Get the latencies of the requests that have been answered, not counting requests for
+     * the stats.
+     * @return The latencies.
+     */
+    public LatencyRecorder getLatencyRecorder() {
+        return latencyRecorder;
+    }
+
+    /**
+     * Stop accepting requests, without waiting for those in flight.
+     */
+    @Override
+    public void close() {
+        httpServer.stop(0);
+        requestThreads.shutdownNow();
+    }
+
+    /**
+     * Get the puzzle a request asks about.
+     * @param parameters The parameters of the request.
+     * @return The puzzle.
+     * @throws IllegalArgumentException If there's no puzzle or it can't be read.
+     */
+    private static Puzzle getPuzzle(final Map<String, String> parameters) {
+        if(!parameters.containsKey(PUZZLE_PARAMETER)) {
+            throw new IllegalArgumentException("The puzzle parameter is missing");
+        }
+        return Puzzle.parse(parameters.get(PUZZLE_PARAMETER));
+    }
+
+    /**
+     * Get the number of candidates per word a request asks for.
+     * @param parameters The parameters of the request.
+     * @return The number of candidates.
+     * @throws IllegalArgumentException If the number can't be read.
+     */
+    private int getCandidateLimit(final Map<String, String> parameters) {
+        if(!parameters.containsKey(LIMIT_PARAMETER)) {
+            return candidateLimit;
+        }
+        final int requestedLimit = Integer.parseInt(parameters.get(LIMIT_PARAMETER));
+        if(requestedLimit < 0) {
+            throw new IllegalArgumentException("The limit can't be negative");
+        }
+        return requestedLimit;
+    }
+
+    /**
+     * Read the parameters of the query string of a request.
+     * @param exchange The request.
+     * @return The value of every parameter, by name.
+     * @throws IllegalArgumentException If the query string can't be decoded.
+     */
+    private static Map<String, String> getParameters(final HttpExchange exchange) {
+        final Map<String, String> parameters = Maps.newHashMap();
+        final String query = exchange.getRequestURI().getRawQuery();
+        if(query == null) {
+            return parameters;
+        }
+        try {
+            for(final String parameter : Splitter.on('&').omitEmptyStrings().split(query)) {
+                final int equalsIdx = parameter.indexOf('=');
+                final String name = equalsIdx < 0 ? parameter : parameter.substring(0, equalsIdx);
+                final String value = equalsIdx < 0 ? "" : parameter.substring(equalsIdx + 1);
+                parameters.put(URLDecoder.decode(name, Charsets.UTF_8.name()),
+                        URLDecoder.decode(value, Charsets.UTF_8.name()));
+            }
+        } catch(final UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+        return parameters;
+    }
+
+    /**
+     * Send a JSON response and close the exchange.
+     * @param exchange The request.
+     * @param status The HTTP status code.
+     * @param json The body of the response.
+     * @throws IOException If a problem occurs while sending.
+     */
+    private static void sendJson(final HttpExchange exchange,
+                                 final int status,
+                                 final CharSequence json) throws IOException {
+        final byte[] body = json.toString().getBytes(Charsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        final OutputStream responseBody = exchange.getResponseBody();
+        try {
+            responseBody.write(body);
+        } finally {
+            responseBody.close();
+        }
+    }
+
+    /**
+     * Send a JSON error response and close the exchange.
+     * @param exchange The request.
+     * @param status The HTTP status code.
+     * @param message Describes the error.
+     * @throws IOException If a problem occurs while sending.
+     */
+    private static void sendError(final HttpExchange exchange,
+                                  final int status,
+                                  final String message) throws IOException {
+        final StringBuilder json = new StringBuilder("{");
+        Json.appendString(Json.appendName(json, "error"), message);
+        sendJson(exchange, status, json.append('}'));
+    }
+
+    /**
+     * Answers a request with a JSON object on a worker thread and records how long it took.
+     */
+    private abstract class SolverHandler implements HttpHandler {
+        private final String method;
+
+        /**
+         * Create a handler.
+         * @param method The only method the handler answers.
+         */
+        public SolverHandler(final String method) {
+            this.method = method;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void handle(final HttpExchange exchange) throws IOException {
+            final long startNanos = System.nanoTime();
+            if(!method.equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", method);
+                sendError(exchange, HTTP_BAD_METHOD, "Only " + method + " is supported");
+                return;
+            }
+            try {
+                requestThreads.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        respond(exchange, startNanos);
+                    }
+                });
+            } catch(final RejectedExecutionException e) {
+                sendError(exchange, HTTP_UNAVAILABLE, "Too many requests are in flight");
+            }
+        }
+
+        /**
+         * Answer a request and close the exchange, whatever happens.
+         * @param exchange The request.
+         * @param startNanos The {@link System#nanoTime()} the request was handed over at.
+         */
+        private void respond(final HttpExchange exchange, final long startNanos) {
+            final StringBuilder json = new StringBuilder("{");
+            int status = HTTP_OK;
+            try {
+                try {
+                    answer(exchange, getParameters(exchange), json);
+                } catch(final IllegalArgumentException e) {
+                    status = HTTP_BAD_REQUEST;
+                    json.setLength(1);
+                    Json.appendString(Json.appendName(json, "error"),
+                            String.valueOf(e.getMessage()));
+                } catch(final RuntimeException e) {
+                    status = HTTP_INTERNAL_ERROR;
+                    json.setLength(1);
+                    Json.appendString(Json.appendName(json, "error"), e.toString());
+                }
+                sendJson(exchange, status, json.append('}'));
+                latencyRecorder.record(System.nanoTime() - startNanos);
+            } catch(final IOException e) {
+                // the client has gone away; there's nobody to tell
+            } finally {
+                exchange.close();
+            }
+        }
+
+        /**
+         * Answer a request.
+         * @param exchange The request.
+         * @param parameters The parameters of the query string of the request.
+         * @param json Receives the members of the JSON object to respond with.
+         * @throws IOException If a problem occurs while reading the request.
+         * @throws IllegalArgumentException If the request can't be answered.
+         */
+        protected abstract void answer(HttpExchange exchange,
+                                       Map<String, String> parameters,
+                                       StringBuilder json) throws IOException;
+    }
+}
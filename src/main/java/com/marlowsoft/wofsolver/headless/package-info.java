@@ -0,0 +1,4 @@
+/**
+ * Contains the modes that run the solver without a display, for scripts and pipelines.
+ */
+package com.marlowsoft.wofsolver.headless;
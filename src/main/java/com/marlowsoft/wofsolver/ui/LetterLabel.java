@@ -1,6 +1,7 @@
 package com.marlowsoft.wofsolver.ui;
 
-import com.marlowsoft.wofsolver.ui.event.BlockValueChangedDispatcher;
+import com.marlowsoft.wofsolver.ui.event.BoardEventBus;
+import com.marlowsoft.wofsolver.ui.event.LetterGuessChangedEvent;
 
 import javax.swing.*;
 import java.awt.*;
@@ -13,6 +14,8 @@ public class LetterLabel extends JLabel {
     private static final Color unusedLetterColor = new Color(20, 20, 20);
     private static final float FONT_SIZE = 18;
     private final JMenuItem guessMenuItem;
+    private final char letter;
+    private BoardEventBus eventBus;
     private static final String LETTER_GUESSED_CORRECTLY = "Letter was guessed correctly";
     private static final String MARK_AS_INCORRECT = "Mark as incorrect guess";
     private static final String UNMARK_AS_INCORRECT = "Un-mark as incorrect guess";
@@ -33,6 +36,7 @@ public class LetterLabel extends JLabel {
      * @param letter The letter for this label.
      */
     public LetterLabel(final char letter) {
+        this.letter = letter;
         guessType = GuessType.NONE;
 
         setForeground(unusedLetterColor);
@@ -44,6 +48,15 @@ public class LetterLabel extends JLabel {
         setComponentPopupMenu(popupMenu);
     }
 
+    /**
+     * Post an event to the specified bus whenever the letter is marked or un-marked as an
+     * incorrect guess from the context menu.
+     * @param eventBus The bus of the board this label is on.
+     */
+    public void setEventBus(final BoardEventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
     /**
      * Get the type of guess.
      * @return The type of guess.
@@ -112,9 +125,12 @@ public class LetterLabel extends JLabel {
                     setGuessType(GuessType.NONE);
                     break;
                 default:
-                    break;
+                    return;
+            }
+            if(eventBus != null) {
+                eventBus.post(new LetterGuessChangedEvent(letter,
+                        getGuessType() == GuessType.INCORRECT));
             }
-            BlockValueChangedDispatcher.dispatchOnBlockCharChanged();
         }
     }
 }
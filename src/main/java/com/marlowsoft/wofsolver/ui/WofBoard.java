@@ -1,7 +1,13 @@
 package com.marlowsoft.wofsolver.ui;
 
 import com.google.common.collect.*;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Injector;
+import com.marlowsoft.wofsolver.dictionary.CandidateSet;
+import com.marlowsoft.wofsolver.dictionary.LetterAdvice;
+import com.marlowsoft.wofsolver.dictionary.LetterAdvisor;
+import com.marlowsoft.wofsolver.dictionary.TieredWord;
+import com.marlowsoft.wofsolver.dictionary.TieredWordSearch;
 import com.marlowsoft.wofsolver.dictionary.WordSearch;
 import com.marlowsoft.wofsolver.dictionary.WordSearchQueryImpl;
 import com.marlowsoft.wofsolver.ui.event.*;
@@ -11,13 +17,32 @@ import java.awt.*;
 import java.awt.event.*;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Main dialog of the application.
  * Displays a collection of {@link WofBoardBlocks}
  * and allows for user input.
+ * <p>
+ * Suggestions are searched for on a background thread, never on the event dispatch thread.
+ * The common words that could be a word are suggested first, then any others.
+ * Every change to the board starts a new generation of suggestions; the search waits a moment
+ * in case more changes follow, and results are only shown if no newer generation has started
+ * in the meantime.
+ * <p>
+ * The board has its own {@link BoardEventBus}. Only the words with a block that changed are
+ * searched again, unless a letter was marked or un-marked as an incorrect guess or a letter
+ * was revealed in, or taken off of, the board as a whole.
+ * <p>
+ * Under the used letters, the board recommends the letter to call next. It's worked out in the
+ * background along with the suggestions, from the candidates of every word.
  */
-public class WofBoard extends JDialog implements BlockValueChangedListener {
+public class WofBoard extends JDialog implements BoardEventListener {
     private JPanel contentPane;
     private JPanel gameBoardPane;
     private JPanel usedLettersPane;
@@ -29,10 +54,23 @@ public class WofBoard extends JDialog implements BlockValueChangedListener {
     private final WofBoardBlocks boardBlocks;
     private final WofBoardBlocks suggestedBoardBlocks;
     private final WordSearch wordSearch;
+    private final TieredWordSearch tieredWordSearch;
     private final Map<Character, LetterLabel> letterLabels;
+    private final BoardEventBus eventBus;
+    private final Multiset<Character> lettersOnBoard;
     private List<WofBoardWord> boardWords;
+    private Map<Integer, WofBoardWord> boardWordsByBlock;
+    private final Set<WofBoardWord> changedBoardWords;
+    private Map<WofBoardWord, CandidateSet> candidateSets;
+    private final ScheduledExecutorService suggestionExecutor;
+    private final AtomicLong suggestionGeneration;
+    private ScheduledFuture<?> pendingSuggestions;
+    private final ExecutorService adviceExecutor;
+    private final LetterAdvisor letterAdvisor;
+    private final JLabel adviceLabel;
 
     private final static int WORD_SEARCH_LIMIT = 10;
+    private final static int SUGGESTION_DEBOUNCE_MILLIS = 50;
     private final static int TOOLTIP_INIT_DELAY = 0;
     private final static int TOOLTIP_TIMEOUT = 30000;
 
@@ -59,7 +97,21 @@ public class WofBoard extends JDialog implements BlockValueChangedListener {
         suggestedBoardBlocks.addBlocksToPanel(suggestedSolutionPane);
 
         wordSearch = injector.getInstance(WordSearch.class);
+        tieredWordSearch = injector.getInstance(TieredWordSearch.class);
+        eventBus = new BoardEventBus();
+        boardBlocks.setEventBus(eventBus);
+        lettersOnBoard = HashMultiset.create();
         boardWords = ImmutableList.of();
+        boardWordsByBlock = ImmutableMap.of();
+        changedBoardWords = Sets.newLinkedHashSet();
+        candidateSets = Maps.newHashMap();
+        // one thread, so the candidate sets are only ever touched by one search at a time
+        suggestionExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("wof-suggestions").setDaemon(true).build());
+        suggestionGeneration = new AtomicLong();
+        adviceExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                new ThreadFactoryBuilder().setNameFormat("wof-advice-%d").setDaemon(true).build());
+        letterAdvisor = new LetterAdvisor(adviceExecutor);
 
         boardBlocks.setBlocksEditable(false);
 
@@ -76,77 +128,216 @@ public class WofBoard extends JDialog implements BlockValueChangedListener {
             constraints.gridx = curChar - 'A';
             final LetterLabel letterLabel = new LetterLabel(curChar);
             letterLabel.setEnabled(false);
+            letterLabel.setEventBus(eventBus);
             usedLettersPane.add(letterLabel, constraints);
             letterLabelsBuilder.put(curChar, letterLabel);
         }
         letterLabels = letterLabelsBuilder.build();
 
+        // the recommendation goes right under the letters
+        adviceLabel = new JLabel(" ");
+        constraints.gridx = 0;
+        constraints.gridy = 2;
+        constraints.gridwidth = letterLabels.size();
+        usedLettersPane.add(adviceLabel, constraints);
+
         buttonStart.addActionListener(new StartGameActionListener());
         buttonResetBoard.addActionListener(new ResetBoardActionListener());
         buttonHelp.addActionListener(new HelpActionListener());
+        eventBus.addListener(this);
+    }
+
+    /**
+     * Get the bus the events of this board are posted to.
+     * @return The bus.
+     */
+    public BoardEventBus getEventBus() {
+        return eventBus;
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
+    public void onBoardEvents(final List<BoardEvent> events) {
+        final Set<Character> changedLetters = Sets.newHashSet();
+        final Set<Character> previouslyRevealedLetters =
+                ImmutableSet.copyOf(lettersOnBoard.elementSet());
+        boolean guessesChanged = false;
+        for(final BoardEvent event : events) {
+            if(event instanceof BlockValueChangedEvent) {
+                final BlockValueChangedEvent blockEvent = (BlockValueChangedEvent)event;
+                if(!blockEvent.getOldValue().isEmpty()) {
+                    lettersOnBoard.remove(blockEvent.getOldValue().charAt(0));
+                    changedLetters.add(blockEvent.getOldValue().charAt(0));
+                }
+                if(!blockEvent.getNewValue().isEmpty()) {
+                    lettersOnBoard.add(blockEvent.getNewValue().charAt(0));
+                    changedLetters.add(blockEvent.getNewValue().charAt(0));
+                }
+                final WofBoardWord boardWord = boardWordsByBlock.get(
+                        getBlockKey(blockEvent.getRow(), blockEvent.getColumn()));
+                if(boardWord != null) {
+                    changedBoardWords.add(boardWord);
+                }
+            } else if(event instanceof LetterGuessChangedEvent) {
+                guessesChanged = true;
+            }
+        }
+
+        updateLetterLabels(changedLetters);
+        // an incorrect guess, or a letter that is revealed for the first time or not at all
+        // anymore, rules out words everywhere on the board
+        if(guessesChanged || !previouslyRevealedLetters.equals(lettersOnBoard.elementSet())) {
+            changedBoardWords.addAll(boardWords);
+        }
+        scheduleSuggestions();
+    }
+
+    /**
+     * Look at every block on the board again and search for suggestions for every word,
+     * as if every block had just changed. Events that are still waiting on the bus are delivered
+     * first, so none of them is counted again once the blocks have been looked at.
+     * @throws IllegalStateException If it isn't called on the event dispatch thread.
+     */
     public void onBlockValueChanged() {
-        // for any used characters on the board, mark them as correct
-        for(final Character usedChar : boardBlocks.getUsedCharsOnBoard()) {
-            letterLabels.get(usedChar).setGuessType(LetterLabel.GuessType.CORRECT);
+        if(!SwingUtilities.isEventDispatchThread()) {
+            throw new IllegalStateException(
+                    "The board can only be looked at on the event dispatch thread");
         }
+        // the blocks are posted to on this thread too, so nothing can be posted in between
+        eventBus.flush();
 
-        // for any unused characters that haven't been marked as incorrect, mark them as none
-        for(final Character unusedChar : boardBlocks.getUnusedCharsOnBoard()) {
-            final LetterLabel letterLabel = letterLabels.get(unusedChar);
-            if(letterLabel.getGuessType() != LetterLabel.GuessType.INCORRECT) {
+        lettersOnBoard.clear();
+        for(final WofBoardBlock boardBlock : boardBlocks) {
+            if(!boardBlock.getText().isEmpty()) {
+                lettersOnBoard.add(boardBlock.getText().charAt(0));
+            }
+        }
+        updateLetterLabels(letterLabels.keySet());
+
+        changedBoardWords.addAll(boardWords);
+        scheduleSuggestions();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void dispose() {
+        suggestionExecutor.shutdownNow();
+        adviceExecutor.shutdownNow();
+        super.dispose();
+    }
+
+    /**
+     * Mark letters as correct if they're on the board, or as not guessed if they aren't and
+     * haven't been marked as incorrect.
+     * @param letters The letters to mark.
+     */
+    private void updateLetterLabels(final Collection<Character> letters) {
+        for(final Character letter : letters) {
+            // apostrophes and hyphens don't have a label
+            final LetterLabel letterLabel = letterLabels.get(letter);
+            if(letterLabel == null) {
+                continue;
+            }
+            if(lettersOnBoard.contains(letter)) {
+                letterLabel.setGuessType(LetterLabel.GuessType.CORRECT);
+            } else if(letterLabel.getGuessType() != LetterLabel.GuessType.INCORRECT) {
                 letterLabel.setGuessType(LetterLabel.GuessType.NONE);
             }
         }
+    }
 
-        // find suggestions for every word
-        for(final WofBoardWord boardWord : boardWords) {
-            final List<String> wordSearchResults =
-                    getSuggestedWords(boardWord, WORD_SEARCH_LIMIT);
-
-            boardWord.setSuggestedWords(wordSearchResults,
-                    wordSearchResults.size() == WORD_SEARCH_LIMIT);
-
-            // if there's only one suggestion, then fill in the word in the suggested pane.
-            if(wordSearchResults.size() == 1) {
-                // since this is in a block that is already in an event handler,
-                // an invokeLater is needed to call setText in the boardblock.
-                SwingUtilities.invokeLater(new Runnable() {
-                    @Override
-                    public void run() {
-                        final String suggestedWord = wordSearchResults.get(0);
-                        int suggestedWordIdx = 0;
-                        final int row = boardWord.getRow();
-                        final int column = boardWord.getColumn();
-
-                        for(int curColumn = column;
-                            curColumn < column + boardWord.getLength();
-                            curColumn++, suggestedWordIdx++) {
-                            final WofBoardBlock boardBlock =
-                                    suggestedBoardBlocks.getBlock(row, curColumn);
-                            boardBlock.setText(suggestedWord.substring(suggestedWordIdx,
-                                    suggestedWordIdx + 1));
-                        }
-                    }
-                });
+    /**
+     * Search for suggestions for every word that has changed since its suggestions were last
+     * shown, in the background after a short wait, replacing any search that hasn't started
+     * yet. Results of any earlier search won't be shown.
+     */
+    private void scheduleSuggestions() {
+        if(changedBoardWords.isEmpty()) {
+            return;
+        }
+
+        // the board can only be read here; the searching happens in the background
+        final List<Character> incorrectLetters = getIncorrectLetterGuesses();
+        final Set<Character> revealedLetters = ImmutableSet.copyOf(lettersOnBoard.elementSet());
+        final ImmutableMap.Builder<WofBoardWord, WordSearchQueryImpl> searchQueriesBuilder =
+                ImmutableMap.builder();
+        for(final WofBoardWord boardWord : changedBoardWords) {
+            searchQueriesBuilder.put(boardWord, getSearchQuery(boardWord, incorrectLetters,
+                    revealedLetters));
+        }
+
+        final long generation = suggestionGeneration.incrementAndGet();
+        if(pendingSuggestions != null) {
+            pendingSuggestions.cancel(false);
+        }
+        pendingSuggestions = suggestionExecutor.schedule(
+                new SuggestionTask(generation, searchQueriesBuilder.build(), candidateSets,
+                        getUnguessedLetters()),
+                SUGGESTION_DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Get the key of a block in {@link #boardWordsByBlock}.
+     * @param row The row of the block.
+     * @param column The column of the block.
+     * @return The key.
+     */
+    private static int getBlockKey(final int row, final int column) {
+        return row * WofBoardBlocks.COLUMN_COUNT + column;
+    }
+
+    /**
+     * Drop any suggestions that are being searched for, along with every candidate set.
+     */
+    private void discardSuggestions() {
+        suggestionGeneration.incrementAndGet();
+        changedBoardWords.clear();
+        // a search that is running keeps the old candidate sets to itself
+        candidateSets = Maps.newHashMap();
+    }
+
+    /**
+     * Show the suggestions for a word.
+     * @param boardWord The word on the board.
+     * @param suggestedWords <i>Up to</i> {@link #WORD_SEARCH_LIMIT} words that could be the word.
+     * @param candidateCount The number of <i>all</i> words that could be the word.
+     */
+    private void showSuggestions(final WofBoardWord boardWord,
+                                 final List<String> suggestedWords,
+                                 final int candidateCount) {
+        boardWord.setSuggestedWords(suggestedWords, candidateCount);
+
+        // if there's only one suggestion, then fill in the word in the suggested pane.
+        if(suggestedWords.size() == 1) {
+            final String suggestedWord = suggestedWords.get(0);
+            int suggestedWordIdx = 0;
+            final int row = boardWord.getRow();
+            final int column = boardWord.getColumn();
+
+            for(int curColumn = column;
+                curColumn < column + boardWord.getLength();
+                curColumn++, suggestedWordIdx++) {
+                final WofBoardBlock boardBlock = suggestedBoardBlocks.getBlock(row, curColumn);
+                boardBlock.setText(suggestedWord.substring(suggestedWordIdx,
+                        suggestedWordIdx + 1));
             }
         }
     }
 
     /**
-     * Get suggested words based on the specified board word.
+     * Create the query for the words that could be the specified board word.
      * @param wofBoardWord The board word to search with.
-     * @param suggestionLimit The maximum amount of words to return.
-     * @return Suggested words. This collection's maximum length will be
-     * the specified suggestion limit.
+     * @param incorrectLetters All characters marked as "incorrect guess".
+     * @param revealedLetters All characters anywhere on the board.
+     * @return The query.
      */
-    private List<String> getSuggestedWords(final WofBoardWord wofBoardWord,
-                                                    final int suggestionLimit) {
+    private static WordSearchQueryImpl getSearchQuery(final WofBoardWord wofBoardWord,
+                                                      final List<Character> incorrectLetters,
+                                                      final Set<Character> revealedLetters) {
         final WordSearchQueryImpl.WordSearchQueryBuilder queryBuilder =
                 new WordSearchQueryImpl.WordSearchQueryBuilder();
 
@@ -160,12 +351,38 @@ public class WofBoard extends JDialog implements BlockValueChangedListener {
         }
 
         // set all incorrect guesses
-        for(final Character incorrectChar : getIncorrectLetterGuesses()) {
+        for(final Character incorrectChar : incorrectLetters) {
             queryBuilder.addUsedLetter(incorrectChar);
         }
 
-        // let's find some words!
-        return wordSearch.getMatchedWords(queryBuilder.build(), suggestionLimit);
+        // every one of a letter is revealed at once, so none of them are in the blanks
+        for(final Character revealedChar : revealedLetters) {
+            queryBuilder.addRevealedLetter(revealedChar);
+        }
+
+        return queryBuilder.build();
+    }
+
+    /**
+     * Get the words that could be the specified board word.
+     * @param gameCandidateSets The candidate set of every board word, from earlier searches.
+     * @param wofBoardWord The board word to search with.
+     * @param searchQuery The query for the board word.
+     * @return The words that could be the board word.
+     */
+    private CandidateSet getCandidateSet(final Map<WofBoardWord, CandidateSet> gameCandidateSets,
+                                         final WofBoardWord wofBoardWord,
+                                         final WordSearchQueryImpl searchQuery) {
+        // let's find some words! the previous candidates only need to be narrowed down,
+        // unless a letter was taken off the board or unmarked
+        final CandidateSet candidateSet = gameCandidateSets.get(wofBoardWord);
+        if(candidateSet == null) {
+            final CandidateSet newCandidateSet = wordSearch.getCandidates(searchQuery);
+            gameCandidateSets.put(wofBoardWord, newCandidateSet);
+            return newCandidateSet;
+        }
+        candidateSet.refine(searchQuery);
+        return candidateSet;
     }
 
     /**
@@ -209,6 +426,53 @@ public class WofBoard extends JDialog implements BlockValueChangedListener {
         return boardWordBuilder.build();
     }
 
+    /**
+     * Find the word every block on the board is a part of.
+     * @param wofBoardWords Every word on the board.
+     * @return The word every block is a part of, by {@link #getBlockKey(int, int)}. Blocks that
+     * aren't part of a word aren't in it.
+     */
+    private static Map<Integer, WofBoardWord> getBoardWordsByBlock(
+            final List<WofBoardWord> wofBoardWords) {
+        final ImmutableMap.Builder<Integer, WofBoardWord> boardWordsBuilder =
+                ImmutableMap.builder();
+        for(final WofBoardWord boardWord : wofBoardWords) {
+            for(int curColumn = boardWord.getColumn();
+                curColumn < boardWord.getColumn() + boardWord.getLength();
+                curColumn++) {
+                boardWordsBuilder.put(getBlockKey(boardWord.getRow(), curColumn), boardWord);
+            }
+        }
+        return boardWordsBuilder.build();
+    }
+
+    /**
+     * Gets all characters that haven't been guessed, correctly or not, from the collection of
+     * letter labels.
+     * @return All characters that haven't been guessed.
+     */
+    private List<Character> getUnguessedLetters() {
+        final ImmutableList.Builder<Character> unguessedLettersBuilder = ImmutableList.builder();
+        for(final Map.Entry<Character, LetterLabel> letterLabelEntry : letterLabels.entrySet()) {
+            if(letterLabelEntry.getValue().getGuessType() == LetterLabel.GuessType.NONE) {
+                unguessedLettersBuilder.add(letterLabelEntry.getKey());
+            }
+        }
+        return unguessedLettersBuilder.build();
+    }
+
+    /**
+     * Show the letter to call next.
+     * @param letterAdvice The advice for every letter that could be called, the best first.
+     */
+    private void showAdvice(final List<LetterAdvice> letterAdvice) {
+        if(letterAdvice.isEmpty() || letterAdvice.get(0).getExpectedInformation() <= 0.0) {
+            adviceLabel.setText(" ");
+            return;
+        }
+        adviceLabel.setText("Call next: " + letterAdvice.get(0));
+    }
+
     /**
      * Gets all characters marked as "incorrect guess" from the collection of letter labels.
      * @return All characters marked as "incorrect guess".
@@ -227,6 +491,92 @@ public class WofBoard extends JDialog implements BlockValueChangedListener {
         return incorrectLettersBuilder.build();
     }
 
+    /**
+     * Searches for the suggestions of every word on the board and works out the letter to call
+     * next, then shows them on the event dispatch thread unless the board has changed since.
+     */
+    private class SuggestionTask implements Runnable {
+        private final long generation;
+        private final Map<WofBoardWord, WordSearchQueryImpl> searchQueries;
+        private final Map<WofBoardWord, CandidateSet> gameCandidateSets;
+        private final List<Character> unguessedLetters;
+
+        /**
+         * Create a task.
+         * @param generation The generation of the suggestions.
+         * @param searchQueries The query of every word on the board.
+         * @param gameCandidateSets The candidate set of every board word, from earlier searches.
+         * @param unguessedLetters The letters that could be called next.
+         */
+        public SuggestionTask(final long generation,
+                              final Map<WofBoardWord, WordSearchQueryImpl> searchQueries,
+                              final Map<WofBoardWord, CandidateSet> gameCandidateSets,
+                              final List<Character> unguessedLetters) {
+            this.generation = generation;
+            this.searchQueries = searchQueries;
+            this.gameCandidateSets = gameCandidateSets;
+            this.unguessedLetters = unguessedLetters;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void run() {
+            final List<WofBoardWord> suggestedBoardWords = Lists.newArrayList();
+            final List<List<String>> suggestedWords = Lists.newArrayList();
+            final List<Integer> candidateCounts = Lists.newArrayList();
+            for(final Map.Entry<WofBoardWord, WordSearchQueryImpl> searchQuery :
+                    searchQueries.entrySet()) {
+                // no need to finish once the board has changed again
+                if(generation != suggestionGeneration.get()) {
+                    return;
+                }
+                final CandidateSet candidateSet = getCandidateSet(gameCandidateSets,
+                        searchQuery.getKey(), searchQuery.getValue());
+                suggestedBoardWords.add(searchQuery.getKey());
+                // the common words are the most likely answers
+                final List<String> words = Lists.newArrayList();
+                for(final TieredWord tieredWord :
+                        tieredWordSearch.getMatchedWords(candidateSet, WORD_SEARCH_LIMIT)) {
+                    words.add(tieredWord.getWord());
+                }
+                suggestedWords.add(words);
+                // counting the candidates doesn't need any of the words
+                candidateCounts.add(candidateSet.getCount());
+            }
+
+            // every word counts towards the advice, not just the ones that were searched again;
+            // the advisor reads the candidates straight from the dictionary
+            if(generation != suggestionGeneration.get()) {
+                return;
+            }
+            final List<LetterAdvice> letterAdvice;
+            try {
+                letterAdvice = letterAdvisor.advise(gameCandidateSets.values(), unguessedLetters);
+            } catch(final InterruptedException e) {
+                // the board is going away
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            SwingUtilities.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    if(generation != suggestionGeneration.get()) {
+                        return;
+                    }
+                    for(int wordIdx = 0; wordIdx < suggestedBoardWords.size(); wordIdx++) {
+                        showSuggestions(suggestedBoardWords.get(wordIdx),
+                                suggestedWords.get(wordIdx), candidateCounts.get(wordIdx));
+                    }
+                    changedBoardWords.removeAll(suggestedBoardWords);
+                    showAdvice(letterAdvice);
+                }
+            });
+        }
+    }
+
     /**
      * Listener for clicking on the "Reset Board" button.
      */
@@ -242,6 +592,8 @@ public class WofBoard extends JDialog implements BlockValueChangedListener {
                     JOptionPane.YES_OPTION) {
                 boardBlocks.unlockBlocks();
                 boardBlocks.resetBlocks();
+                // the letters that were on the board have to be taken off first
+                eventBus.flush();
                 suggestedBoardBlocks.resetBlocks();
                 buttonStart.setEnabled(true);
                 boardBlocks.setBlocksEditable(false);
@@ -251,6 +603,9 @@ public class WofBoard extends JDialog implements BlockValueChangedListener {
                     letterLabelEntry.getValue().setGuessType(LetterLabel.GuessType.NONE);
                 }
                 boardWords = ImmutableList.of();
+                boardWordsByBlock = ImmutableMap.of();
+                discardSuggestions();
+                adviceLabel.setText(" ");
             }
         }
     }
@@ -272,7 +627,13 @@ public class WofBoard extends JDialog implements BlockValueChangedListener {
                     letterLabels.entrySet()) {
                 letterLabelEntry.getValue().setEnabled(true);
             }
+            eventBus.flush();
             boardWords = getBoardWords();
+            boardWordsByBlock = getBoardWordsByBlock(boardWords);
+            discardSuggestions();
+            // search for every word right away, so there's advice before the first call
+            changedBoardWords.addAll(boardWords);
+            scheduleSuggestions();
         }
     }
 
@@ -23,6 +23,10 @@ public class WofBoardBlock extends JTextField {
     private final boolean suggestedBlock;
 
     private boolean isLocked;
+    private BoardEventBus eventBus;
+    private int row;
+    private int column;
+    private String value;
 
     // TODO make the border bigger; the real board blocks have big, chunky borders
 
@@ -51,13 +55,13 @@ public class WofBoardBlock extends JTextField {
      * @param suggestedBlock Whether or not the block is a suggested block.
      */
     public WofBoardBlock(final BlockType blockType, final boolean suggestedBlock) {
+        this.suggestedBlock = suggestedBlock;
         setBlockType(blockType);
         isLocked = false;
         setFont(blockFont);
         setColumns(1);
         setHorizontalAlignment(SwingConstants.CENTER);
         setEditable(false);
-        this.suggestedBlock = suggestedBlock;
 
         if(!suggestedBlock) {
             addMouseListener(new BoardBlockEventListener());
@@ -79,7 +83,8 @@ public class WofBoardBlock extends JTextField {
             case GLYPH:
                 setBackground(GLYPH_BG_COLOR);
                 setDocument(new BoardBlockFieldLimit());
-                getDocument().addDocumentListener(new BoardBlockDocumentListener(suggestedBlock));
+                value = "";
+                getDocument().addDocumentListener(new BoardBlockDocumentListener());
                 break;
             case NO_GLYPH:
                 setBackground(NO_GLYPH_BG_COLOR);
@@ -93,6 +98,19 @@ public class WofBoardBlock extends JTextField {
         }
     }
 
+    /**
+     * Post an event to the specified bus whenever a character is added to or removed from this
+     * block. Suggested blocks never post events.
+     * @param eventBus The bus of the board this block is on.
+     * @param row The row of this block on the board.
+     * @param column The column of this block on the board.
+     */
+    public void setEventBus(final BoardEventBus eventBus, final int row, final int column) {
+        this.eventBus = eventBus;
+        this.row = row;
+        this.column = column;
+    }
+
     /**
      * Get the block type.
      * @return The block type.
@@ -209,15 +227,16 @@ public class WofBoardBlock extends JTextField {
      * Handler for any {@link javax.swing.event.DocumentEvent} for this
      * {@link com.marlowsoft.wofsolver.ui.WofBoardBlock}.
      */
-    private static class BoardBlockDocumentListener implements DocumentListener {
-        private final boolean suggestedBlock;
-
+    private class BoardBlockDocumentListener implements DocumentListener {
         /**
-         *
-         * @param suggestedBlock Whether or not this block is a "suggested block"
+         * Post an event with the old and the new text of the block.
          */
-        public BoardBlockDocumentListener(final boolean suggestedBlock) {
-            this.suggestedBlock = suggestedBlock;
+        private void postValueChanged() {
+            final String oldValue = value;
+            value = getText();
+            if(!suggestedBlock && eventBus != null) {
+                eventBus.post(new BlockValueChangedEvent(row, column, oldValue, value));
+            }
         }
 
         /**
@@ -225,9 +244,7 @@ public class WofBoardBlock extends JTextField {
          */
         @Override
         public void insertUpdate(final DocumentEvent documentEvent) {
-            if(!suggestedBlock) {
-                BlockValueChangedDispatcher.dispatchOnBlockCharChanged();
-            }
+            postValueChanged();
         }
 
         /**
@@ -235,9 +252,7 @@ public class WofBoardBlock extends JTextField {
          */
         @Override
         public void removeUpdate(final DocumentEvent documentEvent) {
-            if(!suggestedBlock) {
-                BlockValueChangedDispatcher.dispatchOnBlockCharChanged();
-            }
+            postValueChanged();
         }
 
         /**
@@ -1,6 +1,7 @@
 package com.marlowsoft.wofsolver.ui;
 
 import com.google.common.collect.*;
+import com.marlowsoft.wofsolver.ui.event.BoardEventBus;
 
 import javax.swing.*;
 import java.awt.*;
@@ -62,6 +63,19 @@ public class WofBoardBlocks implements Iterable<WofBoardBlock> {
         return boardBlocks.get(row).get(column);
     }
 
+    /**
+     * Have every block post an event to the specified bus whenever a character is added to or
+     * removed from it.
+     * @param eventBus The bus of the board the blocks are on.
+     */
+    public void setEventBus(final BoardEventBus eventBus) {
+        for(int curRow = 0; curRow < ROW_COUNT; curRow++) {
+            for(int curColumn = 0; curColumn < COLUMN_COUNT; curColumn++) {
+                getBlock(curRow, curColumn).setEventBus(eventBus, curRow, curColumn);
+            }
+        }
+    }
+
     /**
      * Add the entire collection of board blocks to the specified JPanel.
      * @param jpanel The JPanel to add all the board blocks to. Note that:
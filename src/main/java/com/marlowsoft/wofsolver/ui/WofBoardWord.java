@@ -4,6 +4,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 /**
@@ -76,14 +77,37 @@ public class WofBoardWord {
      *                  {@code suggestedWords}.
      */
     public void setSuggestedWords(final List<String> suggestedWords, final boolean moreWords) {
+        final StringBuilder countBuilder = new StringBuilder();
+        if(moreWords) {
+            countBuilder.append("more than ");
+        }
+        countBuilder.append(suggestedWords.size());
+        setSuggestedWords(suggestedWords, countBuilder.toString());
+    }
+
+    /**
+     * Set the suggested words for this board word, along with the exact number of words that
+     * match it.
+     * @param suggestedWords The suggested words for this board word.
+     * @param candidateCount The number of words that match this board word, which may be more
+     *                       than are suggested in {@code suggestedWords}.
+     */
+    public void setSuggestedWords(final List<String> suggestedWords, final int candidateCount) {
+        setSuggestedWords(suggestedWords, String.format(Locale.ENGLISH, "%,d %s",
+                candidateCount, candidateCount == 1 ? "candidate" : "candidates"));
+    }
+
+    /**
+     * Set the tool tip of every block in this word to the suggested words.
+     * @param suggestedWords The suggested words for this board word.
+     * @param countText Describes how many words match this board word.
+     */
+    private void setSuggestedWords(final List<String> suggestedWords, final String countText) {
         final StringBuilder stringBuilder = new StringBuilder();
 
         stringBuilder.append("<html>");
         stringBuilder.append("<div><u><b>Suggested Word(s)</b> (");
-        if(moreWords) {
-            stringBuilder.append("more than ");
-        }
-        stringBuilder.append(suggestedWords.size());
+        stringBuilder.append(countText);
         stringBuilder.append(")</u></div>");
         for(final String suggestedWord : suggestedWords) {
             stringBuilder.append(suggestedWord);
@@ -0,0 +1,95 @@
+package com.marlowsoft.wofsolver.ui.event;
+
+import com.google.common.base.Objects;
+
+/**
+ * Sent when a character is added to or removed from a block on the board.
+ * This class is immutable.
+ */
+public final class BlockValueChangedEvent implements BoardEvent {
+    private final int row;
+    private final int column;
+    private final String oldValue;
+    private final String newValue;
+
+    /**
+     * Create an event.
+     * @param row The row of the block.
+     * @param column The column of the block.
+     * @param oldValue The text of the block before the change; empty if it had none.
+     * @param newValue The text of the block after the change; empty if it has none.
+     */
+    public BlockValueChangedEvent(final int row,
+                                  final int column,
+                                  final String oldValue,
+                                  final String newValue) {
+        this.row = row;
+        this.column = column;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+    }
+
+    /**
+     * Get the row of the block that changed.
+     * @return The row of the block.
+     */
+    public int getRow() {
+        return row;
+    }
+
+    /**
+     * Get the column of the block that changed.
+     * @return The column of the block.
+     */
+    public int getColumn() {
+        return column;
+    }
+
+    /**
+     * Get the text of the block before the change.
+     * @return The old text; empty if the block had none.
+     */
+    public String getOldValue() {
+        return oldValue;
+    }
+
+    /**
+     * Get the text of the block after the change.
+     * @return The new text; empty if the block has none.
+     */
+    public String getNewValue() {
+        return newValue;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(final Object other) {
+        if(this == other) {
+            return true;
+        }
+        if(!(other instanceof BlockValueChangedEvent)) {
+            return false;
+        }
+        final BlockValueChangedEvent otherEvent = (BlockValueChangedEvent)other;
+        return row == otherEvent.row && column == otherEvent.column &&
+                oldValue.equals(otherEvent.oldValue) && newValue.equals(otherEvent.newValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(row, column, oldValue, newValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "(" + row + ", " + column + "): \"" + oldValue + "\" -> \"" + newValue + "\"";
+    }
+}
@@ -0,0 +1,8 @@
+package com.marlowsoft.wofsolver.ui.event;
+
+/**
+ * Something that happened on a board, delivered to listeners by a {@link BoardEventBus}.
+ * Events are immutable.
+ */
+public interface BoardEvent {
+}
@@ -0,0 +1,173 @@
+package com.marlowsoft.wofsolver.ui.event;
+
+import com.google.common.collect.ImmutableList;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Delivers the events of one board to its listeners. Every board has its own bus, so any
+ * number of boards can live side by side.
+ * <p>
+ * Events come in bursts (resetting the board changes every block at once), so they're
+ * coalesced: events that are posted in a row are delivered to listeners together, in one call.
+ * Deliveries run on an executor; by default, that's the next turn of the event dispatch
+ * thread. With a quiet period, a delivery waits until no event has been posted for that long.
+ * <p>
+ * Events can be posted from any thread. Listeners are kept in an array that is copied whenever
+ * one is added or removed, so delivering events never takes a lock.
+ */
+public class BoardEventBus {
+    private static final BoardEventListener[] NO_LISTENERS = new BoardEventListener[0];
+
+    /**
+     * Runs deliveries on the event dispatch thread.
+     */
+    private static final Executor EVENT_DISPATCH_EXECUTOR = new Executor() {
+        @Override
+        public void execute(final Runnable command) {
+            SwingUtilities.invokeLater(command);
+        }
+    };
+
+    private final AtomicReference<BoardEventListener[]> listeners =
+            new AtomicReference<BoardEventListener[]>(NO_LISTENERS);
+    private final Queue<BoardEvent> pendingEvents = new ConcurrentLinkedQueue<BoardEvent>();
+    private final AtomicBoolean deliveryScheduled = new AtomicBoolean();
+    private final Executor deliveryExecutor;
+    private final Timer quietPeriodTimer;
+    private volatile int quietPeriodMillis;
+
+    /**
+     * Create a bus that delivers events on the event dispatch thread.
+     */
+    public BoardEventBus() {
+        this(EVENT_DISPATCH_EXECUTOR);
+    }
+
+    /**
+     * Create a bus that delivers events on the specified executor.
+     * @param deliveryExecutor Runs the deliveries. An executor that runs them right away, on
+     *                         the thread that posts the event, makes delivery synchronous.
+     *                         With more than one thread, bursts may be delivered at the same
+     *                         time as each other.
+     */
+    public BoardEventBus(final Executor deliveryExecutor) {
+        this.deliveryExecutor = deliveryExecutor;
+        quietPeriodTimer = new Timer(0, new ActionListener() {
+            @Override
+            public void actionPerformed(final ActionEvent event) {
+                scheduleDelivery();
+            }
+        });
+        quietPeriodTimer.setRepeats(false);
+    }
+
+    /**
+     * Add a listener for the events of the board.
+     * @param listener Whoever is interested in listening for the events.
+     */
+    public void addListener(final BoardEventListener listener) {
+        BoardEventListener[] currentListeners;
+        BoardEventListener[] newListeners;
+        do {
+            currentListeners = listeners.get();
+            newListeners = Arrays.copyOf(currentListeners, currentListeners.length + 1);
+            newListeners[currentListeners.length] = listener;
+        } while(!listeners.compareAndSet(currentListeners, newListeners));
+    }
+
+    /**
+     * Remove a listener, if it was added.
+     * @param listener The listener to remove.
+     */
+    public void removeListener(final BoardEventListener listener) {
+        BoardEventListener[] currentListeners;
+        BoardEventListener[] newListeners;
+        do {
+            currentListeners = listeners.get();
+            final int listenerIdx = Arrays.asList(currentListeners).indexOf(listener);
+            if(listenerIdx < 0) {
+                return;
+            }
+            newListeners = new BoardEventListener[currentListeners.length - 1];
+            System.arraycopy(currentListeners, 0, newListeners, 0, listenerIdx);
+            System.arraycopy(currentListeners, listenerIdx + 1, newListeners, listenerIdx,
+                    newListeners.length - listenerIdx);
+        } while(!listeners.compareAndSet(currentListeners, newListeners));
+    }
+
+    /**
+     * Set how long to wait after an event for more events before delivering them.
+     * @param quietPeriodMillis The quiet period, in milliseconds, or 0 to deliver events as
+     *                          soon as the executor gets to them.
+     */
+    public void setQuietPeriod(final int quietPeriodMillis) {
+        this.quietPeriodMillis = quietPeriodMillis;
+    }
+
+    /**
+     * Post an event. Listeners aren't told right away, but once the burst of events this is a
+     * part of is over.
+     * @param event The event.
+     */
+    public void post(final BoardEvent event) {
+        pendingEvents.add(event);
+        final int quietPeriod = quietPeriodMillis;
+        if(quietPeriod > 0) {
+            // every event pushes the delivery back
+            quietPeriodTimer.setInitialDelay(quietPeriod);
+            quietPeriodTimer.restart();
+        } else {
+            scheduleDelivery();
+        }
+    }
+
+    /**
+     * Deliver any events that are waiting to be delivered right away, on the calling thread.
+     * @return <code>true</code> if there were events to deliver; <code>false</code> otherwise.
+     */
+    public boolean flush() {
+        quietPeriodTimer.stop();
+        // events posted from here on get a delivery of their own
+        deliveryScheduled.set(false);
+
+        final ImmutableList.Builder<BoardEvent> eventsBuilder = ImmutableList.builder();
+        BoardEvent event;
+        while((event = pendingEvents.poll()) != null) {
+            eventsBuilder.add(event);
+        }
+        final List<BoardEvent> events = eventsBuilder.build();
+        if(events.isEmpty()) {
+            return false;
+        }
+
+        for(final BoardEventListener listener : listeners.get()) {
+            listener.onBoardEvents(events);
+        }
+        return true;
+    }
+
+    /**
+     * Have the executor deliver the pending events, unless it's already going to.
+     */
+    private void scheduleDelivery() {
+        if(!deliveryScheduled.getAndSet(true)) {
+            deliveryExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    flush();
+                }
+            });
+        }
+    }
+}
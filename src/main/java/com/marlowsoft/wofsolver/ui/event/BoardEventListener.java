@@ -0,0 +1,15 @@
+package com.marlowsoft.wofsolver.ui.event;
+
+import java.util.List;
+
+/**
+ * Listens for the events of a board, such as characters being added to or removed from a
+ * {@link com.marlowsoft.wofsolver.ui.WofBoardBlock}.
+ */
+public interface BoardEventListener {
+    /**
+     * Fired after a burst of events on the board.
+     * @param events Every event of the burst, in the order they happened. Never empty.
+     */
+    void onBoardEvents(List<BoardEvent> events);
+}
@@ -0,0 +1,46 @@
+package com.marlowsoft.wofsolver.ui.event;
+
+/**
+ * Sent when a letter is marked or un-marked as an incorrect guess.
+ * This class is immutable.
+ */
+public final class LetterGuessChangedEvent implements BoardEvent {
+    private final char letter;
+    private final boolean incorrect;
+
+    /**
+     * Create an event.
+     * @param letter The letter.
+     * @param incorrect <code>true</code> if the letter is now marked as an incorrect guess;
+     *                  <code>false</code> if it no longer is.
+     */
+    public LetterGuessChangedEvent(final char letter, final boolean incorrect) {
+        this.letter = letter;
+        this.incorrect = incorrect;
+    }
+
+    /**
+     * Get the letter that was marked or un-marked.
+     * @return The letter.
+     */
+    public char getLetter() {
+        return letter;
+    }
+
+    /**
+     * Determine whether the letter was marked or un-marked as an incorrect guess.
+     * @return <code>true</code> if the letter is now marked as an incorrect guess;
+     * <code>false</code> if it no longer is.
+     */
+    public boolean isIncorrect() {
+        return incorrect;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return letter + (incorrect ? ": incorrect" : ": not incorrect");
+    }
+}
@@ -0,0 +1,82 @@
+package com.marlowsoft.wofsolver;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.marlowsoft.wofsolver.dictionary.LetterBitsetIndex;
+import com.marlowsoft.wofsolver.dictionary.WordSearch;
+import com.marlowsoft.wofsolver.headless.BatchReport;
+import com.marlowsoft.wofsolver.headless.BatchSolver;
+import com.marlowsoft.wofsolver.headless.PuzzleSolver;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+
+/**
+ * Tests the {@link com.marlowsoft.wofsolver.headless.BatchSolver} class.
+ */
+public class BatchSolverTest {
+    private static final ImmutableList<String> WORDS =
+            ImmutableList.of("cinch", "coach", "conch", "couch", "pinch", "punch", "cat", "a");
+
+    /**
+     * Verify that every puzzle gets a line of JSON, in the same order as the puzzles.
+     * @throws Exception If a problem occurs while solving.
+     */
+    @Test
+    public void testSolve() throws Exception {
+        final BatchSolver batchSolver = new BatchSolver(
+                new PuzzleSolver(new WordSearch(new LetterBitsetIndex(WORDS))), 2, 1);
+        final String puzzles = Joiner.on('\n').join(
+                "# archived puzzles",
+                "c__ch | n",
+                "",
+                "_ c_t",
+                "c?t");
+        final StringWriter solutions = new StringWriter();
+
+        final BatchReport report = batchSolver.solve(new StringReader(puzzles), solutions);
+
+        Assert.assertEquals(Joiner.on('\n').join(
+                "{\"line\":2,\"puzzle\":\"c__ch | n\",\"words\":" +
+                        "[{\"pattern\":\"c__ch\",\"count\":2,\"candidates\":[\"coach\"]}]}",
+                "{\"line\":4,\"puzzle\":\"_ c_t\",\"words\":" +
+                        "[{\"pattern\":\"_\",\"count\":1,\"candidates\":[\"a\"]}," +
+                        "{\"pattern\":\"c_t\",\"count\":1,\"candidates\":[\"cat\"]}]}",
+                "{\"line\":5,\"error\":\"'?' can't be on the board\"}",
+                ""), solutions.toString());
+        Assert.assertEquals(3, report.getPuzzleCount());
+        Assert.assertEquals(1, report.getErrorCount());
+    }
+
+    /**
+     * Verify that more puzzles than are kept in flight all come out in order.
+     * @throws Exception If a problem occurs while solving.
+     */
+    @Test
+    public void testManyPuzzles() throws Exception {
+        final BatchSolver batchSolver = new BatchSolver(
+                new PuzzleSolver(new WordSearch(new LetterBitsetIndex(WORDS))), 3, 10);
+        final StringBuilder puzzles = new StringBuilder();
+        for(int puzzleIdx = 0; puzzleIdx < 1000; puzzleIdx++) {
+            puzzles.append(puzzleIdx % 2 == 0 ? "_____ | o\n" : "c__ch\n");
+        }
+        final StringWriter solutions = new StringWriter();
+
+        final BatchReport report = batchSolver.solve(new StringReader(puzzles.toString()),
+                solutions);
+
+        final String[] lines = solutions.toString().split("\n");
+        Assert.assertEquals(1000, lines.length);
+        for(int lineIdx = 0; lineIdx < lines.length; lineIdx++) {
+            Assert.assertTrue(lines[lineIdx].startsWith("{\"line\":" + (lineIdx + 1) + ","));
+            Assert.assertTrue(lines[lineIdx].endsWith(lineIdx % 2 == 0 ?
+                    "[\"cinch\",\"pinch\",\"punch\"]}]}" :
+                    "[\"cinch\",\"coach\",\"conch\",\"couch\"]}]}"));
+        }
+        Assert.assertEquals(1000, report.getPuzzleCount());
+        Assert.assertEquals(0, report.getErrorCount());
+        Assert.assertTrue(report.getPuzzlesPerSecond() > 0.0);
+    }
+}
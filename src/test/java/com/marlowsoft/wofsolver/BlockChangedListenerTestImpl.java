@@ -1,27 +1,39 @@
 package com.marlowsoft.wofsolver;
 
-import com.marlowsoft.wofsolver.ui.event.BlockValueChangedListener;
+import com.google.common.collect.Lists;
+import com.marlowsoft.wofsolver.ui.event.BoardEvent;
+import com.marlowsoft.wofsolver.ui.event.BoardEventListener;
+
+import java.util.List;
 
 /**
- * Implementation of {@link BlockValueChangedListener} that
- * will merely count the number of times it's been told about changes.
+ * Implementation of {@link BoardEventListener} that
+ * will merely count the number of times it's been told about changes
+ * and keep every event it's been told about.
  */
-public class BlockChangedListenerTestImpl implements BlockValueChangedListener {
+public class BlockChangedListenerTestImpl implements BoardEventListener {
     int onValueChangedCount;
+    final List<BoardEvent> events;
 
     public BlockChangedListenerTestImpl() {
         onValueChangedCount = 0;
+        events = Lists.newArrayList();
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public void onBlockValueChanged() {
+    public void onBoardEvents(final List<BoardEvent> events) {
         onValueChangedCount++;
+        this.events.addAll(events);
     }
 
     public int getValueChangedCount() {
         return onValueChangedCount;
     }
+
+    public List<BoardEvent> getEvents() {
+        return events;
+    }
 }
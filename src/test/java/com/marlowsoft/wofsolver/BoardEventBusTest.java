@@ -0,0 +1,163 @@
+package com.marlowsoft.wofsolver;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.marlowsoft.wofsolver.ui.event.*;
+import org.junit.*;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Tests the {@link com.marlowsoft.wofsolver.ui.event.BoardEventBus} class.
+ */
+public class BoardEventBusTest {
+    /**
+     * Tests that a burst of events is delivered once, with every event of the burst.
+     */
+    @Test
+    public void testFlush() {
+        final BoardEventBus eventBus = new BoardEventBus();
+        final BlockChangedListenerTestImpl listener = new BlockChangedListenerTestImpl();
+        eventBus.addListener(listener);
+        // long enough that only flushing delivers the events
+        eventBus.setQuietPeriod(60000);
+
+        final BlockValueChangedEvent firstEvent = new BlockValueChangedEvent(0, 1, "", "A");
+        final BlockValueChangedEvent secondEvent = new BlockValueChangedEvent(0, 1, "A", "");
+        final LetterGuessChangedEvent thirdEvent = new LetterGuessChangedEvent('Q', true);
+        eventBus.post(firstEvent);
+        eventBus.post(secondEvent);
+        eventBus.post(thirdEvent);
+
+        Assert.assertEquals(0, listener.getValueChangedCount());
+        Assert.assertTrue(eventBus.flush());
+        Assert.assertEquals(1, listener.getValueChangedCount());
+        Assert.assertEquals(ImmutableList.of(firstEvent, secondEvent, thirdEvent),
+                listener.getEvents());
+        Assert.assertFalse(eventBus.flush());
+        Assert.assertEquals(1, listener.getValueChangedCount());
+    }
+
+    /**
+     * Tests that events are delivered on the next turn of the event dispatch thread.
+     * @throws Exception If a problem occurs while waiting for the event dispatch thread.
+     */
+    @Test
+    public void testNextTurn() throws Exception {
+        final BoardEventBus eventBus = new BoardEventBus();
+        final BlockChangedListenerTestImpl listener = new BlockChangedListenerTestImpl();
+        eventBus.addListener(listener);
+
+        // blocks post their events on the event dispatch thread, so a burst can't be split up
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                for(int column = 0; column < 52; column++) {
+                    eventBus.post(new BlockValueChangedEvent(0, column, "A", ""));
+                }
+            }
+        });
+        waitForEventDispatchThread();
+
+        Assert.assertEquals(1, listener.getValueChangedCount());
+        Assert.assertEquals(52, listener.getEvents().size());
+    }
+
+    /**
+     * Tests that events are only delivered once none has come in for the quiet period.
+     * @throws Exception If a problem occurs while waiting for the event dispatch thread.
+     */
+    @Test
+    public void testQuietPeriod() throws Exception {
+        final BoardEventBus eventBus = new BoardEventBus();
+        final BlockChangedListenerTestImpl listener = new BlockChangedListenerTestImpl();
+        eventBus.addListener(listener);
+        eventBus.setQuietPeriod(100);
+
+        eventBus.post(new BlockValueChangedEvent(0, 0, "", "A"));
+        eventBus.post(new BlockValueChangedEvent(0, 1, "", "B"));
+        waitForEventDispatchThread();
+        Assert.assertEquals(0, listener.getValueChangedCount());
+
+        Thread.sleep(500);
+        waitForEventDispatchThread();
+        Assert.assertEquals(1, listener.getValueChangedCount());
+        Assert.assertEquals(2, listener.getEvents().size());
+    }
+
+    /**
+     * Tests delivering events on the thread that posts them.
+     */
+    @Test
+    public void testSameThread() {
+        final BoardEventBus eventBus = new BoardEventBus(MoreExecutors.directExecutor());
+        final BlockChangedListenerTestImpl listener = new BlockChangedListenerTestImpl();
+        eventBus.addListener(listener);
+
+        eventBus.post(new BlockValueChangedEvent(0, 0, "", "A"));
+        Assert.assertEquals(1, listener.getValueChangedCount());
+        eventBus.post(new BlockValueChangedEvent(0, 0, "A", ""));
+        Assert.assertEquals(2, listener.getValueChangedCount());
+        Assert.assertFalse(eventBus.flush());
+    }
+
+    /**
+     * Tests adding and removing listeners, and that the listeners of one bus don't hear about
+     * the events of another.
+     */
+    @Test
+    public void testListeners() {
+        final BoardEventBus eventBus = new BoardEventBus(MoreExecutors.directExecutor());
+        final BoardEventBus otherEventBus = new BoardEventBus(MoreExecutors.directExecutor());
+        final BlockChangedListenerTestImpl firstListener = new BlockChangedListenerTestImpl();
+        final BlockChangedListenerTestImpl secondListener = new BlockChangedListenerTestImpl();
+        eventBus.addListener(firstListener);
+        eventBus.addListener(secondListener);
+
+        eventBus.post(new LetterGuessChangedEvent('Z', true));
+        Assert.assertEquals(1, firstListener.getValueChangedCount());
+        Assert.assertEquals(1, secondListener.getValueChangedCount());
+
+        eventBus.removeListener(firstListener);
+        // removing a listener that was never added does nothing
+        eventBus.removeListener(new BlockChangedListenerTestImpl());
+        eventBus.post(new LetterGuessChangedEvent('Z', false));
+        Assert.assertEquals(1, firstListener.getValueChangedCount());
+        Assert.assertEquals(2, secondListener.getValueChangedCount());
+
+        otherEventBus.post(new LetterGuessChangedEvent('Y', true));
+        Assert.assertEquals(2, secondListener.getValueChangedCount());
+    }
+
+    /**
+     * Tests the contents of the events.
+     */
+    @Test
+    public void testEvents() {
+        final BlockValueChangedEvent blockEvent = new BlockValueChangedEvent(2, 3, "", "E");
+        Assert.assertEquals(2, blockEvent.getRow());
+        Assert.assertEquals(3, blockEvent.getColumn());
+        Assert.assertEquals("", blockEvent.getOldValue());
+        Assert.assertEquals("E", blockEvent.getNewValue());
+        Assert.assertEquals(new BlockValueChangedEvent(2, 3, "", "E"), blockEvent);
+        Assert.assertEquals(new BlockValueChangedEvent(2, 3, "", "E").hashCode(),
+                blockEvent.hashCode());
+        Assert.assertNotEquals(new BlockValueChangedEvent(2, 3, "E", ""), blockEvent);
+
+        final LetterGuessChangedEvent guessEvent = new LetterGuessChangedEvent('R', true);
+        Assert.assertEquals('R', guessEvent.getLetter());
+        Assert.assertTrue(guessEvent.isIncorrect());
+    }
+
+    /**
+     * Wait for everything that is queued on the event dispatch thread to run.
+     * @throws Exception If a problem occurs while waiting.
+     */
+    private static void waitForEventDispatchThread() throws Exception {
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+    }
+}
@@ -0,0 +1,127 @@
+package com.marlowsoft.wofsolver;
+
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.marlowsoft.wofsolver.bind.WofModule;
+import com.marlowsoft.wofsolver.dictionary.CachingWordSearch;
+import com.marlowsoft.wofsolver.dictionary.CandidateSet;
+import com.marlowsoft.wofsolver.dictionary.LetterBitsetIndex;
+import com.marlowsoft.wofsolver.dictionary.WordSearch;
+import com.marlowsoft.wofsolver.dictionary.WordSearchQueryImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Tests the {@link com.marlowsoft.wofsolver.dictionary.CachingWordSearch} class.
+ */
+public class CachingWordSearchTest {
+    private static final ImmutableList<String> WORDS =
+            ImmutableList.of("cinch", "coach", "conch", "couch", "pinch", "punch", "cat");
+
+    /**
+     * Verify that a repeated query is answered from the cache, even if it's spelled differently
+     * or has a different limit.
+     */
+    @Test
+    public void testCacheHit() {
+        final CachingWordSearch wordSearch = new CachingWordSearch(new LetterBitsetIndex(WORDS));
+
+        Assert.assertEquals(ImmutableList.of("coach", "couch"), wordSearch.getMatchedWords(
+                new WordSearchQueryImpl.WordSearchQueryBuilder()
+                        .setWordLength(5)
+                        .addKnownLetter(0, 'c')
+                        .addUsedLetter('n')
+                        .build(), 10));
+        Assert.assertEquals(0, wordSearch.getCacheStats().hitCount());
+        Assert.assertEquals(1, wordSearch.getCacheStats().missCount());
+
+        // same words, different case and no limit
+        Assert.assertEquals(ImmutableList.of("coach", "couch"), wordSearch.getMatchedWords(
+                new WordSearchQueryImpl.WordSearchQueryBuilder()
+                        .setWordLength(5)
+                        .addKnownLetter(0, 'C')
+                        .addUsedLetter('N')
+                        .build()));
+        Assert.assertEquals(1, wordSearch.getCacheStats().hitCount());
+
+        // a smaller limit is answered from the same entry
+        Assert.assertEquals(ImmutableList.of("coach"), wordSearch.getMatchedWords(
+                new WordSearchQueryImpl.WordSearchQueryBuilder()
+                        .setWordLength(5)
+                        .addKnownLetter(0, 'c')
+                        .addUsedLetter('n')
+                        .build(), 1));
+        Assert.assertEquals(2, wordSearch.getCacheStats().hitCount());
+        Assert.assertEquals(1, wordSearch.getCacheStats().missCount());
+        Assert.assertEquals(1, wordSearch.getCacheSize());
+
+        wordSearch.clearCache();
+        Assert.assertEquals(0, wordSearch.getCacheSize());
+    }
+
+    /**
+     * Verify that counts, candidate sets and batches of candidate sets share the cache, and that
+     * refining a candidate set doesn't change what's cached.
+     */
+    @Test
+    public void testSharedEntries() {
+        final CachingWordSearch wordSearch = new CachingWordSearch(new LetterBitsetIndex(WORDS));
+        final WordSearchQueryImpl searchQuery = new WordSearchQueryImpl.WordSearchQueryBuilder()
+                .setWordLength(5)
+                .addKnownLetter(0, 'c')
+                .build();
+
+        Assert.assertEquals(4, wordSearch.countMatches(searchQuery));
+        Assert.assertEquals(1, wordSearch.getCacheStats().missCount());
+
+        final CandidateSet candidateSet = wordSearch.getCandidates(searchQuery);
+        Assert.assertEquals(1, wordSearch.getCacheStats().hitCount());
+        candidateSet.addExcludedLetter('n');
+        Assert.assertEquals(ImmutableList.of("coach", "couch"), candidateSet.getWords());
+
+        final List<CandidateSet> candidateSets = wordSearch.getCandidatesBatch(ImmutableList.of(
+                searchQuery,
+                new WordSearchQueryImpl.WordSearchQueryBuilder()
+                        .setWordLength(5)
+                        .addKnownLetter(0, 'p')
+                        .build()));
+        Assert.assertEquals(2, wordSearch.getCacheStats().hitCount());
+        Assert.assertEquals(2, wordSearch.getCacheStats().missCount());
+        Assert.assertEquals(4, candidateSets.get(0).getCount());
+        Assert.assertEquals(ImmutableList.of("pinch", "punch"), candidateSets.get(1).getWords());
+        Assert.assertEquals(4, wordSearch.countMatches(searchQuery));
+    }
+
+    /**
+     * Verify that the cache never holds more than its maximum number of results.
+     */
+    @Test
+    public void testEviction() {
+        final CachingWordSearch wordSearch = new CachingWordSearch(new LetterBitsetIndex(WORDS), 1);
+        final WordSearchQueryImpl firstQuery = new WordSearchQueryImpl.WordSearchQueryBuilder()
+                .setWordLength(5)
+                .build();
+        final WordSearchQueryImpl secondQuery = new WordSearchQueryImpl.WordSearchQueryBuilder()
+                .setWordLength(3)
+                .build();
+
+        wordSearch.getMatchedWords(firstQuery);
+        wordSearch.getMatchedWords(secondQuery);
+        Assert.assertEquals(1, wordSearch.getCacheSize());
+        Assert.assertEquals(1, wordSearch.getCacheStats().evictionCount());
+    }
+
+    /**
+     * Verify that every word search that is injected is the same, so the cache is shared.
+     */
+    @Test
+    public void testInjectedSearchIsShared() {
+        final Injector injector = Guice.createInjector(new WofModule());
+        final WordSearch wordSearch = injector.getInstance(WordSearch.class);
+        Assert.assertTrue(wordSearch instanceof CachingWordSearch);
+        Assert.assertSame(wordSearch, injector.getInstance(WordSearch.class));
+    }
+}
@@ -0,0 +1,152 @@
+package com.marlowsoft.wofsolver;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.marlowsoft.wofsolver.dictionary.CandidateSet;
+import com.marlowsoft.wofsolver.dictionary.LetterBitsetIndex;
+import com.marlowsoft.wofsolver.dictionary.WordFrequencies;
+import com.marlowsoft.wofsolver.dictionary.WordSearch;
+import com.marlowsoft.wofsolver.dictionary.WordSearchQueryImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests the {@link com.marlowsoft.wofsolver.dictionary.CandidateSet} class.
+ */
+public class CandidateSetTest {
+    private static final ImmutableList<String> WORDS =
+            ImmutableList.of("cinch", "coach", "conch", "couch", "pinch", "punch", "cat");
+
+    /**
+     * Verify that adding constraints only narrows down the previous candidates.
+     */
+    @Test
+    public void testNarrow() {
+        final WordSearch wordSearch = new WordSearch(new LetterBitsetIndex(WORDS));
+        final CandidateSet candidateSet = wordSearch.getCandidates(
+                new WordSearchQueryImpl.WordSearchQueryBuilder()
+                        .setWordLength(5)
+                        .addKnownLetter(4, 'h')
+                        .build());
+        Assert.assertEquals(6, candidateSet.getCount());
+        Assert.assertEquals(ImmutableList.of("cinch", "coach"), candidateSet.getWords(2));
+
+        Assert.assertTrue(candidateSet.addKnownLetter(0, 'c'));
+        Assert.assertEquals(ImmutableList.of("cinch", "coach", "conch", "couch"),
+                candidateSet.getWords());
+
+        Assert.assertTrue(candidateSet.addExcludedLetter('n'));
+        Assert.assertEquals(ImmutableList.of("coach", "couch"), candidateSet.getWords());
+
+        // revealing a letter that hasn't been excluded
+        Assert.assertTrue(candidateSet.refine(new WordSearchQueryImpl.WordSearchQueryBuilder()
+                .setWordLength(5)
+                .addKnownLetter(0, 'c')
+                .addKnownLetter(2, 'u')
+                .addKnownLetter(4, 'h')
+                .addUsedLetter('n')
+                .build()));
+        Assert.assertEquals(ImmutableList.of("couch"), candidateSet.getWords());
+        Assert.assertEquals(1, candidateSet.getCount());
+    }
+
+    /**
+     * Verify that taking a constraint away searches all words again.
+     */
+    @Test
+    public void testWiden() {
+        final WordSearch wordSearch = new WordSearch(new LetterBitsetIndex(WORDS));
+        final CandidateSet candidateSet = wordSearch.getCandidates(
+                new WordSearchQueryImpl.WordSearchQueryBuilder()
+                        .setWordLength(5)
+                        .addKnownLetter(0, 'c')
+                        .addUsedLetter('n')
+                        .build());
+        Assert.assertEquals(ImmutableList.of("coach", "couch"), candidateSet.getWords());
+
+        Assert.assertFalse(candidateSet.refine(new WordSearchQueryImpl.WordSearchQueryBuilder()
+                .setWordLength(5)
+                .addKnownLetter(0, 'c')
+                .build()));
+        Assert.assertEquals(4, candidateSet.getCount());
+
+        // an excluded letter showing up at a position that was unknown widens the query too
+        Assert.assertTrue(candidateSet.addExcludedLetter('p'));
+        Assert.assertFalse(candidateSet.refine(new WordSearchQueryImpl.WordSearchQueryBuilder()
+                .setWordLength(5)
+                .addKnownLetter(0, 'p')
+                .addUsedLetter('p')
+                .build()));
+        Assert.assertEquals(ImmutableList.of("pinch", "punch"), candidateSet.getWords());
+
+        Assert.assertFalse(candidateSet.refine(new WordSearchQueryImpl.WordSearchQueryBuilder()
+                .setWordLength(3)
+                .build()));
+        Assert.assertEquals(ImmutableList.of("cat"), candidateSet.getWords());
+    }
+
+    /**
+     * Verify that the most common candidates come first.
+     */
+    @Test
+    public void testTopWords() {
+        final WordSearch wordSearch = new WordSearch(new LetterBitsetIndex(WORDS),
+                new WordFrequencies() {
+                    @Override
+                    public int getFrequency(final String word) {
+                        return word.equals("punch") ? 20 : word.equals("couch") ? 10 : 0;
+                    }
+
+                    @Override
+                    public Map<String, Integer> getFrequencies() {
+                        return ImmutableMap.of("punch", 20, "couch", 10);
+                    }
+                });
+        final CandidateSet candidateSet = wordSearch.getCandidates(
+                new WordSearchQueryImpl.WordSearchQueryBuilder()
+                        .setWordLength(5)
+                        .addKnownLetter(4, 'h')
+                        .build());
+
+        Assert.assertEquals(ImmutableList.of("punch", "couch", "cinch"),
+                candidateSet.getTopWords(3));
+        Assert.assertEquals(6, candidateSet.getTopWords(10).size());
+        Assert.assertTrue(candidateSet.getTopWords(0).isEmpty());
+
+        Assert.assertTrue(candidateSet.addKnownLetter(0, 'c'));
+        Assert.assertEquals(ImmutableList.of("couch", "cinch"), candidateSet.getTopWords(2));
+    }
+
+    /**
+     * Verify that a batch finds every candidate of each query, and that the sets of equal
+     * queries can be refined on their own.
+     */
+    @Test
+    public void testBatch() {
+        final WordSearch wordSearch = new WordSearch(new LetterBitsetIndex(WORDS));
+        final WordSearchQueryImpl endsInHQuery = new WordSearchQueryImpl.WordSearchQueryBuilder()
+                .setWordLength(5)
+                .addKnownLetter(4, 'h')
+                .addUsedLetter('o')
+                .build();
+        final List<CandidateSet> candidateSets = wordSearch.getCandidatesBatch(ImmutableList.of(
+                endsInHQuery,
+                new WordSearchQueryImpl.WordSearchQueryBuilder()
+                        .setWordLength(3)
+                        .build(),
+                endsInHQuery));
+
+        Assert.assertEquals(3, candidateSets.size());
+        Assert.assertEquals(ImmutableList.of("cinch", "pinch", "punch"),
+                candidateSets.get(0).getWords());
+        Assert.assertEquals(ImmutableList.of("cat"), candidateSets.get(1).getWords());
+        Assert.assertEquals(1, candidateSets.get(1).getCount());
+
+        Assert.assertTrue(candidateSets.get(0).addKnownLetter(0, 'p'));
+        Assert.assertEquals(ImmutableList.of("pinch", "punch"), candidateSets.get(0).getWords());
+        Assert.assertEquals(3, candidateSets.get(2).getCount());
+    }
+}
@@ -0,0 +1,191 @@
+package com.marlowsoft.wofsolver;
+
+import com.marlowsoft.wofsolver.dictionary.CompiledWordQuery;
+import com.marlowsoft.wofsolver.dictionary.WordSearchQueryImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the {@link com.marlowsoft.wofsolver.dictionary.CompiledWordQuery} class.
+ */
+public class CompiledWordQueryTest {
+    /**
+     * Verify that letters are folded to lower case when the query is compiled.
+     */
+    @Test
+    public void testCompile() {
+        final CompiledWordQuery compiledQuery = new CompiledWordQuery(
+                new WordSearchQueryImpl.WordSearchQueryBuilder()
+                        .setWordLength(5)
+                        .addKnownLetter(0, 'C')
+                        .addKnownLetter(7, 'x')
+                        .addUsedLetter('R')
+                        .addUsedLetter('s')
+                        .build());
+
+        Assert.assertEquals(5, compiledQuery.getWordLength());
+        Assert.assertEquals('c', compiledQuery.getKnownLetter(0));
+        Assert.assertEquals(CompiledWordQuery.UNKNOWN_LETTER, compiledQuery.getKnownLetter(1));
+        Assert.assertEquals(1 << ('c' - 'a'), compiledQuery.getKnownMask());
+        Assert.assertEquals((1 << ('r' - 'a')) | (1 << ('s' - 'a')),
+                compiledQuery.getExcludedMask());
+    }
+
+    /**
+     * Verify that words are matched against known and used letters.
+     */
+    @Test
+    public void testMatches() {
+        final CompiledWordQuery compiledQuery = new CompiledWordQuery(
+                new WordSearchQueryImpl.WordSearchQueryBuilder()
+                        .setWordLength(5)
+                        .addKnownLetter(0, 'C')
+                        .addKnownLetter(3, 'c')
+                        .addUsedLetter('T')
+                        .addUsedLetter('c')
+                        .build());
+
+        Assert.assertTrue(compiledQuery.matches("couch"));
+        Assert.assertTrue(compiledQuery.matches("conch"));
+        Assert.assertFalse(compiledQuery.matches("catch"));
+        Assert.assertFalse(compiledQuery.matches("cocci"));
+        Assert.assertFalse(compiledQuery.matches("couches"));
+        Assert.assertFalse(compiledQuery.matches("COUCH"));
+    }
+
+    /**
+     * Verify that apostrophes and hyphens can be used like any other letter.
+     */
+    @Test
+    public void testMatchesPunctuation() {
+        final CompiledWordQuery compiledQuery = new CompiledWordQuery(
+                new WordSearchQueryImpl.WordSearchQueryBuilder()
+                        .setWordLength(6)
+                        .addKnownLetter(3, '\'')
+                        .build());
+
+        Assert.assertTrue(compiledQuery.matches("you're"));
+        Assert.assertFalse(compiledQuery.matches("yous'e"));
+    }
+
+    /**
+     * Verify that words are turned away by their letter masks alone, but that an excluded letter
+     * which is also known doesn't turn a word away.
+     */
+    @Test
+    public void testMightMatch() {
+        final CompiledWordQuery compiledQuery = new CompiledWordQuery(
+                new WordSearchQueryImpl.WordSearchQueryBuilder()
+                        .setWordLength(5)
+                        .addKnownLetter(0, 'c')
+                        .addUsedLetter('t')
+                        .addUsedLetter('c')
+                        .build());
+
+        Assert.assertEquals(1 << ('t' - 'a'), compiledQuery.getRejectMask());
+        Assert.assertTrue(compiledQuery.mightMatch(CompiledWordQuery.getLetterMask("couch")));
+        Assert.assertTrue(compiledQuery.mightMatch(CompiledWordQuery.getLetterMask("cocci")));
+        Assert.assertFalse(compiledQuery.mightMatch(CompiledWordQuery.getLetterMask("catch")));
+        Assert.assertFalse(compiledQuery.mightMatch(CompiledWordQuery.getLetterMask("dough")));
+    }
+
+    /**
+     * Verify that a query is only narrower than another if it only adds constraints to it.
+     */
+    @Test
+    public void testIsNarrowerThan() {
+        final CompiledWordQuery broadQuery = new CompiledWordQuery(
+                new WordSearchQueryImpl.WordSearchQueryBuilder()
+                        .setWordLength(5)
+                        .addKnownLetter(0, 'c')
+                        .addUsedLetter('t')
+                        .build());
+        final CompiledWordQuery narrowQuery = new CompiledWordQuery(
+                new WordSearchQueryImpl.WordSearchQueryBuilder()
+                        .setWordLength(5)
+                        .addKnownLetter(0, 'C')
+                        .addKnownLetter(3, 'c')
+                        .addUsedLetter('t')
+                        .addUsedLetter('s')
+                        .build());
+        final CompiledWordQuery revealedExcludedQuery = new CompiledWordQuery(
+                new WordSearchQueryImpl.WordSearchQueryBuilder()
+                        .setWordLength(5)
+                        .addKnownLetter(0, 'c')
+                        .addKnownLetter(1, 't')
+                        .addUsedLetter('t')
+                        .build());
+
+        Assert.assertTrue(narrowQuery.isNarrowerThan(broadQuery));
+        Assert.assertTrue(broadQuery.isNarrowerThan(broadQuery));
+        Assert.assertFalse(broadQuery.isNarrowerThan(narrowQuery));
+        Assert.assertFalse(revealedExcludedQuery.isNarrowerThan(broadQuery));
+    }
+
+    /**
+     * Verify that queries that match the same words compile to equal queries.
+     */
+    @Test
+    public void testEquals() {
+        final CompiledWordQuery compiledQuery = new CompiledWordQuery(
+                new WordSearchQueryImpl.WordSearchQueryBuilder()
+                        .setWordLength(5)
+                        .addKnownLetter(0, 'C')
+                        .addKnownLetter(7, 'x')
+                        .addUsedLetter('T')
+                        .build());
+        final CompiledWordQuery sameQuery = new CompiledWordQuery(
+                new WordSearchQueryImpl.WordSearchQueryBuilder()
+                        .setWordLength(5)
+                        .addKnownLetter(0, 'c')
+                        .addUsedLetter('t')
+                        .build());
+        final CompiledWordQuery otherQuery = new CompiledWordQuery(
+                new WordSearchQueryImpl.WordSearchQueryBuilder()
+                        .setWordLength(5)
+                        .addKnownLetter(1, 'c')
+                        .addUsedLetter('t')
+                        .build());
+
+        Assert.assertEquals(compiledQuery, sameQuery);
+        Assert.assertEquals(compiledQuery.hashCode(), sameQuery.hashCode());
+        Assert.assertNotEquals(compiledQuery, otherQuery);
+    }
+
+    /**
+     * Verify that revealed letters can only be at the positions where they're known.
+     */
+    @Test
+    public void testRevealedLetters() {
+        final CompiledWordQuery compiledQuery = new CompiledWordQuery(
+                new WordSearchQueryImpl.WordSearchQueryBuilder()
+                        .setWordLength(5)
+                        .addKnownLetter(0, 'c')
+                        .addKnownLetter(3, 'c')
+                        .addKnownLetter(4, 'h')
+                        .addRevealedLetter('C')
+                        .addRevealedLetter('h')
+                        .addRevealedLetter('n')
+                        .build());
+
+        Assert.assertTrue(compiledQuery.matches("couch"));
+        Assert.assertTrue(compiledQuery.matches("coach"));
+        Assert.assertFalse(compiledQuery.matches("conch"));
+        Assert.assertFalse(compiledQuery.matches("chech"));
+        Assert.assertTrue(compiledQuery.mightMatch(CompiledWordQuery.getLetterMask("couch")));
+        Assert.assertFalse(compiledQuery.mightMatch(CompiledWordQuery.getLetterMask("conch")));
+
+        // a revealed letter rules out the same words as a used one
+        final CompiledWordQuery usedQuery = new CompiledWordQuery(
+                new WordSearchQueryImpl.WordSearchQueryBuilder()
+                        .setWordLength(5)
+                        .addKnownLetter(0, 'c')
+                        .addKnownLetter(3, 'c')
+                        .addKnownLetter(4, 'h')
+                        .addUsedLetter('c')
+                        .addUsedLetter('h')
+                        .addUsedLetter('n')
+                        .build());
+        Assert.assertEquals(usedQuery, compiledQuery);
+    }
+}
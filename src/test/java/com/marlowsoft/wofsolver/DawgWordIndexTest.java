@@ -0,0 +1,129 @@
+package com.marlowsoft.wofsolver;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Ordering;
+import com.google.inject.Guice;
+import com.marlowsoft.wofsolver.bind.WofModule;
+import com.marlowsoft.wofsolver.dictionary.CompiledWordQuery;
+import com.marlowsoft.wofsolver.dictionary.DawgWordIndex;
+import com.marlowsoft.wofsolver.dictionary.WordList;
+import com.marlowsoft.wofsolver.dictionary.WordSearchQueryImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Tests the {@link com.marlowsoft.wofsolver.dictionary.DawgWordIndex} class.
+ */
+public class DawgWordIndexTest {
+    private static final ImmutableList<String> WORDS =
+            ImmutableList.of("cat", "coach", "conch", "cot", "couch", "dog", "pinch", "punch");
+
+    /**
+     * Verify that every word can be spelled out from its ordinal.
+     */
+    @Test
+    public void testGetWord() {
+        final DawgWordIndex dawgIndex = new DawgWordIndex(WORDS);
+
+        Assert.assertEquals(3, dawgIndex.getWordCount(3));
+        Assert.assertEquals(5, dawgIndex.getWordCount(5));
+        Assert.assertEquals(0, dawgIndex.getWordCount(4));
+        Assert.assertEquals("cat", dawgIndex.getWord(3, 0));
+        Assert.assertEquals("dog", dawgIndex.getWord(3, 2));
+        Assert.assertEquals("coach", dawgIndex.getWord(5, 0));
+        Assert.assertEquals("punch", dawgIndex.getWord(5, 4));
+        Assert.assertEquals(0b01001L, dawgIndex.getLetterPositions(5, 0, 'c'));
+        Assert.assertEquals(0L, dawgIndex.getLetterPositions(5, 4, 'o'));
+    }
+
+    /**
+     * Verify that asking for a word that doesn't exist will throw an
+     * {@link java.lang.IndexOutOfBoundsException}.
+     */
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testGetWordOutOfBounds() {
+        new DawgWordIndex(WORDS).getWord(3, 3);
+    }
+
+    /**
+     * Verify that shared suffixes are merged; "-ch" is only stored once for all five letter words.
+     */
+    @Test
+    public void testMinimized() {
+        final DawgWordIndex dawgIndex = new DawgWordIndex(ImmutableList.of(
+                "coach", "conch", "couch", "pinch", "punch"));
+
+        // root, "c", "p", "co", "pi"/"pu", "coa"/"con"/"cou"/"pin"/"pun", "?c" and "?h"
+        Assert.assertEquals(8, dawgIndex.getNodeCount());
+    }
+
+    /**
+     * Verify that known letters and used letters narrow down the matched words.
+     */
+    @Test
+    public void testFindMatches() {
+        final DawgWordIndex dawgIndex = new DawgWordIndex(WORDS);
+        final long[] matches = new long[1];
+
+        dawgIndex.findMatches(new CompiledWordQuery(new WordSearchQueryImpl.WordSearchQueryBuilder()
+                .setWordLength(5)
+                .addKnownLetter(4, 'h')
+                .addUsedLetter('n')
+                .build()), 0, matches);
+        Assert.assertEquals(0x5L, matches[0]);
+
+        dawgIndex.findMatches(new CompiledWordQuery(new WordSearchQueryImpl.WordSearchQueryBuilder()
+                .setWordLength(5)
+                .addKnownLetter(2, 'n')
+                .build()), 0, matches);
+        Assert.assertEquals(0x1aL, matches[0]);
+
+        // nothing past the end of the words
+        dawgIndex.findMatches(new CompiledWordQuery(new WordSearchQueryImpl.WordSearchQueryBuilder()
+                .setWordLength(5)
+                .build()), 1, matches);
+        Assert.assertEquals(0L, matches[0]);
+    }
+
+    /**
+     * Verify that the whole dictionary survives being turned into a graph.
+     * @throws Exception If the dictionary can't be loaded.
+     */
+    @Test
+    public void testWholeDictionary() throws Exception {
+        final List<String> wordList = Guice.createInjector(new WofModule())
+                .getInstance(WordList.class).getWordList();
+        final DawgWordIndex dawgIndex = new DawgWordIndex(wordList);
+
+        int wordCount = 0;
+        for(int wordLength = 0; wordLength <= 20; wordLength++) {
+            wordCount += dawgIndex.getWordCount(wordLength);
+        }
+        Assert.assertEquals(wordList.size(), wordCount);
+        Assert.assertTrue(dawgIndex.getNodeCount() < wordList.size());
+        // the graph keeps its words in alphabetical order, whatever the order of the list
+        Assert.assertEquals("apple", dawgIndex.getWord(5,
+                findOrdinal(Ordering.natural().sortedCopy(wordList), "apple")));
+    }
+
+    /**
+     * Find the ordinal of a word; i.e. its position amongst the words of the same length.
+     * @param wordList All words.
+     * @param word The word to find.
+     * @return The ordinal of the word.
+     */
+    private static int findOrdinal(final List<String> wordList, final String word) {
+        int ordinal = 0;
+        for(final String curWord : wordList) {
+            if(curWord.equals(word)) {
+                break;
+            }
+            if(curWord.length() == word.length()) {
+                ordinal++;
+            }
+        }
+        return ordinal;
+    }
+}
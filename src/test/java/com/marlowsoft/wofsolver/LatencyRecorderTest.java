@@ -0,0 +1,44 @@
+package com.marlowsoft.wofsolver;
+
+import com.marlowsoft.wofsolver.headless.LatencyRecorder;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the {@link com.marlowsoft.wofsolver.headless.LatencyRecorder} class.
+ */
+public class LatencyRecorderTest {
+    /**
+     * Verify the percentiles of the recorded latencies.
+     */
+    @Test
+    public void testPercentiles() {
+        final LatencyRecorder latencyRecorder = new LatencyRecorder(100);
+        Assert.assertEquals(0L, latencyRecorder.getPercentile(50));
+
+        for(int latency = 100; latency > 0; latency--) {
+            latencyRecorder.record(latency);
+        }
+        Assert.assertEquals(100L, latencyRecorder.getCount());
+        Assert.assertEquals(1L, latencyRecorder.getPercentile(0));
+        Assert.assertEquals(50L, latencyRecorder.getPercentile(50));
+        Assert.assertEquals(99L, latencyRecorder.getPercentile(99));
+        Assert.assertEquals(100L, latencyRecorder.getPercentile(100));
+    }
+
+    /**
+     * Verify that only the most recent latencies are kept.
+     */
+    @Test
+    public void testRecent() {
+        final LatencyRecorder latencyRecorder = new LatencyRecorder(10);
+        for(int latency = 0; latency < 10; latency++) {
+            latencyRecorder.record(1000);
+        }
+        for(int latency = 0; latency < 10; latency++) {
+            latencyRecorder.record(5);
+        }
+        Assert.assertEquals(20L, latencyRecorder.getCount());
+        Assert.assertEquals(5L, latencyRecorder.getPercentile(100));
+    }
+}
@@ -0,0 +1,99 @@
+package com.marlowsoft.wofsolver;
+
+import com.google.common.collect.ImmutableList;
+import com.marlowsoft.wofsolver.dictionary.CandidateSet;
+import com.marlowsoft.wofsolver.dictionary.LetterAdvice;
+import com.marlowsoft.wofsolver.dictionary.LetterAdvisor;
+import com.marlowsoft.wofsolver.dictionary.LetterBitsetIndex;
+import com.marlowsoft.wofsolver.dictionary.WordSearch;
+import com.marlowsoft.wofsolver.dictionary.WordSearchQueryImpl;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Tests the {@link com.marlowsoft.wofsolver.dictionary.LetterAdvisor} class.
+ */
+public class LetterAdvisorTest {
+    private static final double DELTA = 1e-9;
+
+    private static ExecutorService executor;
+
+    @BeforeClass
+    public static void beforeClass() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Verify the expected information and probability of letters for a single word.
+     * @throws Exception If the thread is interrupted.
+     */
+    @Test
+    public void testOneWord() throws Exception {
+        final LetterAdvisor letterAdvisor = new LetterAdvisor(executor);
+        final List<LetterAdvice> letterAdvice = letterAdvisor.advise(
+                ImmutableList.of(getCandidates(5, "coach", "conch", "couch", "cinch")),
+                ImmutableList.of('O', 'n', 'z', 'a'));
+
+        // "n" splits the candidates in half; "o" and "a" split them 3 to 1, but "o" is more
+        // likely to be on the board
+        final double threeToOne = -(0.75 * Math.log(0.75) + 0.25 * Math.log(0.25)) / Math.log(2);
+        Assert.assertEquals(4, letterAdvice.size());
+        Assert.assertEquals('n', letterAdvice.get(0).getLetter());
+        Assert.assertEquals(1.0, letterAdvice.get(0).getExpectedInformation(), DELTA);
+        Assert.assertEquals(0.5, letterAdvice.get(0).getProbabilityOnBoard(), DELTA);
+        Assert.assertEquals('o', letterAdvice.get(1).getLetter());
+        Assert.assertEquals(threeToOne, letterAdvice.get(1).getExpectedInformation(), DELTA);
+        Assert.assertEquals(0.75, letterAdvice.get(1).getProbabilityOnBoard(), DELTA);
+        Assert.assertEquals('a', letterAdvice.get(2).getLetter());
+        Assert.assertEquals(threeToOne, letterAdvice.get(2).getExpectedInformation(), DELTA);
+        Assert.assertEquals(0.25, letterAdvice.get(2).getProbabilityOnBoard(), DELTA);
+        Assert.assertEquals('z', letterAdvice.get(3).getLetter());
+        Assert.assertEquals(0.0, letterAdvice.get(3).getExpectedInformation(), DELTA);
+        Assert.assertEquals(0.0, letterAdvice.get(3).getProbabilityOnBoard(), DELTA);
+    }
+
+    /**
+     * Verify that the positions of a letter split the candidates, and that words add up.
+     * @throws Exception If the thread is interrupted.
+     */
+    @Test
+    public void testManyWords() throws Exception {
+        final LetterAdvisor letterAdvisor = new LetterAdvisor(executor);
+        final List<LetterAdvice> letterAdvice = letterAdvisor.advise(
+                ImmutableList.of(getCandidates(3, "tat", "tot", "ttt", "oat"),
+                        getCandidates(2, "at", "to"),
+                        getCandidates(3, "at")),
+                ImmutableList.of('t'));
+
+        // "t" splits the first word 3 ways (1/4, 1/4 and 1/2) and the second 2 ways
+        final LetterAdvice tAdvice = letterAdvice.get(0);
+        Assert.assertEquals(1.5 + 1.0, tAdvice.getExpectedInformation(), DELTA);
+        Assert.assertEquals(1.0, tAdvice.getProbabilityOnBoard(), DELTA);
+        Assert.assertEquals("T: 100% on board, 2.50 bits", tAdvice.toString());
+    }
+
+    /**
+     * Get every word of a dictionary of the specified length.
+     * @param wordLength The length of the words.
+     * @param words The words of the dictionary, in lower case.
+     * @return The candidates.
+     */
+    private static CandidateSet getCandidates(final int wordLength, final String... words) {
+        final WordSearch wordSearch = new WordSearch(new LetterBitsetIndex(Arrays.asList(words)));
+        return wordSearch.getCandidates(new WordSearchQueryImpl.WordSearchQueryBuilder()
+                .setWordLength(wordLength)
+                .build());
+    }
+}
@@ -0,0 +1,83 @@
+package com.marlowsoft.wofsolver;
+
+import com.google.common.collect.ImmutableList;
+import com.marlowsoft.wofsolver.dictionary.CompiledWordQuery;
+import com.marlowsoft.wofsolver.dictionary.LetterBitsetIndex;
+import com.marlowsoft.wofsolver.dictionary.WordSearchQueryImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the {@link com.marlowsoft.wofsolver.dictionary.LetterBitsetIndex} class.
+ */
+public class LetterBitsetIndexTest {
+    private static final ImmutableList<String> WORDS =
+            ImmutableList.of("cat", "dog", "couch", "coach", "cinch", "conch", "cot");
+
+    /**
+     * Verify that words are grouped by length and kept in dictionary order.
+     */
+    @Test
+    public void testGetWord() {
+        final LetterBitsetIndex letterIndex = new LetterBitsetIndex(WORDS);
+
+        Assert.assertEquals(3, letterIndex.getWordCount(3));
+        Assert.assertEquals(4, letterIndex.getWordCount(5));
+        Assert.assertEquals(0, letterIndex.getWordCount(4));
+        Assert.assertEquals(0, letterIndex.getWordCount(99));
+        Assert.assertEquals("cot", letterIndex.getWord(3, 2));
+        Assert.assertEquals("coach", letterIndex.getWord(5, 1));
+    }
+
+    /**
+     * Verify that known letters and used letters narrow down the matched words.
+     */
+    @Test
+    public void testFindMatches() {
+        final LetterBitsetIndex letterIndex = new LetterBitsetIndex(WORDS);
+        final long[] matches = new long[2];
+
+        letterIndex.findMatches(new CompiledWordQuery(new WordSearchQueryImpl.WordSearchQueryBuilder()
+                .setWordLength(5)
+                .addKnownLetter(0, 'C')
+                .addKnownLetter(4, 'h')
+                .build()), 0, matches);
+        Assert.assertEquals(0xfL, matches[0]);
+        Assert.assertEquals(0L, matches[1]);
+
+        // "cinch" and "conch" have an "n" somewhere
+        letterIndex.findMatches(new CompiledWordQuery(new WordSearchQueryImpl.WordSearchQueryBuilder()
+                .setWordLength(5)
+                .addKnownLetter(0, 'c')
+                .addUsedLetter('N')
+                .build()), 0, matches);
+        Assert.assertEquals(0x3L, matches[0]);
+
+        // a used letter may still be at a known position, just not anywhere else
+        letterIndex.findMatches(new CompiledWordQuery(new WordSearchQueryImpl.WordSearchQueryBuilder()
+                .setWordLength(5)
+                .addKnownLetter(3, 'c')
+                .addUsedLetter('c')
+                .build()), 0, matches);
+        Assert.assertEquals(0L, matches[0]);
+    }
+
+    /**
+     * Verify that searching past the end of a length group doesn't match anything.
+     */
+    @Test
+    public void testFindMatchesOutOfRange() {
+        final LetterBitsetIndex letterIndex = new LetterBitsetIndex(WORDS);
+        final long[] matches = new long[] {-1L};
+
+        letterIndex.findMatches(new CompiledWordQuery(new WordSearchQueryImpl.WordSearchQueryBuilder()
+                .setWordLength(3)
+                .build()), 1, matches);
+        Assert.assertEquals(0L, matches[0]);
+
+        letterIndex.findMatches(new CompiledWordQuery(new WordSearchQueryImpl.WordSearchQueryBuilder()
+                .setWordLength(12)
+                .build()), 0, matches);
+        Assert.assertEquals(0L, matches[0]);
+    }
+}
@@ -0,0 +1,195 @@
+package com.marlowsoft.wofsolver;
+
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Provider;
+import com.marlowsoft.wofsolver.dictionary.CompiledWordQuery;
+import com.marlowsoft.wofsolver.dictionary.MappedWordIndex;
+import com.marlowsoft.wofsolver.dictionary.WordList;
+import com.marlowsoft.wofsolver.dictionary.WordSearchQueryImpl;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Tests the {@link com.marlowsoft.wofsolver.dictionary.MappedWordIndex} class.
+ */
+public class MappedWordIndexTest {
+    private static final ImmutableList<String> WORDS =
+            ImmutableList.of("cat", "coach", "conch", "cot", "couch", "dog", "you're");
+    private static final String WORD_LIST_PATH = "words.txt";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Verify that a written dictionary file can be mapped and every word read back.
+     * @throws IOException If the file can't be written or mapped.
+     */
+    @Test
+    public void testWriteAndMap() throws IOException {
+        final File file = temporaryFolder.newFile("words.dict");
+        MappedWordIndex.write(WORDS, 0L, file);
+        final MappedWordIndex mappedIndex = new MappedWordIndex(file);
+
+        Assert.assertEquals(3, mappedIndex.getWordCount(3));
+        Assert.assertEquals(3, mappedIndex.getWordCount(5));
+        Assert.assertEquals(1, mappedIndex.getWordCount(6));
+        Assert.assertEquals(0, mappedIndex.getWordCount(4));
+        Assert.assertEquals(0, mappedIndex.getWordCount(99));
+        Assert.assertEquals("cot", mappedIndex.getWord(3, 1));
+        Assert.assertEquals("couch", mappedIndex.getWord(5, 2));
+        Assert.assertEquals("you're", mappedIndex.getWord(6, 0));
+        Assert.assertEquals(0b01001L, mappedIndex.getLetterPositions(5, 2, 'c'));
+        Assert.assertEquals(0b001000L, mappedIndex.getLetterPositions(6, 0, '\''));
+    }
+
+    /**
+     * Verify that known letters and used letters narrow down the matched words.
+     * @throws IOException If the file can't be written or mapped.
+     */
+    @Test
+    public void testFindMatches() throws IOException {
+        final File file = temporaryFolder.newFile("words.dict");
+        MappedWordIndex.write(WORDS, 0L, file);
+        final MappedWordIndex mappedIndex = new MappedWordIndex(file);
+        final long[] matches = new long[1];
+
+        mappedIndex.findMatches(new CompiledWordQuery(new WordSearchQueryImpl.WordSearchQueryBuilder()
+                .setWordLength(5)
+                .addKnownLetter(0, 'c')
+                .addUsedLetter('a')
+                .build()), 0, matches);
+        Assert.assertEquals(0x6L, matches[0]);
+
+        mappedIndex.findMatches(new CompiledWordQuery(new WordSearchQueryImpl.WordSearchQueryBuilder()
+                .setWordLength(5)
+                .build()), 1, matches);
+        Assert.assertEquals(0L, matches[0]);
+    }
+
+    /**
+     * Verify that the dictionary file is written from the word list if it doesn't exist,
+     * and that the word list isn't loaded if it does.
+     * @throws Exception If the file can't be written or mapped.
+     */
+    @Test
+    public void testWriteIfMissing() throws Exception {
+        final String filePath = new File(temporaryFolder.getRoot(), "sub/words.dict").getPath();
+        final CountingWordListProvider wordListProvider = new CountingWordListProvider();
+
+        MappedWordIndex mappedIndex =
+                new MappedWordIndex(filePath, WORD_LIST_PATH, wordListProvider);
+        Assert.assertEquals(1, wordListProvider.getCount());
+        Assert.assertEquals("dog", mappedIndex.getWord(3, 2));
+
+        mappedIndex = new MappedWordIndex(filePath, WORD_LIST_PATH, wordListProvider);
+        Assert.assertEquals(1, wordListProvider.getCount());
+        Assert.assertEquals("dog", mappedIndex.getWord(3, 2));
+    }
+
+    /**
+     * Verify that the dictionary file is written again if it was written from a different word
+     * list file or is corrupt.
+     * @throws Exception If the file can't be written or mapped.
+     */
+    @Test
+    public void testRewriteIfOutOfDate() throws Exception {
+        final File file = temporaryFolder.newFile("words.dict");
+        final CountingWordListProvider wordListProvider = new CountingWordListProvider();
+        final long sourceChecksum = MappedWordIndex.getSourceChecksum(WORD_LIST_PATH);
+
+        MappedWordIndex.write(ImmutableList.of("cat"), sourceChecksum + 1, file);
+        MappedWordIndex mappedIndex =
+                new MappedWordIndex(file.getPath(), WORD_LIST_PATH, wordListProvider);
+        Assert.assertEquals(1, wordListProvider.getCount());
+        Assert.assertEquals(sourceChecksum, mappedIndex.getSourceChecksum());
+        Assert.assertEquals("dog", mappedIndex.getWord(3, 2));
+
+        writeCorruptFile(file);
+        mappedIndex = new MappedWordIndex(file.getPath(), WORD_LIST_PATH, wordListProvider);
+        Assert.assertEquals(2, wordListProvider.getCount());
+        Assert.assertEquals("dog", mappedIndex.getWord(3, 2));
+    }
+
+    /**
+     * Verify that mapping a dictionary file with offsets past the end of the file will throw an
+     * {@link java.io.IOException}.
+     * @throws IOException Always.
+     */
+    @Test(expected=IOException.class)
+    public void testCorruptOffsets() throws IOException {
+        final File file = temporaryFolder.newFile("words.dict");
+        writeCorruptFile(file);
+
+        new MappedWordIndex(file);
+    }
+
+    /**
+     * Verify that mapping a file that isn't a dictionary file will throw an
+     * {@link java.io.IOException}.
+     * @throws IOException Always.
+     */
+    @Test(expected=IOException.class)
+    public void testNotADictionary() throws IOException {
+        final File file = temporaryFolder.newFile("words.txt");
+        final FileOutputStream outputStream = new FileOutputStream(file);
+        outputStream.write("cat\ndog\ncouch\n".getBytes("US-ASCII"));
+        outputStream.close();
+
+        new MappedWordIndex(file);
+    }
+
+    /**
+     * Write a dictionary file whose only word length has more words than the file holds.
+     * @param file The file to write to.
+     * @throws IOException If the file can't be written.
+     */
+    private static void writeCorruptFile(final File file) throws IOException {
+        final DataOutputStream outputStream = new DataOutputStream(new FileOutputStream(file));
+        try {
+            outputStream.writeInt(MappedWordIndex.MAGIC);
+            outputStream.writeInt(MappedWordIndex.VERSION);
+            outputStream.writeLong(0L);
+            outputStream.writeInt(4);
+            for(int wordLength = 0; wordLength < 4; wordLength++) {
+                outputStream.writeInt(wordLength == 3 ? 1000 : 0);
+                outputStream.writeInt(52);
+            }
+            outputStream.writeBytes("catdog");
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    /**
+     * Provides the test words and counts how many times it's been asked to.
+     */
+    private static class CountingWordListProvider implements Provider<WordList> {
+        private int count;
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public WordList get() {
+            count++;
+            return new WordList() {
+                @Override
+                public List<String> getWordList() {
+                    return WORDS;
+                }
+            };
+        }
+
+        public int getCount() {
+            return count;
+        }
+    }
+}
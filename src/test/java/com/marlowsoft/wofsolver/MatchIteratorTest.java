@@ -0,0 +1,77 @@
+package com.marlowsoft.wofsolver;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+import com.marlowsoft.wofsolver.dictionary.LetterBitsetIndex;
+import com.marlowsoft.wofsolver.dictionary.MatchIterator;
+import com.marlowsoft.wofsolver.dictionary.WordSearch;
+import com.marlowsoft.wofsolver.dictionary.WordSearchQueryImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Tests the {@link com.marlowsoft.wofsolver.dictionary.MatchIterator} class.
+ */
+public class MatchIteratorTest {
+    private static final ImmutableList<String> WORDS =
+            ImmutableList.of("cinch", "coach", "conch", "couch", "pinch", "punch", "cat");
+    private static final WordSearchQueryImpl CH_QUERY =
+            new WordSearchQueryImpl.WordSearchQueryBuilder()
+                    .setWordLength(5)
+                    .addKnownLetter(3, 'c')
+                    .addKnownLetter(4, 'h')
+                    .addUsedLetter('o')
+                    .build();
+
+    /**
+     * Verify that iterating gets the same words as searching.
+     */
+    @Test
+    public void testIterate() {
+        final WordSearch wordSearch = new WordSearch(new LetterBitsetIndex(WORDS));
+
+        Assert.assertEquals(wordSearch.getMatchedWords(CH_QUERY),
+                ImmutableList.copyOf(wordSearch.getMatchIterator(CH_QUERY)));
+        Assert.assertEquals(ImmutableList.of("cinch", "pinch"),
+                ImmutableList.copyOf(Iterators.limit(wordSearch.getMatchIterator(CH_QUERY), 2)));
+        Assert.assertTrue(Iterators.any(wordSearch.getMatchIterator(CH_QUERY),
+                new Predicate<String>() {
+                    @Override
+                    public boolean apply(final String word) {
+                        return word.startsWith("p");
+                    }
+                }));
+    }
+
+    /**
+     * Verify that ordinals can be iterated over without getting the words, and that iterating
+     * past the last match fails.
+     */
+    @Test(expected = NoSuchElementException.class)
+    public void testNextOrdinal() {
+        final WordSearch wordSearch = new WordSearch(new LetterBitsetIndex(WORDS));
+        final MatchIterator matchIterator = wordSearch.getMatchIterator(CH_QUERY);
+
+        Assert.assertEquals(5, matchIterator.getWordLength());
+        Assert.assertEquals(0, matchIterator.nextOrdinal());
+        Assert.assertEquals(4, matchIterator.nextOrdinal());
+        Assert.assertEquals("punch", matchIterator.next());
+        Assert.assertFalse(matchIterator.hasNext());
+        matchIterator.nextOrdinal();
+    }
+
+    /**
+     * Verify that iterating over a length without any words doesn't match anything.
+     */
+    @Test
+    public void testNoWords() {
+        final WordSearch wordSearch = new WordSearch(new LetterBitsetIndex(WORDS));
+        Assert.assertFalse(wordSearch.getMatchIterator(
+                new WordSearchQueryImpl.WordSearchQueryBuilder()
+                        .setWordLength(4)
+                        .build()).hasNext());
+    }
+}
@@ -0,0 +1,107 @@
+package com.marlowsoft.wofsolver;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.inject.Guice;
+import com.marlowsoft.wofsolver.bind.WofModule;
+import com.marlowsoft.wofsolver.dictionary.LetterBitsetIndex;
+import com.marlowsoft.wofsolver.dictionary.MatchPage;
+import com.marlowsoft.wofsolver.dictionary.WordSearch;
+import com.marlowsoft.wofsolver.dictionary.WordSearchQueryImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Tests the {@link com.marlowsoft.wofsolver.dictionary.MatchPage} class.
+ */
+public class MatchPageTest {
+    private static final ImmutableList<String> WORDS =
+            ImmutableList.of("cinch", "coach", "conch", "couch", "pinch", "punch", "cat");
+
+    /**
+     * Verify that each page picks up right where the previous one stopped.
+     */
+    @Test
+    public void testPages() {
+        final WordSearch wordSearch = new WordSearch(new LetterBitsetIndex(WORDS));
+        final WordSearchQueryImpl searchQuery = new WordSearchQueryImpl.WordSearchQueryBuilder()
+                .setWordLength(5)
+                .addKnownLetter(4, 'h')
+                .addUsedLetter('o')
+                .build();
+
+        final MatchPage firstPage = wordSearch.getMatchedWordsPage(searchQuery, 2);
+        Assert.assertEquals(ImmutableList.of("cinch", "pinch"), firstPage.getWords());
+        Assert.assertTrue(firstPage.hasNextPage());
+
+        final MatchPage lastPage =
+                wordSearch.getMatchedWordsPage(searchQuery, firstPage.getResumeToken(), 2);
+        Assert.assertEquals(ImmutableList.of("punch"), lastPage.getWords());
+        Assert.assertFalse(lastPage.hasNextPage());
+        Assert.assertNull(lastPage.getResumeToken());
+    }
+
+    /**
+     * Verify that paging through a large number of words gets every word, in order.
+     */
+    @Test
+    public void testPageThroughDictionary() {
+        final WordSearch wordSearch =
+                Guice.createInjector(new WofModule()).getInstance(WordSearch.class);
+        final WordSearchQueryImpl searchQuery = new WordSearchQueryImpl.WordSearchQueryBuilder()
+                .setWordLength(7)
+                .addUsedLetter('e')
+                .addUsedLetter('a')
+                .build();
+
+        final List<String> pagedWords = Lists.newArrayList();
+        String resumeToken = null;
+        do {
+            final MatchPage matchPage =
+                    wordSearch.getMatchedWordsPage(searchQuery, resumeToken, 37);
+            Assert.assertTrue(matchPage.getWords().size() <= 37);
+            pagedWords.addAll(matchPage.getWords());
+            resumeToken = matchPage.getResumeToken();
+        } while(resumeToken != null);
+
+        Assert.assertEquals(wordSearch.getMatchedWords(searchQuery), pagedWords);
+    }
+
+    /**
+     * Verify that a token can't be used to resume a different search.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testTokenOfOtherQuery() {
+        final WordSearch wordSearch = new WordSearch(new LetterBitsetIndex(WORDS));
+        final MatchPage firstPage = wordSearch.getMatchedWordsPage(
+                new WordSearchQueryImpl.WordSearchQueryBuilder()
+                        .setWordLength(5)
+                        .build(), 1);
+
+        wordSearch.getMatchedWordsPage(new WordSearchQueryImpl.WordSearchQueryBuilder()
+                .setWordLength(5)
+                .addUsedLetter('o')
+                .build(), firstPage.getResumeToken(), 1);
+    }
+
+    /**
+     * Verify that a token can't be used to resume a search with the same letters known at other
+     * positions.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testTokenOfOtherKnownLetters() {
+        final WordSearch wordSearch = new WordSearch(new LetterBitsetIndex(WORDS));
+        final MatchPage firstPage = wordSearch.getMatchedWordsPage(
+                new WordSearchQueryImpl.WordSearchQueryBuilder()
+                        .setWordLength(5)
+                        .addKnownLetter(4, 'h')
+                        .build(), 1);
+
+        wordSearch.getMatchedWordsPage(new WordSearchQueryImpl.WordSearchQueryBuilder()
+                .setWordLength(5)
+                .addKnownLetter(3, 'h')
+                .build(), firstPage.getResumeToken(), 1);
+    }
+}
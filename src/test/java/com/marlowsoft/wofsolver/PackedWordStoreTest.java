@@ -0,0 +1,74 @@
+package com.marlowsoft.wofsolver;
+
+import com.google.common.collect.ImmutableList;
+import com.marlowsoft.wofsolver.dictionary.CompiledWordQuery;
+import com.marlowsoft.wofsolver.dictionary.PackedWordStore;
+import com.marlowsoft.wofsolver.dictionary.WordSearchQueryImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the {@link com.marlowsoft.wofsolver.dictionary.PackedWordStore} class.
+ */
+public class PackedWordStoreTest {
+    private static final ImmutableList<String> WORDS =
+            ImmutableList.of("cat", "dog", "couch", "coach", "cinch", "conch", "cot", "o'er");
+
+    /**
+     * Verify that words are grouped by length, kept in dictionary order and unpacked intact.
+     */
+    @Test
+    public void testGetWord() {
+        final PackedWordStore wordStore = new PackedWordStore(WORDS);
+
+        Assert.assertEquals(5, wordStore.getMaxWordLength());
+        Assert.assertEquals(3, wordStore.getWordCount(3));
+        Assert.assertEquals(1, wordStore.getWordCount(4));
+        Assert.assertEquals(0, wordStore.getWordCount(2));
+        Assert.assertEquals(0, wordStore.getWordCount(99));
+        Assert.assertEquals("cot", wordStore.getWord(3, 2));
+        Assert.assertEquals("coach", wordStore.getWord(5, 1));
+        Assert.assertEquals("o'er", wordStore.getWord(4, 0));
+        Assert.assertEquals('u', wordStore.getLetter(5, 0, 2));
+        Assert.assertEquals(CompiledWordQuery.getLetterMask("coach"),
+                wordStore.getLetterMask(5, 1));
+    }
+
+    /**
+     * Verify that asking for a word that doesn't exist fails.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetWordOutOfBounds() {
+        new PackedWordStore(WORDS).getWord(3, 3);
+    }
+
+    /**
+     * Verify that words with letters that can't be stored as ASCII are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonAsciiWord() {
+        new PackedWordStore(ImmutableList.of("caf\u00e9"));
+    }
+
+    /**
+     * Verify that scanning the packed words finds the same words as the regular expression did.
+     */
+    @Test
+    public void testFindMatches() {
+        final PackedWordStore wordStore = new PackedWordStore(WORDS);
+        final long[] matches = new long[1];
+
+        wordStore.findMatches(new CompiledWordQuery(new WordSearchQueryImpl.WordSearchQueryBuilder()
+                .setWordLength(5)
+                .addKnownLetter(0, 'c')
+                .addUsedLetter('n')
+                .build()), 0, matches);
+        Assert.assertEquals(0x3L, matches[0]);
+
+        // searching past the end of a length group doesn't match anything
+        wordStore.findMatches(new CompiledWordQuery(new WordSearchQueryImpl.WordSearchQueryBuilder()
+                .setWordLength(3)
+                .build()), 1, matches);
+        Assert.assertEquals(0L, matches[0]);
+    }
+}
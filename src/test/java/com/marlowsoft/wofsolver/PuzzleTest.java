@@ -0,0 +1,71 @@
+package com.marlowsoft.wofsolver;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.marlowsoft.wofsolver.dictionary.WordSearchQueryImpl;
+import com.marlowsoft.wofsolver.headless.Puzzle;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the {@link com.marlowsoft.wofsolver.headless.Puzzle} class.
+ */
+public class PuzzleTest {
+    /**
+     * Verify that the board and the excluded letters are read.
+     */
+    @Test
+    public void testParse() {
+        final Puzzle puzzle = Puzzle.parse("  WH__L o_  _o_t_ne |  r, S z ");
+        Assert.assertEquals(ImmutableList.of("wh__l", "o_", "_o_t_ne"), puzzle.getWordPatterns());
+        Assert.assertEquals(ImmutableSet.of('r', 's', 'z'), puzzle.getExcludedLetters());
+        Assert.assertEquals(ImmutableSet.of('w', 'h', 'l', 'o', 't', 'n', 'e'),
+                puzzle.getRevealedLetters());
+        Assert.assertEquals("wh__l o_ _o_t_ne | rsz", puzzle.toString());
+        Assert.assertEquals(puzzle.toString(), Puzzle.parse(puzzle.toString()).toString());
+
+        final Puzzle noExcludedLetters = Puzzle.parse("rock-n-roll");
+        Assert.assertEquals(ImmutableList.of("rock-n-roll"), noExcludedLetters.getWordPatterns());
+        Assert.assertTrue(noExcludedLetters.getExcludedLetters().isEmpty());
+        Assert.assertEquals("rock-n-roll", noExcludedLetters.toString());
+    }
+
+    /**
+     * Verify that there's a query for every word on the board.
+     */
+    @Test
+    public void testSearchQueries() {
+        final WordSearchQueryImpl searchQuery =
+                Puzzle.parse("c__ch _ | n").getSearchQueries().get(0);
+        Assert.assertEquals(5, searchQuery.getWordLength());
+        Assert.assertEquals(ImmutableMap.of(0, 'c', 3, 'c', 4, 'h'), searchQuery.getKnownLetters());
+        Assert.assertEquals(ImmutableSet.of('n'), searchQuery.getUsedLetters());
+        Assert.assertEquals(ImmutableSet.of('c', 'h'), searchQuery.getRevealedLetters());
+        Assert.assertEquals(2, Puzzle.parse("c__ch _ | n").getSearchQueries().size());
+    }
+
+    /**
+     * Verify that a board can't have characters that aren't letters.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadBoard() {
+        Puzzle.parse("c_?ch");
+    }
+
+    /**
+     * Verify that a board has to have a word.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyBoard() {
+        Puzzle.parse("  | rst");
+    }
+
+    /**
+     * Verify that only letters can be excluded.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadExcludedLetter() {
+        Puzzle.parse("c__ch | r_t");
+    }
+}
@@ -0,0 +1,119 @@
+package com.marlowsoft.wofsolver;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import com.marlowsoft.wofsolver.dictionary.LetterBitsetIndex;
+import com.marlowsoft.wofsolver.dictionary.WordSearch;
+import com.marlowsoft.wofsolver.headless.PuzzleSolver;
+import com.marlowsoft.wofsolver.headless.SolverDaemon;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+
+/**
+ * Tests the {@link com.marlowsoft.wofsolver.headless.SolverDaemon} class.
+ */
+public class SolverDaemonTest {
+    private static final ImmutableList<String> WORDS =
+            ImmutableList.of("cinch", "coach", "conch", "couch", "pinch", "punch", "cat", "a");
+
+    /**
+     * Verify that every pipelined request is answered, by id.
+     * @throws Exception If a problem occurs while serving.
+     */
+    @Test
+    public void testServe() throws Exception {
+        final SolverDaemon solverDaemon = new SolverDaemon(
+                new PuzzleSolver(new WordSearch(new LetterBitsetIndex(WORDS))), 4, 2);
+        try {
+            final StringWriter responses = new StringWriter();
+            solverDaemon.serve(new StringReader(Joiner.on('\n').join(
+                    "1 solve c__ch | n",
+                    "",
+                    "2 count _ c__ch",
+                    "3 guess c__ch",
+                    "4 solve c?t")), responses);
+
+            // responses can be in any order
+            Assert.assertEquals(ImmutableSet.of(
+                    "{\"id\":\"1\",\"puzzle\":\"c__ch | n\",\"words\":" +
+                            "[{\"pattern\":\"c__ch\",\"count\":2," +
+                            "\"candidates\":[\"coach\",\"couch\"]}]}",
+                    "{\"id\":\"2\",\"counts\":[1,4]}",
+                    "{\"id\":\"3\",\"error\":\"Unknown command \\\"guess\\\"\"}",
+                    "{\"id\":\"4\",\"error\":\"'?' can't be on the board\"}"),
+                    ImmutableSet.copyOf(responses.toString().split("\n")));
+        } finally {
+            solverDaemon.close();
+        }
+    }
+
+    /**
+     * Verify that clients can connect over the loopback address.
+     * @throws Exception If a problem occurs while serving.
+     */
+    @Test
+    public void testServeSocket() throws Exception {
+        final SolverDaemon solverDaemon = new SolverDaemon(
+                new PuzzleSolver(new WordSearch(new LetterBitsetIndex(WORDS))), 2, 10);
+        final ServerSocket serverSocket =
+                new ServerSocket(0, 0, InetAddress.getLoopbackAddress());
+        final Thread serverThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    solverDaemon.serve(serverSocket);
+                } catch(final Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        serverThread.start();
+
+        try {
+            final Socket socket =
+                    new Socket(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort());
+            try {
+                final Writer requests =
+                        new OutputStreamWriter(socket.getOutputStream(), Charsets.UTF_8);
+                final BufferedReader responses = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), Charsets.UTF_8));
+
+                // send every request before reading any response
+                final Set<String> expectedResponses = Sets.newHashSet();
+                for(int requestId = 0; requestId < 100; requestId++) {
+                    requests.write(requestId + " count " +
+                            (requestId % 2 == 0 ? "c__ch" : "____h") + "\n");
+                    expectedResponses.add("{\"id\":\"" + requestId + "\",\"counts\":[" +
+                            (requestId % 2 == 0 ? 4 : 6) + "]}");
+                }
+                requests.flush();
+
+                final Set<String> actualResponses = Sets.newHashSet();
+                for(int responseIdx = 0; responseIdx < 100; responseIdx++) {
+                    actualResponses.add(responses.readLine());
+                }
+                Assert.assertEquals(expectedResponses, actualResponses);
+            } finally {
+                socket.close();
+            }
+        } finally {
+            serverSocket.close();
+            serverThread.join();
+            solverDaemon.close();
+        }
+    }
+}
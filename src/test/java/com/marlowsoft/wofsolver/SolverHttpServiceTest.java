@@ -0,0 +1,252 @@
+package com.marlowsoft.wofsolver;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.marlowsoft.wofsolver.dictionary.LetterBitsetIndex;
+import com.marlowsoft.wofsolver.dictionary.WordSearch;
+import com.marlowsoft.wofsolver.headless.Puzzle;
+import com.marlowsoft.wofsolver.headless.PuzzleSolver;
+import com.marlowsoft.wofsolver.headless.SolverHttpService;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests the {@link com.marlowsoft.wofsolver.headless.SolverHttpService} class.
+ */
+public class SolverHttpServiceTest {
+    private static final ImmutableList<String> WORDS =
+            ImmutableList.of("cinch", "coach", "conch", "couch", "pinch", "punch", "cat", "a");
+
+    private SolverHttpService httpService;
+
+    /**
+     * Start a service on a free port of the loopback address.
+     * @throws Exception If the service can't be started.
+     */
+    @Before
+    public void setUp() throws Exception {
+        httpService = startService(
+                new PuzzleSolver(new WordSearch(new LetterBitsetIndex(WORDS))), 2);
+    }
+
+    /**
+     * Stop the service.
+     */
+    @After
+    public void tearDown() {
+        httpService.close();
+    }
+
+    /**
+     * Verify the query and count endpoints.
+     * @throws Exception If a problem occurs while requesting.
+     */
+    @Test
+    public void testQueryAndCount() throws Exception {
+        final String puzzle = URLEncoder.encode("c__ch | n", "UTF-8");
+        Assert.assertEquals("{\"puzzle\":\"c__ch | n\",\"words\":" +
+                        "[{\"pattern\":\"c__ch\",\"count\":2,\"candidates\":[\"coach\"]}]}",
+                request("GET", "/query?limit=1&puzzle=" + puzzle, null, 200));
+        Assert.assertEquals("{\"counts\":[1,4]}",
+                request("GET", "/count?puzzle=_+c__ch", null, 200));
+        Assert.assertEquals("{\"error\":\"The puzzle parameter is missing\"}",
+                request("GET", "/count", null, 400));
+        Assert.assertEquals("{\"error\":\"Only GET is supported\"}",
+                request("POST", "/query?puzzle=c__ch", "", 405));
+    }
+
+    /**
+     * Verify the batch endpoint.
+     * @throws Exception If a problem occurs while requesting.
+     */
+    @Test
+    public void testBatch() throws Exception {
+        Assert.assertEquals("{\"solutions\":[" +
+                        "{\"puzzle\":\"c_t\",\"words\":" +
+                        "[{\"pattern\":\"c_t\",\"count\":1,\"candidates\":[\"cat\"]}]}," +
+                        "{\"puzzle\":\"p___h\",\"words\":" +
+                        "[{\"pattern\":\"p___h\",\"count\":2," +
+                        "\"candidates\":[\"pinch\",\"punch\"]}]}]}",
+                request("POST", "/batch", "c_t\n\np___h\n", 200));
+    }
+
+    /**
+     * Verify that the stats count every answered request.
+     * @throws Exception If a problem occurs while requesting.
+     */
+    @Test
+    public void testStats() throws Exception {
+        for(int requestIdx = 0; requestIdx < 5; requestIdx++) {
+            request("GET", "/count?puzzle=c__ch", null, 200);
+        }
+        final String stats = request("GET", "/stats", null, 200);
+        Assert.assertTrue(stats, stats.matches(
+                "\\{\"requests\":5,\"p50Micros\":\\d+,\"p99Micros\":\\d+\\}"));
+        Assert.assertEquals(5L, httpService.getLatencyRecorder().getCount());
+    }
+
+    /**
+     * Verify that a request whose answer fails gets a 500 response, and that the service keeps
+     * answering afterwards.
+     * @throws Exception If a problem occurs while requesting.
+     */
+    @Test
+    public void testInternalError() throws Exception {
+        httpService.close();
+        httpService = startService(
+                new PuzzleSolver(new WordSearch(new LetterBitsetIndex(WORDS))) {
+                    @Override
+                    public List<Integer> count(final Puzzle puzzle) {
+                        throw new IllegalStateException("broken");
+                    }
+                }, 1);
+
+        Assert.assertEquals("{\"error\":\"java.lang.IllegalStateException: broken\"}",
+                request("GET", "/count?puzzle=c__ch", null, 500));
+        Assert.assertEquals("{\"error\":\"java.lang.IllegalStateException: broken\"}",
+                request("GET", "/count?puzzle=c__ch", null, 500));
+    }
+
+    /**
+     * Verify that requests beyond what the workers can hold are turned away with a 503
+     * response, and that the rest are still answered.
+     * @throws Exception If a problem occurs while requesting.
+     */
+    @Test
+    public void testOverloaded() throws Exception {
+        final CountDownLatch unblock = new CountDownLatch(1);
+        httpService.close();
+        httpService = startService(
+                new PuzzleSolver(new WordSearch(new LetterBitsetIndex(WORDS))) {
+                    @Override
+                    public List<Integer> count(final Puzzle puzzle) {
+                        Uninterruptibles.awaitUninterruptibly(unblock);
+                        return super.count(puzzle);
+                    }
+                }, 1);
+
+        // one request is answered by the only worker and 64 wait for it; the rest are turned away
+        final int requestCount = 70;
+        final int acceptedCount = 1 + 64;
+        final ExecutorService clients = Executors.newFixedThreadPool(requestCount);
+        final AtomicInteger unavailableCount = new AtomicInteger();
+        final List<Future<Integer>> statuses = Lists.newArrayList();
+        try {
+            for(int requestIdx = 0; requestIdx < requestCount; requestIdx++) {
+                statuses.add(clients.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        final int status = getStatus("/count?puzzle=c__ch");
+                        if(status == HttpURLConnection.HTTP_UNAVAILABLE) {
+                            unavailableCount.incrementAndGet();
+                        }
+                        return status;
+                    }
+                }));
+            }
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while(unavailableCount.get() < requestCount - acceptedCount &&
+                    System.nanoTime() - deadline < 0) {
+                Thread.sleep(10);
+            }
+            unblock.countDown();
+
+            int okCount = 0;
+            for(final Future<Integer> status : statuses) {
+                okCount += status.get() == HttpURLConnection.HTTP_OK ? 1 : 0;
+            }
+            Assert.assertEquals(acceptedCount, okCount);
+            Assert.assertEquals(requestCount - acceptedCount, unavailableCount.get());
+        } finally {
+            unblock.countDown();
+            clients.shutdownNow();
+        }
+    }
+
+    /**
+     * Start a service on a free port of the loopback address.
+     * @param puzzleSolver Solves the puzzles.
+     * @param threadCount The number of worker threads.
+     * @return The service.
+     * @throws Exception If the service can't be started.
+     */
+    private static SolverHttpService startService(final PuzzleSolver puzzleSolver,
+                                                  final int threadCount) throws Exception {
+        final SolverHttpService solverHttpService = new SolverHttpService(puzzleSolver,
+                threadCount, 2, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        solverHttpService.start();
+        return solverHttpService;
+    }
+
+    /**
+     * Make a GET request of the service, without looking at the response body.
+     * @param pathAndQuery The path and query string.
+     * @return The status of the response.
+     * @throws Exception If a problem occurs while requesting.
+     */
+    private int getStatus(final String pathAndQuery) throws Exception {
+        final InetSocketAddress address = httpService.getAddress();
+        final HttpURLConnection connection = (HttpURLConnection)new URL("http",
+                address.getHostString(), address.getPort(), pathAndQuery).openConnection();
+        try {
+            return connection.getResponseCode();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Make a request of the service.
+     * @param method The HTTP method.
+     * @param pathAndQuery The path and query string.
+     * @param body The body of the request, or <code>null</code> for none.
+     * @param expectedStatus The status the response should have.
+     * @return The body of the response.
+     * @throws Exception If a problem occurs while requesting.
+     */
+    private String request(final String method,
+                           final String pathAndQuery,
+                           final String body,
+                           final int expectedStatus) throws Exception {
+        final InetSocketAddress address = httpService.getAddress();
+        final HttpURLConnection connection = (HttpURLConnection)new URL("http",
+                address.getHostString(), address.getPort(), pathAndQuery).openConnection();
+        connection.setRequestMethod(method);
+        if(body != null) {
+            connection.setDoOutput(true);
+            final OutputStream requestBody = connection.getOutputStream();
+            requestBody.write(body.getBytes(Charsets.UTF_8));
+            requestBody.close();
+        }
+
+        Assert.assertEquals(expectedStatus, connection.getResponseCode());
+        final InputStream responseBody = connection.getResponseCode() < 400 ?
+                connection.getInputStream() : connection.getErrorStream();
+        try {
+            return new String(ByteStreams.toByteArray(responseBody), Charsets.UTF_8);
+        } finally {
+            responseBody.close();
+        }
+    }
+}
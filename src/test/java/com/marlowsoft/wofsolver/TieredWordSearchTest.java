@@ -0,0 +1,124 @@
+package com.marlowsoft.wofsolver;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Guice;
+import com.marlowsoft.wofsolver.bind.WofModule;
+import com.marlowsoft.wofsolver.dictionary.CandidateSet;
+import com.marlowsoft.wofsolver.dictionary.DictionaryTier;
+import com.marlowsoft.wofsolver.dictionary.LetterBitsetIndex;
+import com.marlowsoft.wofsolver.dictionary.TieredWord;
+import com.marlowsoft.wofsolver.dictionary.TieredWordSearch;
+import com.marlowsoft.wofsolver.dictionary.WordFrequencies;
+import com.marlowsoft.wofsolver.dictionary.WordSearch;
+import com.marlowsoft.wofsolver.dictionary.WordSearchQueryImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests the {@link com.marlowsoft.wofsolver.dictionary.TieredWordSearch} class.
+ */
+public class TieredWordSearchTest {
+    private static final ImmutableList<String> CORE_WORDS = ImmutableList.of("coach", "couch");
+    private static final ImmutableList<String> WORDS =
+            ImmutableList.of("cinch", "coach", "conch", "couch", "pinch", "punch", "cat");
+
+    /**
+     * Verify that the later tiers are only searched when the earlier ones don't fill the limit,
+     * and that every word is found once.
+     */
+    @Test
+    public void testTiers() {
+        final TieredWordSearch tieredWordSearch = new TieredWordSearch(
+                new LetterBitsetIndex(CORE_WORDS), new LetterBitsetIndex(WORDS));
+        final WordSearchQueryImpl searchQuery = new WordSearchQueryImpl.WordSearchQueryBuilder()
+                .setWordLength(5)
+                .addKnownLetter(0, 'c')
+                .addKnownLetter(4, 'h')
+                .build();
+
+        Assert.assertEquals(ImmutableList.of(
+                new TieredWord("coach", TieredWordSearch.CORE_TIER),
+                new TieredWord("couch", TieredWordSearch.CORE_TIER)),
+                tieredWordSearch.getMatchedWords(searchQuery, 2));
+        Assert.assertEquals(ImmutableList.of(
+                new TieredWord("coach", TieredWordSearch.CORE_TIER),
+                new TieredWord("couch", TieredWordSearch.CORE_TIER),
+                new TieredWord("cinch", TieredWordSearch.FULL_TIER),
+                new TieredWord("conch", TieredWordSearch.FULL_TIER)),
+                tieredWordSearch.getMatchedWords(searchQuery, 10));
+        Assert.assertEquals(3, tieredWordSearch.getMatchedWords(searchQuery, 3).size());
+        Assert.assertTrue(tieredWordSearch.getMatchedWords(searchQuery, 0).isEmpty());
+    }
+
+    /**
+     * Verify that the last tier is filled from the candidates, and that the common words are
+     * ranked by how common they are.
+     */
+    @Test
+    public void testCandidates() {
+        final LetterBitsetIndex fullWordIndex = new LetterBitsetIndex(WORDS);
+        final TieredWordSearch tieredWordSearch = new TieredWordSearch(
+                new LetterBitsetIndex(CORE_WORDS), fullWordIndex, new WordFrequencies() {
+                    @Override
+                    public int getFrequency(final String word) {
+                        return "couch".equals(word) ? 1 : 0;
+                    }
+
+                    @Override
+                    public Map<String, Integer> getFrequencies() {
+                        return ImmutableMap.of("couch", 1);
+                    }
+                });
+        final CandidateSet candidateSet = new WordSearch(fullWordIndex).getCandidates(
+                new WordSearchQueryImpl.WordSearchQueryBuilder()
+                        .setWordLength(5)
+                        .addKnownLetter(0, 'c')
+                        .addKnownLetter(4, 'h')
+                        .build());
+
+        Assert.assertEquals(ImmutableList.of(
+                new TieredWord("couch", TieredWordSearch.CORE_TIER),
+                new TieredWord("coach", TieredWordSearch.CORE_TIER),
+                new TieredWord("cinch", TieredWordSearch.FULL_TIER)),
+                tieredWordSearch.getMatchedWords(candidateSet, 3));
+
+        candidateSet.addExcludedLetter('a');
+        Assert.assertEquals(ImmutableList.of(
+                new TieredWord("couch", TieredWordSearch.CORE_TIER),
+                new TieredWord("cinch", TieredWordSearch.FULL_TIER),
+                new TieredWord("conch", TieredWordSearch.FULL_TIER)),
+                tieredWordSearch.getMatchedWords(candidateSet, 10));
+    }
+
+    /**
+     * Verify that a search needs a tier.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoTiers() {
+        new TieredWordSearch(ImmutableList.<DictionaryTier>of());
+    }
+
+    /**
+     * Verify that common words are found in the core tier of the dictionary.
+     */
+    @Test
+    public void testDictionary() {
+        final TieredWordSearch tieredWordSearch = Guice.createInjector(new WofModule())
+                .getInstance(TieredWordSearch.class);
+        final List<TieredWord> matchedWords = tieredWordSearch.getMatchedWords(
+                new WordSearchQueryImpl.WordSearchQueryBuilder()
+                        .setWordLength(5)
+                        .addKnownLetter(0, 'w')
+                        .addKnownLetter(1, 'a')
+                        .addKnownLetter(4, 'r')
+                        .build(), 5);
+
+        Assert.assertEquals(new TieredWord("water", TieredWordSearch.CORE_TIER),
+                matchedWords.get(0));
+        Assert.assertEquals(TieredWordSearch.FULL_TIER, matchedWords.get(4).getTier());
+    }
+}
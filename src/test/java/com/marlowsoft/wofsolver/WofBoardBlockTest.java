@@ -1,7 +1,8 @@
 package com.marlowsoft.wofsolver;
 
+import com.google.common.util.concurrent.MoreExecutors;
 import com.marlowsoft.wofsolver.ui.WofBoardBlock;
-import com.marlowsoft.wofsolver.ui.event.BlockValueChangedDispatcher;
+import com.marlowsoft.wofsolver.ui.event.BoardEventBus;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -99,8 +100,11 @@ public class WofBoardBlockTest {
     public void testDocumentListener() {
         final JDialog jDialog = new JDialog();
         final BlockChangedListenerTestImpl listener = new BlockChangedListenerTestImpl();
-        BlockValueChangedDispatcher.addListener(listener);
+        // deliver every change right away
+        final BoardEventBus eventBus = new BoardEventBus(MoreExecutors.directExecutor());
+        eventBus.addListener(listener);
         final WofBoardBlock wofBoardBlock = new WofBoardBlock(WofBoardBlock.BlockType.GLYPH);
+        wofBoardBlock.setEventBus(eventBus, 0, 0);
         wofBoardBlock.setVisible(true);
         wofBoardBlock.setEditable(true);
         jDialog.add(wofBoardBlock);
@@ -57,7 +57,7 @@ public class WofBoardTest {
      * updated correctly.
      */
     @Test
-    public void testOnBlockValueChanged() {
+    public void testOnBlockValueChanged() throws Exception {
         final WofBoard wofBoard = new WofBoard(injector);
 
         wofBoard.pack();
@@ -79,12 +79,12 @@ public class WofBoardTest {
 
         // this works just as well as hooking together the event dispatchers
         gameBoardBlock.setText("A");
-        wofBoard.onBlockValueChanged();
+        lookAtBlocks(wofBoard);
 
         Assert.assertEquals(LetterLabel.GuessType.CORRECT, letterLabel.getGuessType());
 
         gameBoardBlock.setText("");
-        wofBoard.onBlockValueChanged();
+        lookAtBlocks(wofBoard);
 
         Assert.assertEquals(LetterLabel.GuessType.NONE, letterLabel.getGuessType());
     }
@@ -162,7 +162,7 @@ public class WofBoardTest {
      * on the "suggested solution".
      */
     @Test
-    public void testGetSingleSuggestedWord() throws InterruptedException {
+    public void testGetSingleSuggestedWord() throws Exception {
         final WofBoard wofBoard = new WofBoard(injector);
 
         wofBoard.pack();
@@ -200,17 +200,21 @@ public class WofBoardTest {
         robot.mousePress(InputEvent.BUTTON1_MASK);
         robot.mouseRelease(InputEvent.BUTTON1_MASK);
 
-        // fill in a few letters to get the word "unique"
+        // fill in a few letters to get the word "unique"; like in the game, calling a letter
+        // reveals every one of it, so "U__QUE" is the only way to show U, Q and E
         boardBlock = (WofBoardBlock)gamePanel.getComponent(1);
         boardBlock.setText("U");
 
         boardBlock = (WofBoardBlock)gamePanel.getComponent(4);
         boardBlock.setText("Q");
 
+        boardBlock = (WofBoardBlock)gamePanel.getComponent(5);
+        boardBlock.setText("U");
+
         boardBlock = (WofBoardBlock)gamePanel.getComponent(6);
         boardBlock.setText("E");
 
-        wofBoard.onBlockValueChanged();
+        lookAtBlocks(wofBoard);
 
         // since there's a call to queue up the function to update the "suggested words",
         //  wait for a bit to make sure that the function executes
@@ -229,4 +233,18 @@ public class WofBoardTest {
         boardBlock = (WofBoardBlock)suggestionPanel.getComponent(6);
         Assert.assertEquals("E", boardBlock.getText());
     }
+
+    /**
+     * Have a board look at every block again, on the event dispatch thread as it has to be.
+     * @param wofBoard The board.
+     * @throws Exception If the thread is interrupted or the board fails.
+     */
+    private static void lookAtBlocks(final WofBoard wofBoard) throws Exception {
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                wofBoard.onBlockValueChanged();
+            }
+        });
+    }
 }
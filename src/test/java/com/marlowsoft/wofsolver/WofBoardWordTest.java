@@ -86,4 +86,23 @@ public class WofBoardWordTest {
         Assert.assertTrue(tooltipText.contains("bar"));
         Assert.assertTrue(tooltipText.contains("baz"));
     }
+
+    /**
+     * Verifies that setting the suggested words with a count shows the exact count.
+     */
+    @Test
+    public void testSetSuggestedWordsWithCount() {
+        final WofBoardBlock wofBoardBlock = new WofBoardBlock(WofBoardBlock.BlockType.GLYPH);
+        final List<WofBoardBlock> boardBlocks = Lists.newArrayList();
+        boardBlocks.add(wofBoardBlock);
+
+        final WofBoardWord wofBoardWord = new WofBoardWord(boardBlocks, 0, 0);
+
+        wofBoardWord.setSuggestedWords(Lists.newArrayList("foo", "bar"), 1284);
+        Assert.assertTrue(wofBoardBlock.getToolTipText().contains("(1,284 candidates)"));
+        Assert.assertTrue(wofBoardBlock.getToolTipText().contains("bar"));
+
+        wofBoardWord.setSuggestedWords(Lists.newArrayList("foo"), 1);
+        Assert.assertTrue(wofBoardBlock.getToolTipText().contains("(1 candidate)"));
+    }
 }
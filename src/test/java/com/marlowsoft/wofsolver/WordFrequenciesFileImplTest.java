@@ -0,0 +1,39 @@
+package com.marlowsoft.wofsolver;
+
+import com.google.inject.Guice;
+import com.marlowsoft.wofsolver.bind.WofModule;
+import com.marlowsoft.wofsolver.dictionary.WordFrequencies;
+import com.marlowsoft.wofsolver.dictionary.WordFrequenciesFileImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the {@link com.marlowsoft.wofsolver.dictionary.WordFrequenciesFileImpl} class.
+ */
+public class WordFrequenciesFileImplTest {
+    /**
+     * Verify that words listed first are the most common.
+     */
+    @Test
+    public void testFrequencies() {
+        final WordFrequencies wordFrequencies =
+                Guice.createInjector(new WofModule()).getInstance(WordFrequencies.class);
+
+        Assert.assertTrue(wordFrequencies.getFrequency("the") >
+                wordFrequencies.getFrequency("water"));
+        Assert.assertTrue(wordFrequencies.getFrequency("water") > 0);
+        Assert.assertEquals(0, wordFrequencies.getFrequency("aalii"));
+    }
+
+    /**
+     * Verify that no word is more common than any other without a file.
+     * @throws Exception If the file can't be read.
+     */
+    @Test
+    public void testMissingFile() throws Exception {
+        final WordFrequencies wordFrequencies =
+                new WordFrequenciesFileImpl("no-such-word-frequencies.txt");
+
+        Assert.assertEquals(0, wordFrequencies.getFrequency("the"));
+    }
+}
@@ -0,0 +1,36 @@
+package com.marlowsoft.wofsolver;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Guice;
+import com.marlowsoft.wofsolver.bind.WofModule;
+import com.marlowsoft.wofsolver.dictionary.WordList;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Tests the {@link com.marlowsoft.wofsolver.dictionary.WordListFileImpl} class.
+ */
+public class WordListFileImplTest {
+    /**
+     * Verify that the dictionary is loaded in lower case, without duplicates and in the order of
+     * the file.
+     * @throws Exception If the dictionary can't be loaded.
+     */
+    @Test
+    public void testNormalizedWordList() throws Exception {
+        final List<String> wordList =
+                Guice.createInjector(new WofModule()).getInstance(WordList.class).getWordList();
+
+        Assert.assertFalse(wordList.isEmpty());
+        for(final String word : wordList) {
+            Assert.assertEquals(word.toLowerCase(Locale.ENGLISH), word);
+        }
+        Assert.assertEquals(wordList.size(), ImmutableSet.copyOf(wordList).size());
+        // the file isn't sorted; it starts with "l"
+        Assert.assertEquals("l", wordList.get(0));
+        Assert.assertEquals("a", wordList.get(1));
+    }
+}
@@ -41,5 +41,47 @@ public class WordSearchQueryImplBuilderTest {
         Assert.assertFalse(searchQuery.getKnownLetters().containsKey(1));
         Assert.assertEquals((Character)'o', searchQuery.getKnownLetters().get(2));
         Assert.assertEquals((Character)'r', searchQuery.getKnownLetters().get(5));
+        Assert.assertTrue(searchQuery.getRevealedLetters().isEmpty());
+    }
+
+    /**
+     * Verify that queries built the same way are equal, no matter what order the letters
+     * were added in.
+     */
+    @Test
+    public void testWordSearchQueryEquals() {
+        final WordSearchQueryImpl searchQuery = new WordSearchQueryImpl.WordSearchQueryBuilder()
+                .setWordLength(5)
+                .addKnownLetter(0, 'c')
+                .addKnownLetter(3, 'c')
+                .addUsedLetter('t')
+                .addUsedLetter('s')
+                .build();
+        final WordSearchQueryImpl sameQuery = new WordSearchQueryImpl.WordSearchQueryBuilder()
+                .addUsedLetter('s')
+                .addUsedLetter('t')
+                .addKnownLetter(3, 'c')
+                .addKnownLetter(0, 'c')
+                .setWordLength(5)
+                .build();
+        final WordSearchQueryImpl otherQuery = new WordSearchQueryImpl.WordSearchQueryBuilder()
+                .setWordLength(5)
+                .addKnownLetter(0, 'c')
+                .addUsedLetter('t')
+                .build();
+
+        final WordSearchQueryImpl revealedQuery = new WordSearchQueryImpl.WordSearchQueryBuilder()
+                .setWordLength(5)
+                .addKnownLetter(0, 'c')
+                .addKnownLetter(3, 'c')
+                .addUsedLetter('t')
+                .addUsedLetter('s')
+                .addRevealedLetter('c')
+                .build();
+
+        Assert.assertEquals(searchQuery, sameQuery);
+        Assert.assertEquals(searchQuery.hashCode(), sameQuery.hashCode());
+        Assert.assertNotEquals(searchQuery, otherQuery);
+        Assert.assertNotEquals(searchQuery, revealedQuery);
     }
 }
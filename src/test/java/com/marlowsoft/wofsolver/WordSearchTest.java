@@ -3,6 +3,8 @@ package com.marlowsoft.wofsolver;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.marlowsoft.wofsolver.bind.WofModule;
+import com.marlowsoft.wofsolver.dictionary.LetterBitsetIndex;
+import com.marlowsoft.wofsolver.dictionary.PartialMatches;
 import com.marlowsoft.wofsolver.dictionary.WordSearch;
 import com.marlowsoft.wofsolver.dictionary.WordSearchQueryImpl;
 import org.junit.Assert;
@@ -10,7 +12,10 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Tests the {@link com.marlowsoft.wofsolver.dictionary.WordSearch} class.
@@ -127,4 +132,165 @@ public class WordSearchTest {
         }
         Assert.assertTrue(foundACouch);
     }
+
+    /**
+     * Search in parallel. Verify the same words are found, in the same order, as a serial search,
+     * both with and without a limit.
+     */
+    @Test
+    public void testWordSearchParallel() {
+        final WordSearch wordSearch = injector.getInstance(WordSearch.class);
+        final ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        try {
+            // the 8 letter words are plenty to be split up
+            final WordSearchQueryImpl broadQuery = new WordSearchQueryImpl.WordSearchQueryBuilder()
+                    .setWordLength(8)
+                    .addUsedLetter('e')
+                    .build();
+            final List<String> serialResults = wordSearch.getMatchedWords(broadQuery);
+            Assert.assertFalse(serialResults.isEmpty());
+            Assert.assertEquals(serialResults,
+                    wordSearch.getMatchedWords(broadQuery, forkJoinPool));
+            Assert.assertEquals(wordSearch.getMatchedWords(broadQuery, 1000),
+                    wordSearch.getMatchedWords(broadQuery, 1000, forkJoinPool));
+            Assert.assertEquals(wordSearch.getMatchedWords(broadQuery, 3),
+                    wordSearch.getMatchedWords(broadQuery, 3, forkJoinPool));
+
+            // the 2 letter words are few enough to be searched serially
+            final WordSearchQueryImpl narrowQuery = new WordSearchQueryImpl.WordSearchQueryBuilder()
+                    .setWordLength(2)
+                    .build();
+            Assert.assertEquals(wordSearch.getMatchedWords(narrowQuery),
+                    wordSearch.getMatchedWords(narrowQuery, forkJoinPool));
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    /**
+     * Count matched words. Verify the count is the same as the number of words found, and that
+     * counting stops at the cap.
+     */
+    @Test
+    public void testCountMatches() {
+        final WordSearch wordSearch = injector.getInstance(WordSearch.class);
+        final WordSearchQueryImpl searchQuery = new WordSearchQueryImpl.WordSearchQueryBuilder()
+                .setWordLength(5)
+                .addKnownLetter(0, 'c')
+                .addUsedLetter('e')
+                .build();
+
+        final int matchedWordCount = wordSearch.getMatchedWords(searchQuery).size();
+        Assert.assertTrue(matchedWordCount > 10);
+        Assert.assertEquals(matchedWordCount, wordSearch.countMatches(searchQuery));
+        Assert.assertEquals(10, wordSearch.countMatchesUpTo(searchQuery, 10));
+        Assert.assertEquals(matchedWordCount,
+                wordSearch.countMatchesUpTo(searchQuery, matchedWordCount + 1));
+
+        Assert.assertEquals(0, wordSearch.countMatches(
+                new WordSearchQueryImpl.WordSearchQueryBuilder()
+                        .setWordLength(99)
+                        .build()));
+    }
+
+    /**
+     * Search with a deadline. Verify a search with plenty of time finishes and a search that's
+     * already out of time gives up right away.
+     */
+    @Test
+    public void testWordSearchGiveUp() {
+        final WordSearch wordSearch = injector.getInstance(WordSearch.class);
+        final WordSearchQueryImpl searchQuery = new WordSearchQueryImpl.WordSearchQueryBuilder()
+                .setWordLength(6)
+                .addUsedLetter('s')
+                .build();
+
+        final PartialMatches completeMatches =
+                wordSearch.getMatchedWordsWithin(searchQuery, 1, TimeUnit.MINUTES);
+        Assert.assertTrue(completeMatches.isComplete());
+        Assert.assertFalse(completeMatches.isTruncated());
+        Assert.assertEquals(1.0, completeMatches.getFractionSearched(), 0.0);
+        Assert.assertEquals(wordSearch.getMatchedWords(searchQuery), completeMatches.getWords());
+
+        final PartialMatches limitedMatches =
+                wordSearch.getMatchedWordsWithin(searchQuery, 5, 1, TimeUnit.MINUTES);
+        Assert.assertTrue(limitedMatches.isComplete());
+        Assert.assertEquals(5, limitedMatches.getWords().size());
+
+        final PartialMatches truncatedMatches =
+                wordSearch.getMatchedWordsUntil(searchQuery, 5, System.nanoTime() - 1);
+        Assert.assertTrue(truncatedMatches.isTruncated());
+        Assert.assertTrue(truncatedMatches.getWords().isEmpty());
+        Assert.assertEquals(0.0, truncatedMatches.getFractionSearched(), 0.0);
+    }
+
+    /**
+     * Search for several words at once. Verify each gets the same words as it would on its own,
+     * including words that are the same length or are the same query.
+     */
+    @Test
+    public void testWordSearchBatch() {
+        final WordSearch wordSearch = injector.getInstance(WordSearch.class);
+        final List<WordSearchQueryImpl> searchQueries = Arrays.asList(
+                new WordSearchQueryImpl.WordSearchQueryBuilder()
+                        .setWordLength(5)
+                        .addKnownLetter(0, 'c')
+                        .addUsedLetter('r')
+                        .addUsedLetter('s')
+                        .build(),
+                new WordSearchQueryImpl.WordSearchQueryBuilder()
+                        .setWordLength(3)
+                        .addKnownLetter(0, 'd')
+                        .addUsedLetter('r')
+                        .addUsedLetter('s')
+                        .build(),
+                new WordSearchQueryImpl.WordSearchQueryBuilder()
+                        .setWordLength(5)
+                        .addKnownLetter(4, 's')
+                        .addUsedLetter('r')
+                        .addUsedLetter('s')
+                        .build(),
+                new WordSearchQueryImpl.WordSearchQueryBuilder()
+                        .setWordLength(5)
+                        .addKnownLetter(0, 'C')
+                        .addUsedLetter('R')
+                        .addUsedLetter('S')
+                        .build());
+
+        for(final int matchedWordLimit : new int[] {0, 10, 100000}) {
+            final List<List<String>> batchResults =
+                    wordSearch.getMatchedWordsBatch(searchQueries, matchedWordLimit);
+            Assert.assertEquals(searchQueries.size(), batchResults.size());
+            for(int queryIdx = 0; queryIdx < searchQueries.size(); queryIdx++) {
+                Assert.assertEquals(
+                        wordSearch.getMatchedWords(searchQueries.get(queryIdx), matchedWordLimit),
+                        batchResults.get(queryIdx));
+            }
+        }
+    }
+
+    /**
+     * Verify that the most common matched words come first, with the rest in dictionary order.
+     */
+    @Test
+    public void testTopMatchedWords() {
+        final WordSearch wordSearch = injector.getInstance(WordSearch.class);
+        final WordSearchQueryImpl searchQuery = new WordSearchQueryImpl.WordSearchQueryBuilder()
+                .setWordLength(5)
+                .addKnownLetter(0, 'w')
+                .addKnownLetter(4, 'r')
+                .build();
+
+        // "water" is far more common than any other word like it
+        final List<String> topWords = wordSearch.getTopMatchedWords(searchQuery, 3);
+        Assert.assertEquals(3, topWords.size());
+        Assert.assertEquals("water", topWords.get(0));
+        Assert.assertTrue(wordSearch.getTopMatchedWords(searchQuery, 0).isEmpty());
+
+        // without frequencies, it's dictionary order
+        final WordSearch plainWordSearch = new WordSearch(new LetterBitsetIndex(
+                Arrays.asList("waker", "water", "wider")));
+        Assert.assertEquals(Arrays.asList("waker", "water"),
+                plainWordSearch.getTopMatchedWords(searchQuery, 2));
+    }
 }